@@ -1,11 +1,14 @@
 package com.foodordering.config;
 
+import com.foodordering.entity.Driver;
 import com.foodordering.entity.MenuItem;
 import com.foodordering.entity.Restaurant;
 import com.foodordering.entity.User;
 import com.foodordering.enums.ApprovalStatus;
 import com.foodordering.enums.Category;
+import com.foodordering.enums.DriverStatus;
 import com.foodordering.enums.Role;
+import com.foodordering.repository.DriverRepository;
 import com.foodordering.repository.MenuItemRepository;
 import com.foodordering.repository.RestaurantRepository;
 import com.foodordering.repository.UserRepository;
@@ -31,6 +34,7 @@ public class DataInitializer {
     CommandLineRunner initDatabase(UserRepository userRepository, 
                                    RestaurantRepository restaurantRepository,
                                    MenuItemRepository menuItemRepository,
+                                   DriverRepository driverRepository,
                                    PasswordEncoder passwordEncoder) {
         return args -> {
             // ========================================
@@ -118,6 +122,8 @@ public class DataInitializer {
                         .address("123 Main St")
                         .city("Mumbai")
                         .phoneNumber("9988776655")
+                        .latitude(19.0596)
+                        .longitude(72.8295)
                         .rating(4.5)
                         .totalReviews(120)
                         .isOpen(true)
@@ -136,6 +142,8 @@ public class DataInitializer {
                         .address("456 Park Ave")
                         .city("Mumbai")
                         .phoneNumber("8877665544")
+                        .latitude(19.1136)
+                        .longitude(72.8697)
                         .rating(4.2)
                         .totalReviews(85)
                         .isOpen(true)
@@ -154,6 +162,8 @@ public class DataInitializer {
                         .address("789 Ocean Blvd")
                         .city("Mumbai")
                         .phoneNumber("7766554433")
+                        .latitude(19.0176)
+                        .longitude(72.8562)
                         .rating(4.8)
                         .totalReviews(200)
                         .isOpen(true)
@@ -348,6 +358,30 @@ public class DataInitializer {
                 logger.warn("⚠️  Could not create restaurants - owner user not found");
             }
 
+            // ========================================
+            // STEP 4: Create Sample Drivers
+            // ========================================
+
+            if (driverRepository.count() == 0) {
+                // Spread around central Mumbai, up to ~4 km out, so the dispatcher has someone nearby
+                for (int i = 0; i < 20; i++) {
+                    double angle = i * 2 * Math.PI / 20;
+                    double distanceDegrees = 0.006 + (i % 5) * 0.008;
+                    Driver driver = Driver.builder()
+                            .name("Driver-" + (i + 1))
+                            .phoneNumber(String.format("70000000%02d", i + 1))
+                            .latitude(19.0760 + distanceDegrees * Math.sin(angle))
+                            .longitude(72.8777 + distanceDegrees * Math.cos(angle))
+                            .status(DriverStatus.AVAILABLE)
+                            .updatedAt(LocalDateTime.now())
+                            .build();
+                    driverRepository.save(driver);
+                }
+                logger.info("✅ Created 20 sample delivery drivers");
+            } else {
+                logger.info("ℹ️  Drivers already exist - skipping creation");
+            }
+
             logger.info("========================================");
             logger.info("🚀 Application ready with sample data!");
             logger.info("========================================");
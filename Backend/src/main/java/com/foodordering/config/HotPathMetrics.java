@@ -0,0 +1,185 @@
+package com.foodordering.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Timers and gauges for the hot paths (order creation, payments, delivery scheduling, notification
+ * sends, queue depths, connection pools).
+ *
+ * Timers are Micrometer observations. In a build with the {@code metrics} Maven profile, Actuator
+ * supplies the {@link ObservationRegistry}, so every observation also becomes a Micrometer timer
+ * scraped at {@code /actuator/prometheus} (histogram and SLO buckets come from the
+ * {@code management.metrics.distribution.*} properties). Either way this handler keeps its own
+ * count/mean/max and SLO bucket counts per observation, which {@code /api/admin/metrics} shows
+ * together with the registered gauges.
+ */
+@Component
+public class HotPathMetrics implements ObservationHandler<Observation.Context> {
+
+    /** Latency buckets (upper bounds) reported per observation, matching the Prometheus SLO buckets. */
+    public static final long[] SLO_MILLIS = {50, 100, 250, 500, 1000, 2500};
+
+    private static final String START_NANOS = HotPathMetrics.class.getName() + ".start";
+
+    private final ObjectProvider<ObservationRegistry> registryProvider;
+    private final ObjectProvider<HikariDataSource> dataSources;
+    private final ObjectProvider<ThreadPoolTaskExecutor> taskExecutors;
+    private final Map<String, Timing> timings = new ConcurrentHashMap<>();
+    private final Map<String, Supplier<Number>> gauges = new ConcurrentHashMap<>();
+    // Names handed out by observation(); Actuator's own observations (HTTP, JDBC...) are left alone
+    private final Set<String> hotPaths = ConcurrentHashMap.newKeySet();
+    private volatile ObservationRegistry registry;
+
+    public HotPathMetrics(ObjectProvider<ObservationRegistry> registryProvider, ObjectProvider<HikariDataSource> dataSources,
+                          ObjectProvider<ThreadPoolTaskExecutor> taskExecutors) {
+        this.registryProvider = registryProvider;
+        this.dataSources = dataSources;
+        this.taskExecutors = taskExecutors;
+    }
+
+    @PostConstruct
+    void registerPoolGauges() {
+        dataSources.orderedStream().forEach(pool -> {
+            String prefix = "db.pool." + pool.getPoolName() + ".";
+            gauge(prefix + "active", () -> poolValue(pool, HikariPoolMXBean::getActiveConnections));
+            gauge(prefix + "idle", () -> poolValue(pool, HikariPoolMXBean::getIdleConnections));
+            gauge(prefix + "pending", () -> poolValue(pool, HikariPoolMXBean::getThreadsAwaitingConnection));
+            gauge(prefix + "max", pool::getMaximumPoolSize);
+        });
+        taskExecutors.orderedStream().forEach(executor -> {
+            String prefix = "async." + executor.getThreadNamePrefix().replaceAll("[^A-Za-z0-9]+$", "") + ".";
+            gauge(prefix + "active", executor::getActiveCount);
+            gauge(prefix + "queued", executor::getQueueSize);
+        });
+    }
+
+    /** An observation to run hot-path work in, e.g. {@code metrics.observation("order.create").observe(...)}. */
+    public Observation observation(String name) {
+        hotPaths.add(name);
+        return Observation.createNotStarted(name, registry());
+    }
+
+    /** Registers a gauge sampled whenever metrics are read; a later registration under the same name wins. */
+    public void gauge(String name, Supplier<Number> value) {
+        gauges.put(name, value);
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Object> timers = new TreeMap<>();
+        timings.forEach((name, timing) -> timers.put(name, timing.snapshot()));
+        Map<String, Object> values = new TreeMap<>();
+        gauges.forEach((name, value) -> values.put(name, value.get()));
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("timers", timers);
+        snapshot.put("gauges", values);
+        return snapshot;
+    }
+
+    @Override
+    public boolean supportsContext(Observation.Context context) {
+        return context.getName() != null && hotPaths.contains(context.getName());
+    }
+
+    @Override
+    public void onStart(Observation.Context context) {
+        context.put(START_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public void onStop(Observation.Context context) {
+        Long start = context.get(START_NANOS);
+        if (start != null) {
+            timings.computeIfAbsent(context.getName(), name -> new Timing())
+                    .record(System.nanoTime() - start, context.getError() != null);
+        }
+    }
+
+    // Actuator's registry when present (it picks this handler up as a bean), else a private one
+    private ObservationRegistry registry() {
+        ObservationRegistry current = registry;
+        if (current == null) {
+            synchronized (this) {
+                if (registry == null) {
+                    registry = registryProvider.getIfAvailable(() -> {
+                        ObservationRegistry own = ObservationRegistry.create();
+                        own.observationConfig().observationHandler(this);
+                        return own;
+                    });
+                }
+                current = registry;
+            }
+        }
+        return current;
+    }
+
+    private static Number poolValue(HikariDataSource pool, ToIntFunction<HikariPoolMXBean> value) {
+        HikariPoolMXBean bean = pool.getHikariPoolMXBean();
+        // Null until the pool has started
+        return bean != null ? value.applyAsInt(bean) : 0;
+    }
+
+    private static final class Timing {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        // One counter per SLO bucket plus one for slower calls
+        private final LongAdder[] buckets = new LongAdder[SLO_MILLIS.length + 1];
+
+        Timing() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        void record(long nanos, boolean failed) {
+            count.increment();
+            if (failed) errors.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+            int bucket = 0;
+            while (bucket < SLO_MILLIS.length && millis > SLO_MILLIS[bucket]) {
+                bucket++;
+            }
+            buckets[bucket].increment();
+        }
+
+        Map<String, Object> snapshot() {
+            long n = count.sum();
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("count", n);
+            snapshot.put("errors", errors.sum());
+            snapshot.put("meanMillis", n == 0 ? 0.0 : totalNanos.sum() / 1_000_000.0 / n);
+            snapshot.put("maxMillis", maxNanos.get() / 1_000_000.0);
+            // Cumulative, like Prometheus buckets: calls that took at most that long
+            Map<String, Long> slo = new LinkedHashMap<>();
+            long cumulative = 0;
+            for (int i = 0; i < SLO_MILLIS.length; i++) {
+                cumulative += buckets[i].sum();
+                slo.put("le" + SLO_MILLIS[i] + "ms", cumulative);
+            }
+            snapshot.put("slo", slo);
+            return snapshot;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.foodordering.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Moves the order, order item and payment id sequences past the ids already in their tables.
+ *
+ * Those ids used to be IDENTITY columns; on a database created before the switch, ddl-auto adds
+ * the sequences starting at 1 and the first insert would hit an existing primary key. Runs once
+ * the schema is up to date (it depends on the {@link EntityManagerFactory}) and before the sample
+ * data is loaded. A sequence is only ever moved forward, so blocks other instances already hold
+ * stay valid. H2 and MySQL (where Hibernate emulates sequences with one-row tables) are handled.
+ */
+@Component
+public class IdSequenceInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdSequenceInitializer.class);
+
+    // Must match allocationSize of the entities' @SequenceGenerator
+    private static final int ALLOCATION_SIZE = 50;
+    // sequence -> table whose ids it hands out
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "orders_seq", "orders",
+            "order_items_seq", "order_items",
+            "payments_seq", "payments");
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbc;
+
+    // entityManagerFactory is only a dependency: the schema (and the sequences) must exist first
+    public IdSequenceInitializer(DataSource dataSource, EntityManagerFactory entityManagerFactory) {
+        this.dataSource = dataSource;
+        this.jdbc = new JdbcTemplate(dataSource);
+    }
+
+    @PostConstruct
+    void advanceSequences() throws SQLException {
+        String product;
+        try (Connection connection = dataSource.getConnection()) {
+            product = connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT);
+        }
+        boolean h2 = product.contains("h2");
+        if (!h2 && !product.contains("mysql") && !product.contains("mariadb")) {
+            logger.warn("Not checking id sequences on {}; start them past MAX(id) by hand (see db/migration/add_id_sequences.sql)", product);
+            return;
+        }
+        SEQUENCES.forEach((sequence, table) -> {
+            try {
+                advance(sequence, table, h2);
+            } catch (DataAccessException ex) {
+                logger.error("Could not check {} against {}; start it past MAX(id) by hand (see db/migration/add_id_sequences.sql)",
+                        sequence, table, ex);
+            }
+        });
+    }
+
+    private void advance(String sequence, String table, boolean h2) {
+        Long maxId = jdbc.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+        if (maxId == null) return;
+        // Hibernate's pooled optimizer hands out the ALLOCATION_SIZE ids up to each value it reads
+        long required = maxId + ALLOCATION_SIZE + 1;
+        Long next = h2
+                ? jdbc.queryForObject("SELECT BASE_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = ?",
+                        Long.class, sequence.toUpperCase(Locale.ROOT))
+                : jdbc.queryForObject("SELECT next_val FROM " + sequence, Long.class);
+        if (next != null && next >= required) return;
+        if (h2) {
+            jdbc.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + required);
+        } else {
+            jdbc.update("UPDATE " + sequence + " SET next_val = ?", required);
+        }
+        logger.info("Advanced {} from {} to {} (max id in {} is {})", sequence, next, required, table, maxId);
+    }
+}
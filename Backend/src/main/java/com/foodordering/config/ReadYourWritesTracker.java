@@ -0,0 +1,46 @@
+package com.foodordering.config;
+
+import com.foodordering.security.SecurityUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Remembers which users changed data in the last few seconds, so their read-only transactions keep
+ * going to the primary until the replica has caught up (a customer must see the order they just
+ * placed). Only used when a read replica is configured, see {@link ReadReplicaDataSourceConfig}.
+ */
+@Component
+public class ReadYourWritesTracker {
+
+    private static final int PRUNE_THRESHOLD = 10_000;
+
+    private final long windowMillis;
+    // user email -> until when their reads stay on the primary (epoch millis)
+    private final Map<String, Long> primaryUntil = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(@Value("${datasource.replica.read-your-writes-seconds:5}") long windowSeconds) {
+        this.windowMillis = TimeUnit.SECONDS.toMillis(windowSeconds);
+    }
+
+    /** Call on the request thread when the current user writes something they will read back. */
+    public void recordWrite() {
+        String email = SecurityUtils.getCurrentUserEmail();
+        if (email == null) return;
+        long now = System.currentTimeMillis();
+        if (primaryUntil.size() > PRUNE_THRESHOLD) {
+            primaryUntil.values().removeIf(until -> until < now);
+        }
+        primaryUntil.put(email, now + windowMillis);
+    }
+
+    public boolean mustReadPrimary() {
+        String email = SecurityUtils.getCurrentUserEmail();
+        if (email == null) return false;
+        Long until = primaryUntil.get(email);
+        return until != null && until >= System.currentTimeMillis();
+    }
+}
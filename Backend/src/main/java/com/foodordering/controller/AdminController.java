@@ -1,34 +1,88 @@
 package com.foodordering.controller;
 
+import com.foodordering.config.HotPathMetrics;
 import com.foodordering.dto.*;
+import com.foodordering.entity.Driver;
+import com.foodordering.entity.Order;
 import com.foodordering.entity.Restaurant;
 import com.foodordering.entity.User;
+import com.foodordering.enums.ApprovalStatus;
+import com.foodordering.enums.DeliveryStatus;
+import com.foodordering.enums.DriverStatus;
+import com.foodordering.enums.OrderStatus;
+import com.foodordering.enums.PaymentStatus;
 import com.foodordering.enums.Role;
 import com.foodordering.repository.*;
 import com.foodordering.mapper.*;
+import com.foodordering.security.UserStatusCache;
+import com.foodordering.service.CatalogSearchIndex;
+import com.foodordering.service.DriverDispatcher;
+import com.foodordering.service.KitchenLoadTracker;
+import com.foodordering.service.MenuSnapshotCache;
+import com.foodordering.service.OrderExportService;
+import com.foodordering.service.OrderLifecycleEngine;
+import com.foodordering.service.PaymentGatewayClient;
+import com.foodordering.service.RatingAggregator;
+import com.foodordering.service.OrderLifecycleScheduler;
+import com.foodordering.service.OrderNotificationDispatcher;
+import com.foodordering.service.RestaurantCatalogCache;
+import com.foodordering.service.RestaurantIndexes;
+import com.foodordering.service.RestaurantLocationIndex;
+import com.foodordering.service.RestaurantService;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.http.HttpStatus;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/admin")
 public class AdminController {
 
+    // List endpoints return a CursorPageDto of at most `limit` rows (50 unless given), newest first;
+    // pass its nextCursor back as `cursor` for the following page
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final UserRepository userRepository;
     private final RestaurantRepository restaurantRepository;
     private final MenuItemRepository menuItemRepository;
     private final OrderRepository orderRepository;
     private final PaymentRepository paymentRepository;
     private final DeliveryRepository deliveryRepository;
+    private final DriverRepository driverRepository;
 
     private final UserMapper userMapper;
     private final RestaurantMapper restaurantMapper;
     private final MenuItemMapper menuItemMapper;
     private final OrderMapper orderMapper;
     private final DeliveryMapper deliveryMapper;
+    private final DriverMapper driverMapper;
+    private final OrderLifecycleScheduler lifecycleScheduler;
+    private final OrderLifecycleEngine lifecycleEngine;
+    private final OrderNotificationDispatcher notificationDispatcher;
+    private final UserStatusCache userStatusCache;
+    private final RestaurantCatalogCache catalogCache;
+    private final MenuSnapshotCache menuCache;
+    private final OrderExportService orderExportService;
+    private final PaymentGatewayClient paymentGatewayClient;
+    private final HotPathMetrics hotPathMetrics;
+    private final DriverDispatcher driverDispatcher;
+    private final RestaurantLocationIndex locationIndex;
+    private final CatalogSearchIndex searchIndex;
+    private final RestaurantIndexes restaurantIndexes;
+    private final RestaurantService restaurantService;
+    private final RatingAggregator ratingAggregator;
+    private final KitchenLoadTracker kitchenLoad;
 
     public AdminController(UserRepository userRepository,
                            RestaurantRepository restaurantRepository,
@@ -36,29 +90,70 @@ public class AdminController {
                            OrderRepository orderRepository,
                            PaymentRepository paymentRepository,
                            DeliveryRepository deliveryRepository,
+                           DriverRepository driverRepository,
                            UserMapper userMapper,
                            RestaurantMapper restaurantMapper,
                            MenuItemMapper menuItemMapper,
                            OrderMapper orderMapper,
-                           DeliveryMapper deliveryMapper) {
+                           DeliveryMapper deliveryMapper,
+                           DriverMapper driverMapper,
+                           OrderLifecycleScheduler lifecycleScheduler,
+                           OrderLifecycleEngine lifecycleEngine,
+                           OrderNotificationDispatcher notificationDispatcher,
+                           UserStatusCache userStatusCache,
+                           RestaurantCatalogCache catalogCache,
+                           MenuSnapshotCache menuCache,
+                           OrderExportService orderExportService,
+                           PaymentGatewayClient paymentGatewayClient,
+                           HotPathMetrics hotPathMetrics,
+                           DriverDispatcher driverDispatcher,
+                           RestaurantLocationIndex locationIndex,
+                           CatalogSearchIndex searchIndex,
+                           RestaurantIndexes restaurantIndexes,
+                           RestaurantService restaurantService,
+                           RatingAggregator ratingAggregator,
+                           KitchenLoadTracker kitchenLoad) {
         this.userRepository = userRepository;
         this.restaurantRepository = restaurantRepository;
         this.menuItemRepository = menuItemRepository;
         this.orderRepository = orderRepository;
         this.paymentRepository = paymentRepository;
         this.deliveryRepository = deliveryRepository;
+        this.driverRepository = driverRepository;
         this.userMapper = userMapper;
         this.restaurantMapper = restaurantMapper;
         this.menuItemMapper = menuItemMapper;
         this.orderMapper = orderMapper;
         this.deliveryMapper = deliveryMapper;
+        this.driverMapper = driverMapper;
+        this.lifecycleScheduler = lifecycleScheduler;
+        this.lifecycleEngine = lifecycleEngine;
+        this.notificationDispatcher = notificationDispatcher;
+        this.userStatusCache = userStatusCache;
+        this.catalogCache = catalogCache;
+        this.menuCache = menuCache;
+        this.orderExportService = orderExportService;
+        this.paymentGatewayClient = paymentGatewayClient;
+        this.hotPathMetrics = hotPathMetrics;
+        this.driverDispatcher = driverDispatcher;
+        this.locationIndex = locationIndex;
+        this.searchIndex = searchIndex;
+        this.restaurantIndexes = restaurantIndexes;
+        this.restaurantService = restaurantService;
+        this.ratingAggregator = ratingAggregator;
+        this.kitchenLoad = kitchenLoad;
     }
 
     // --- Users ---
     @GetMapping("/users")
-    public ResponseEntity<ApiResponse> listUsers() {
-        List<UserDto> users = userRepository.findAll().stream().map(userMapper::toDto).collect(Collectors.toList());
-        return ResponseEntity.ok(new ApiResponse(true, "Users retrieved", users));
+    public ResponseEntity<ApiResponse> listUsers(@RequestParam(required = false) Long cursor,
+                                                 @RequestParam(required = false) Integer limit,
+                                                 @RequestParam(required = false) Role role,
+                                                 @RequestParam(required = false) Boolean active) {
+        int size = pageSize(limit);
+        var page = CursorPageDto.of(userRepository.findAdminPage(cursor, role, active, PageRequest.ofSize(size + 1)),
+                size, User::getId, userMapper::toDto);
+        return ResponseEntity.ok(new ApiResponse(true, "Users retrieved", page));
     }
 
     @GetMapping("/users/{id}")
@@ -75,20 +170,29 @@ public class AdminController {
         if (dto.getRole() != null) user.setRole(Role.valueOf(dto.getRole()));
         if (dto.getIsActive() != null) user.setIsActive(dto.getIsActive());
         user = userRepository.save(user);
+        // Role/active changes must apply to the user's existing tokens right away
+        userStatusCache.invalidate(user.getEmail());
         return ResponseEntity.ok(new ApiResponse(true, "User updated", userMapper.toDto(user)));
     }
 
     @DeleteMapping("/users/{id}")
     public ResponseEntity<ApiResponse> deleteUser(@PathVariable Long id) {
+        var email = userRepository.findById(id).map(User::getEmail).orElse(null);
         userRepository.deleteById(id);
+        userStatusCache.invalidate(email);
         return ResponseEntity.ok(new ApiResponse(true, "User deleted", null));
     }
 
     // --- Restaurants ---
     @GetMapping("/restaurants")
-    public ResponseEntity<ApiResponse> listRestaurants() {
-        List<RestaurantDto> items = restaurantRepository.findAll().stream().map(restaurantMapper::toDto).collect(Collectors.toList());
-        return ResponseEntity.ok(new ApiResponse(true, "Restaurants retrieved", items));
+    public ResponseEntity<ApiResponse> listRestaurants(@RequestParam(required = false) Long cursor,
+                                                       @RequestParam(required = false) Integer limit,
+                                                       @RequestParam(required = false) ApprovalStatus status,
+                                                       @RequestParam(required = false) String city) {
+        int size = pageSize(limit);
+        var page = CursorPageDto.of(restaurantRepository.findAdminPage(cursor, status, city, PageRequest.ofSize(size + 1)),
+                size, Restaurant::getId, restaurantMapper::toDto);
+        return ResponseEntity.ok(new ApiResponse(true, "Restaurants retrieved", page));
     }
 
     @GetMapping("/restaurants/{id}")
@@ -101,7 +205,11 @@ public class AdminController {
     public ResponseEntity<ApiResponse> createRestaurant(@RequestBody RestaurantDto dto) {
         Restaurant r = restaurantMapper.toEntity(dto);
         // Note: admin can create without owner; owner assignment could be done by setting ownerId in dto in future
+        // Ratings only come from reviews
+        r.setRating(0.0);
+        r.setTotalReviews(0);
         r = restaurantRepository.save(r);
+        restaurantIndexes.changed(r);
         return ResponseEntity.status(201).body(new ApiResponse(true, "Restaurant created", restaurantMapper.toDto(r)));
     }
 
@@ -113,25 +221,28 @@ public class AdminController {
         if (dto.getAddress() != null) r.setAddress(dto.getAddress());
         if (dto.getCity() != null) r.setCity(dto.getCity());
         if (dto.getPhoneNumber() != null) r.setPhoneNumber(dto.getPhoneNumber());
+        if (dto.getLatitude() != null) r.setLatitude(dto.getLatitude());
+        if (dto.getLongitude() != null) r.setLongitude(dto.getLongitude());
         if (dto.getIsOpen() != null) r.setIsOpen(dto.getIsOpen());
         r = restaurantRepository.save(r);
+        restaurantIndexes.changed(r);
         return ResponseEntity.ok(new ApiResponse(true, "Restaurant updated", restaurantMapper.toDto(r)));
     }
 
     @DeleteMapping("/restaurants/{id}")
     public ResponseEntity<ApiResponse> deleteRestaurant(@PathVariable Long id) {
-        restaurantRepository.deleteById(id);
+        restaurantService.adminDeleteRestaurant(id);
         return ResponseEntity.ok(new ApiResponse(true, "Restaurant deleted", null));
     }
 
     // --- Restaurant Approval ---
     @GetMapping("/restaurants/pending")
-    public ResponseEntity<ApiResponse> getPendingRestaurants() {
-        List<RestaurantDto> pending = restaurantRepository.findAll().stream()
-                .filter(r -> r.getApprovalStatus() == com.foodordering.enums.ApprovalStatus.PENDING)
-                .map(restaurantMapper::toDto)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(new ApiResponse(true, "Pending restaurants retrieved", pending));
+    public ResponseEntity<ApiResponse> getPendingRestaurants(@RequestParam(required = false) Long cursor,
+                                                             @RequestParam(required = false) Integer limit) {
+        int size = pageSize(limit);
+        var page = CursorPageDto.of(restaurantRepository.findAdminPage(cursor, ApprovalStatus.PENDING, null, PageRequest.ofSize(size + 1)),
+                size, Restaurant::getId, restaurantMapper::toDto);
+        return ResponseEntity.ok(new ApiResponse(true, "Pending restaurants retrieved", page));
     }
 
     @PostMapping("/restaurants/{id}/approve")
@@ -140,6 +251,7 @@ public class AdminController {
                 .orElseThrow(() -> new org.springframework.web.server.ResponseStatusException(HttpStatus.NOT_FOUND, "Restaurant not found"));
         r.setApprovalStatus(com.foodordering.enums.ApprovalStatus.APPROVED);
         r = restaurantRepository.save(r);
+        restaurantIndexes.changed(r);
         return ResponseEntity.ok(new ApiResponse(true, "Restaurant approved", restaurantMapper.toDto(r)));
     }
 
@@ -149,58 +261,223 @@ public class AdminController {
                 .orElseThrow(() -> new org.springframework.web.server.ResponseStatusException(HttpStatus.NOT_FOUND, "Restaurant not found"));
         r.setApprovalStatus(com.foodordering.enums.ApprovalStatus.REJECTED);
         r = restaurantRepository.save(r);
+        restaurantIndexes.changed(r);
         return ResponseEntity.ok(new ApiResponse(true, "Restaurant rejected", restaurantMapper.toDto(r)));
     }
 
     // --- Menu items ---
     @GetMapping("/menu-items")
-    public ResponseEntity<ApiResponse> listMenuItems() {
-        var items = menuItemRepository.findAll().stream().map(menuItemMapper::toDto).collect(Collectors.toList());
-        return ResponseEntity.ok(new ApiResponse(true, "Menu items retrieved", items));
+    public ResponseEntity<ApiResponse> listMenuItems(@RequestParam(required = false) Long cursor,
+                                                     @RequestParam(required = false) Integer limit,
+                                                     @RequestParam(required = false) Long restaurantId) {
+        int size = pageSize(limit);
+        var page = CursorPageDto.of(menuItemRepository.findAdminPage(cursor, restaurantId, PageRequest.ofSize(size + 1)),
+                size, com.foodordering.entity.MenuItem::getId, menuItemMapper::toDto);
+        return ResponseEntity.ok(new ApiResponse(true, "Menu items retrieved", page));
     }
 
     @DeleteMapping("/menu-items/{id}")
     public ResponseEntity<ApiResponse> deleteMenuItem(@PathVariable Long id) {
+        Long restaurantId = menuItemRepository.findById(id).map(m -> m.getRestaurant().getId()).orElse(null);
         menuItemRepository.deleteById(id);
+        menuCache.invalidate(restaurantId);
+        searchIndex.menuItemRemoved(id);
         return ResponseEntity.ok(new ApiResponse(true, "Menu item deleted", null));
     }
 
     // --- Orders ---
     @GetMapping("/orders")
-    public ResponseEntity<ApiResponse> listOrders() {
-        var items = orderRepository.findAll().stream().map(orderMapper::toDto).collect(Collectors.toList());
-        return ResponseEntity.ok(new ApiResponse(true, "Orders retrieved", items));
+    public ResponseEntity<ApiResponse> listOrders(@RequestParam(required = false) Long cursor,
+                                                  @RequestParam(required = false) Integer limit,
+                                                  @RequestParam(required = false) OrderStatus status,
+                                                  @RequestParam(required = false) Long restaurantId,
+                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        int size = pageSize(limit);
+        List<Long> ids = orderRepository.findAdminPageIds(cursor, status, restaurantId, from, to, PageRequest.ofSize(size + 1));
+        Map<Long, Order> orders = orderRepository.findWithDetailsByIdIn(ids.subList(0, Math.min(size, ids.size()))).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+        var page = CursorPageDto.of(ids, size, Function.identity(), id -> orderMapper.toDto(orders.get(id)));
+        return ResponseEntity.ok(new ApiResponse(true, "Orders retrieved", page));
+    }
+
+    // Whole (filtered) order table as NDJSON or CSV, streamed in constant memory
+    @GetMapping("/orders/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(@RequestParam(defaultValue = "ndjson") String format,
+                                                              @RequestParam(required = false) OrderStatus status,
+                                                              @RequestParam(required = false) Long restaurantId,
+                                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        OrderExportService.Format exportFormat = OrderExportService.Format.valueOf(format.toUpperCase());
+        boolean csv = exportFormat == OrderExportService.Format.CSV;
+        StreamingResponseBody body = out -> orderExportService.exportOrders(status, restaurantId, from, to, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv") : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders." + (csv ? "csv" : "ndjson") + "\"")
+                .body(body);
     }
 
     @GetMapping("/orders/{id}")
     public ResponseEntity<ApiResponse> getOrder(@PathVariable Long id) {
-        var order = orderRepository.findById(id).orElseThrow(() -> new org.springframework.web.server.ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found"));
+        var order = orderRepository.findWithDetailsById(id).orElseThrow(() -> new org.springframework.web.server.ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found"));
         return ResponseEntity.ok(new ApiResponse(true, "Order retrieved", orderMapper.toDto(order)));
     }
 
     @PutMapping("/orders/{id}/status")
     public ResponseEntity<ApiResponse> updateOrderStatus(@PathVariable Long id, @RequestParam String status) {
-        var order = orderRepository.findById(id).orElseThrow(() -> new org.springframework.web.server.ResponseStatusException(HttpStatus.NOT_FOUND, "Order not found"));
+        com.foodordering.enums.OrderStatus target;
         try {
-            order.setStatus(com.foodordering.enums.OrderStatus.valueOf(status));
+            target = com.foodordering.enums.OrderStatus.valueOf(status);
         } catch (Exception ex) {
             throw new org.springframework.web.server.ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid status");
         }
-        order = orderRepository.save(order);
-        return ResponseEntity.ok(new ApiResponse(true, "Order status updated", orderMapper.toDto(order)));
+        // Through the lifecycle engine like every other status change, so a cancelled or delivered
+        // order cannot be moved on and racing automatic progression is never overwritten
+        OrderDto order = lifecycleEngine.call(id, () -> orderMapper.toDto(lifecycleEngine.moveOrder(id, target)));
+        return ResponseEntity.ok(new ApiResponse(true, "Order status updated", order));
     }
 
     // --- Payments & Deliveries (read/update) ---
     @GetMapping("/payments")
-    public ResponseEntity<ApiResponse> listPayments() {
-        var p = paymentRepository.findAll();
-        return ResponseEntity.ok(new ApiResponse(true, "Payments retrieved", p));
+    public ResponseEntity<ApiResponse> listPayments(@RequestParam(required = false) Long cursor,
+                                                    @RequestParam(required = false) Integer limit,
+                                                    @RequestParam(required = false) PaymentStatus status,
+                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        int size = pageSize(limit);
+        var page = CursorPageDto.of(paymentRepository.findAdminPage(cursor, status, from, to, PageRequest.ofSize(size + 1)),
+                size, com.foodordering.entity.Payment::getId, Function.identity());
+        return ResponseEntity.ok(new ApiResponse(true, "Payments retrieved", page));
     }
 
     @GetMapping("/deliveries")
-    public ResponseEntity<ApiResponse> listDeliveries() {
-        var d = deliveryRepository.findAll().stream().map(deliveryMapper::toDto).collect(Collectors.toList());
-        return ResponseEntity.ok(new ApiResponse(true, "Deliveries retrieved", d));
+    public ResponseEntity<ApiResponse> listDeliveries(@RequestParam(required = false) Long cursor,
+                                                      @RequestParam(required = false) Integer limit,
+                                                      @RequestParam(required = false) DeliveryStatus status) {
+        int size = pageSize(limit);
+        var page = CursorPageDto.of(deliveryRepository.findAdminPage(cursor, status, PageRequest.ofSize(size + 1)),
+                size, com.foodordering.entity.Delivery::getId, deliveryMapper::toDto);
+        return ResponseEntity.ok(new ApiResponse(true, "Deliveries retrieved", page));
+    }
+
+    // --- Drivers (assigned to deliveries by the DriverDispatcher) ---
+    @GetMapping("/drivers")
+    public ResponseEntity<ApiResponse> listDrivers() {
+        var drivers = driverRepository.findAllByOrderByIdAsc().stream().map(driverMapper::toDto).collect(Collectors.toList());
+        return ResponseEntity.ok(new ApiResponse(true, "Drivers retrieved", drivers));
+    }
+
+    @PostMapping("/drivers")
+    public ResponseEntity<ApiResponse> createDriver(@RequestBody DriverDto dto) {
+        if (dto.getName() == null || dto.getLatitude() == null || dto.getLongitude() == null) {
+            throw new IllegalArgumentException("name, latitude and longitude are required");
+        }
+        Driver driver = driverMapper.toEntity(dto);
+        driver.setStatus(DriverStatus.OFFLINE.name().equals(dto.getStatus()) ? DriverStatus.OFFLINE : DriverStatus.AVAILABLE);
+        driver.setUpdatedAt(LocalDateTime.now());
+        driver = driverRepository.save(driver);
+        driverChanged(driver);
+        return ResponseEntity.status(201).body(new ApiResponse(true, "Driver created", driverMapper.toDto(driver)));
+    }
+
+    // Moves the driver and/or takes it on or off shift; a driver on a delivery is freed by the delivery, not here
+    @PutMapping("/drivers/{id}")
+    public ResponseEntity<ApiResponse> updateDriver(@PathVariable Long id, @RequestBody DriverDto dto) {
+        Driver driver = driverRepository.findById(id).orElseThrow(() -> new org.springframework.web.server.ResponseStatusException(HttpStatus.NOT_FOUND, "Driver not found"));
+        if (dto.getName() != null) driver.setName(dto.getName());
+        if (dto.getPhoneNumber() != null) driver.setPhoneNumber(dto.getPhoneNumber());
+        if (dto.getLatitude() != null) driver.setLatitude(dto.getLatitude());
+        if (dto.getLongitude() != null) driver.setLongitude(dto.getLongitude());
+        if (dto.getStatus() != null) {
+            DriverStatus status = DriverStatus.valueOf(dto.getStatus().toUpperCase());
+            if (status != driver.getStatus() && (status == DriverStatus.ASSIGNED || driver.getStatus() == DriverStatus.ASSIGNED)) {
+                throw new IllegalArgumentException("Cannot change driver status from " + driver.getStatus() + " to " + status);
+            }
+            driver.setStatus(status);
+        }
+        driver.setUpdatedAt(LocalDateTime.now());
+        driver = driverRepository.save(driver);
+        driverChanged(driver);
+        return ResponseEntity.ok(new ApiResponse(true, "Driver updated", driverMapper.toDto(driver)));
+    }
+
+    @GetMapping("/dispatch/stats")
+    public ResponseEntity<ApiResponse> dispatchStats() {
+        return ResponseEntity.ok(new ApiResponse(true, "Driver dispatch stats", driverDispatcher.stats()));
+    }
+
+    // --- Order lifecycle scheduler metrics (queue depth, firing lag) ---
+    @GetMapping("/lifecycle/stats")
+    public ResponseEntity<ApiResponse> lifecycleStats() {
+        return ResponseEntity.ok(new ApiResponse(true, "Lifecycle scheduler stats", lifecycleScheduler.stats()));
+    }
+
+    @GetMapping("/notifications/stats")
+    public ResponseEntity<ApiResponse> notificationStats() {
+        return ResponseEntity.ok(new ApiResponse(true, "Notification dispatcher stats", notificationDispatcher.stats()));
+    }
+
+    @GetMapping("/catalog/stats")
+    public ResponseEntity<ApiResponse> catalogStats() {
+        return ResponseEntity.ok(new ApiResponse(true, "Restaurant catalog cache stats", catalogCache.stats()));
+    }
+
+    @GetMapping("/restaurant-locations/stats")
+    public ResponseEntity<ApiResponse> restaurantLocationStats() {
+        return ResponseEntity.ok(new ApiResponse(true, "Restaurant location index stats", locationIndex.stats()));
+    }
+
+    @GetMapping("/search/stats")
+    public ResponseEntity<ApiResponse> searchStats() {
+        return ResponseEntity.ok(new ApiResponse(true, "Search index stats", searchIndex.stats()));
+    }
+
+    // In-kitchen order counts and learnt preparation time per restaurant
+    @GetMapping("/kitchen-load/stats")
+    public ResponseEntity<ApiResponse> kitchenLoadStats() {
+        return ResponseEntity.ok(new ApiResponse(true, "Kitchen load stats", kitchenLoad.stats()));
+    }
+
+    @GetMapping("/reviews/stats")
+    public ResponseEntity<ApiResponse> reviewStats() {
+        return ResponseEntity.ok(new ApiResponse(true, "Rating aggregation stats", ratingAggregator.stats()));
+    }
+
+    // Rebuilds the restaurant's rating and review count from its reviews, e.g. after ratings were lost in a crash
+    @PostMapping("/restaurants/{id}/rating/recompute")
+    public ResponseEntity<ApiResponse> recomputeRating(@PathVariable Long id) {
+        if (!restaurantRepository.existsById(id)) {
+            throw new org.springframework.web.server.ResponseStatusException(HttpStatus.NOT_FOUND, "Restaurant not found");
+        }
+        Restaurant r = ratingAggregator.recompute(id);
+        return ResponseEntity.ok(new ApiResponse(true, "Rating recomputed", restaurantMapper.toDto(r)));
     }
 
+    @GetMapping("/menu-cache/stats")
+    public ResponseEntity<ApiResponse> menuCacheStats() {
+        return ResponseEntity.ok(new ApiResponse(true, "Menu snapshot cache stats", menuCache.stats()));
+    }
+
+    // Hot-path timers (count, mean, max, SLO buckets) and queue/pool gauges; see HotPathMetrics
+    @GetMapping("/metrics")
+    public ResponseEntity<ApiResponse> metrics() {
+        return ResponseEntity.ok(new ApiResponse(true, "Hot path metrics", hotPathMetrics.snapshot()));
+    }
+
+    @GetMapping("/payment-gateway/stats")
+    public ResponseEntity<ApiResponse> paymentGatewayStats() {
+        return ResponseEntity.ok(new ApiResponse(true, "Payment gateway stats", paymentGatewayClient.stats()));
+    }
+
+    private void driverChanged(Driver driver) {
+        driverDispatcher.driverChanged(driver.getId(), driver.getName(), driver.getStatus(), driver.getLatitude(), driver.getLongitude());
+    }
+
+    private static int pageSize(Integer limit) {
+        if (limit == null) return DEFAULT_PAGE_SIZE;
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return limit;
+    }
 }
@@ -3,6 +3,10 @@ package com.foodordering.controller;
 import com.foodordering.dto.MenuItemDto;
 import com.foodordering.dto.ApiResponse;
 import com.foodordering.service.MenuItemService;
+import com.foodordering.service.MenuSnapshotCache;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -18,11 +22,16 @@ public class MenuItemController {
         this.menuItemService = menuItemService;
     }
 
+    // Pre-serialized snapshot with a strong ETag; a matching If-None-Match gets a 304
     @GetMapping("/restaurant/{restaurantId}")
-    public ResponseEntity<ApiResponse> getMenuItemsByRestaurant(@PathVariable Long restaurantId) {
-        List<MenuItemDto> menuItems = menuItemService.getMenuItemsByRestaurant(restaurantId);
-        ApiResponse response = new ApiResponse(true, "Menu items retrieved successfully", menuItems);
-        return ResponseEntity.ok(response);
+    public ResponseEntity<Resource> getMenuItemsByRestaurant(@PathVariable Long restaurantId) {
+        MenuSnapshotCache.Snapshot menu = menuItemService.getMenuSnapshot(restaurantId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .contentLength(menu.length())
+                .cacheControl(CacheControl.noCache())
+                .eTag(menu.etag())
+                .body(menu.body());
     }
 
     @GetMapping
@@ -1,6 +1,7 @@
 package com.foodordering.controller;
 
 import com.foodordering.dto.*;
+import com.foodordering.service.OrderIdempotencyService;
 import com.foodordering.service.OrderService;
 import com.foodordering.service.PaymentService;
 import org.springframework.http.HttpStatus;
@@ -16,17 +17,25 @@ public class OrderController {
 
     private final OrderService orderService;
     private final PaymentService paymentService;
+    private final OrderIdempotencyService orderIdempotency;
 
-    public OrderController(OrderService orderService, PaymentService paymentService) {
+    public OrderController(OrderService orderService, PaymentService paymentService,
+                           OrderIdempotencyService orderIdempotency) {
         this.orderService = orderService;
         this.paymentService = paymentService;
+        this.orderIdempotency = orderIdempotency;
     }
 
+    // Clients retrying on a timeout should resend the same Idempotency-Key; a repeat gets the
+    // original order back (marked with Idempotent-Replayed: true) instead of a new one
     @PostMapping
-    public ResponseEntity<ApiResponse> createOrder(@Valid @RequestBody CreateOrderDto dto) {
-        OrderDto order = orderService.createOrder(dto);
-        ApiResponse response = new ApiResponse(true, "Order created successfully", order);
-        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    public ResponseEntity<ApiResponse> createOrder(@Valid @RequestBody CreateOrderDto dto,
+                                                   @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        OrderIdempotencyService.Result result = orderIdempotency.createOrder(idempotencyKey, dto);
+        ApiResponse response = new ApiResponse(true, "Order created successfully", result.order());
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header("Idempotent-Replayed", String.valueOf(result.replayed()))
+                .body(response);
     }
 
     @GetMapping("/customer")
@@ -8,6 +8,9 @@ import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/orders")
 public class PaymentController {
@@ -18,10 +21,24 @@ public class PaymentController {
         this.paymentService = paymentService;
     }
 
+    // With "Prefer: respond-async" the gateway is called in the background: 202 with the payment
+    // status, to be polled at the Location (the order also gets its usual WebSocket update)
     @PostMapping("/{orderId}/pay")
-    public ResponseEntity<ApiResponse> payForOrder(@PathVariable Long orderId, @Valid @RequestBody PaymentRequestDto request) {
+    public ResponseEntity<ApiResponse> payForOrder(@PathVariable Long orderId, @Valid @RequestBody PaymentRequestDto request,
+                                                   @RequestHeader(value = "Prefer", required = false) String prefer) {
+        if (prefer != null && prefer.toLowerCase().contains("respond-async")) {
+            Map<String, Object> status = paymentService.submitPayment(orderId, request);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/orders/" + orderId + "/payment"))
+                    .body(new ApiResponse(true, "Payment accepted", status));
+        }
         OrderDto updated = paymentService.processPayment(orderId, request);
         ApiResponse resp = new ApiResponse(true, "Payment processed", updated);
         return ResponseEntity.ok(resp);
     }
+
+    @GetMapping("/{orderId}/payment")
+    public ResponseEntity<ApiResponse> getPayment(@PathVariable Long orderId) {
+        return ResponseEntity.ok(new ApiResponse(true, "Payment retrieved", paymentService.getPaymentStatus(orderId)));
+    }
 }
@@ -1,7 +1,10 @@
 package com.foodordering.controller;
 
 import com.foodordering.dto.*;
+import com.foodordering.service.RestaurantCatalogCache;
+import com.foodordering.service.RestaurantLocationIndex;
 import com.foodordering.service.RestaurantService;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -17,11 +20,19 @@ public class RestaurantController {
         this.restaurantService = restaurantService;
     }
 
+    // Public catalog (approved only). Optional city filter and paging; answers 304 to a matching
+    // If-None-Match / If-Modified-Since so browsers can revalidate cheaply.
     @GetMapping
-    public ResponseEntity<ApiResponse> getAllRestaurants() {
-        List<RestaurantDto> restaurants = restaurantService.getAllRestaurants();
-        ApiResponse response = new ApiResponse(true, "Restaurants retrieved successfully", restaurants);
-        return ResponseEntity.ok(response);
+    public ResponseEntity<ApiResponse> getAllRestaurants(@RequestParam(required = false) String city,
+                                                         @RequestParam(required = false) Integer page,
+                                                         @RequestParam(defaultValue = "20") int size) {
+        RestaurantCatalogCache.CatalogPage catalog = restaurantService.getApprovedCatalog(city, page, size);
+        ApiResponse response = new ApiResponse(true, "Restaurants retrieved successfully", catalog.data());
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(catalog.etag())
+                .lastModified(catalog.lastModifiedMillis())
+                .body(response);
     }
 
     @PostMapping
@@ -39,6 +50,19 @@ public class RestaurantController {
         return ResponseEntity.ok(response);
     }
 
+    // Approved, open restaurants closest to lat/lng or to one of the caller's saved addresses (public
+    // with coordinates; addressId needs a login), each with its distance in km
+    @GetMapping("/nearby")
+    public ResponseEntity<ApiResponse> getNearbyRestaurants(@RequestParam(required = false) Double lat,
+                                                            @RequestParam(required = false) Double lng,
+                                                            @RequestParam(required = false) Long addressId,
+                                                            @RequestParam(defaultValue = "20") int limit,
+                                                            @RequestParam(defaultValue = "10") double radiusKm) {
+        List<RestaurantLocationIndex.Nearby> nearby = restaurantService.getNearbyRestaurants(lat, lng, addressId, limit, radiusKm);
+        ApiResponse response = new ApiResponse(true, "Nearby restaurants retrieved successfully", nearby);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse> getRestaurantById(@PathVariable Long id) {
         RestaurantDto restaurant = restaurantService.getRestaurantById(id);
@@ -1,14 +1,17 @@
 package com.foodordering.controller;
 
 import com.foodordering.dto.*;
+import com.foodordering.enums.OrderStatus;
 import com.foodordering.service.MenuItemService;
 import com.foodordering.service.OrderService;
 import com.foodordering.service.RestaurantService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -77,9 +80,23 @@ public class RestaurantOwnerController {
         return ResponseEntity.ok(response);
     }
 
+    // Orders of all the owner's restaurants. No parameters: the full list, newest first.
+    // page/size (optionally status): one page. since (and afterId): only orders created or changed
+    // after that cursor, returning the "since" and "afterId" to use for the next poll.
     @GetMapping("/restaurants/orders")
-    public ResponseEntity<ApiResponse> getRestaurantOrders() {
-        List<OrderDto> orders = orderService.getRestaurantOrdersForOwner();
+    public ResponseEntity<ApiResponse> getRestaurantOrders(@RequestParam(required = false) List<OrderStatus> status,
+                                                           @RequestParam(required = false) Integer page,
+                                                           @RequestParam(defaultValue = "20") int size,
+                                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+                                                           @RequestParam(required = false) Long afterId) {
+        Object orders;
+        if (since != null) {
+            orders = orderService.getOwnerOrderChanges(status, since, afterId, size);
+        } else if (page != null || status != null) {
+            orders = orderService.getOwnerOrdersPage(status, page != null ? page : 0, size);
+        } else {
+            orders = orderService.getRestaurantOrdersForOwner();
+        }
         ApiResponse response = new ApiResponse(true, "Orders retrieved successfully for owner restaurants", orders);
         return ResponseEntity.ok(response);
     }
@@ -0,0 +1,38 @@
+package com.foodordering.controller;
+
+import com.foodordering.dto.ApiResponse;
+import com.foodordering.dto.CursorPageDto;
+import com.foodordering.dto.ReviewDto;
+import com.foodordering.service.ReviewService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api")
+public class ReviewController {
+
+    private final ReviewService reviewService;
+
+    public ReviewController(ReviewService reviewService) {
+        this.reviewService = reviewService;
+    }
+
+    // Rates a delivered order of the current user, once. The restaurant's rating catches up within
+    // review.rating.flush-seconds.
+    @PostMapping("/orders/{orderId}/review")
+    public ResponseEntity<ApiResponse> createReview(@PathVariable Long orderId, @RequestBody ReviewDto dto) {
+        ReviewDto created = reviewService.createReview(orderId, dto);
+        ApiResponse response = new ApiResponse(true, "Review submitted successfully", created);
+        return ResponseEntity.status(201).body(response);
+    }
+
+    // Public; newest first. Pass nextCursor back as cursor for the following page.
+    @GetMapping("/restaurants/{restaurantId}/reviews")
+    public ResponseEntity<ApiResponse> getRestaurantReviews(@PathVariable Long restaurantId,
+                                                            @RequestParam(required = false) Long cursor,
+                                                            @RequestParam(defaultValue = "20") int limit) {
+        CursorPageDto<ReviewDto> page = reviewService.getRestaurantReviews(restaurantId, cursor, limit);
+        ApiResponse response = new ApiResponse(true, "Reviews retrieved successfully", page);
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,30 @@
+package com.foodordering.controller;
+
+import com.foodordering.dto.ApiResponse;
+import com.foodordering.enums.Category;
+import com.foodordering.service.CatalogSearchIndex;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+
+    private final CatalogSearchIndex searchIndex;
+
+    public SearchController(CatalogSearchIndex searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    // Restaurants and menu items matching every word of q (prefixes and small typos allowed), best
+    // first, plus menu item counts per category. category/vegetarian narrow the menu items only.
+    @GetMapping
+    public ResponseEntity<ApiResponse> search(@RequestParam String q,
+                                              @RequestParam(required = false) Category category,
+                                              @RequestParam(required = false) Boolean vegetarian,
+                                              @RequestParam(defaultValue = "20") int limit) {
+        CatalogSearchIndex.Result result = searchIndex.search(q, category, vegetarian, limit);
+        ApiResponse response = new ApiResponse(true, "Search results retrieved successfully", result);
+        return ResponseEntity.ok(response);
+    }
+}
@@ -15,5 +15,7 @@ public class AddressDto {
     private String state;
     private String zipCode;
     private String landmark;
+    private Double latitude;
+    private Double longitude;
     private Boolean isDefault;
 }
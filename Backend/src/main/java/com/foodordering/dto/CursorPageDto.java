@@ -0,0 +1,28 @@
+package com.foodordering.dto;
+
+import lombok.*;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated list. Pass {@code nextCursor} back as the cursor parameter to get
+ * the following page; it is null on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDto<T> {
+    private List<T> items;
+    private Long nextCursor;
+
+    /**
+     * Builds a page from up to {@code limit + 1} rows read in cursor order; the extra row only
+     * tells whether there is a next page and is not returned.
+     */
+    public static <E, T> CursorPageDto<T> of(List<E> rows, int limit, Function<E, Long> cursorOf, Function<E, T> mapper) {
+        boolean hasMore = rows.size() > limit;
+        List<E> page = hasMore ? rows.subList(0, limit) : rows;
+        Long nextCursor = hasMore ? cursorOf.apply(page.get(page.size() - 1)) : null;
+        return new CursorPageDto<>(page.stream().map(mapper).toList(), nextCursor);
+    }
+}
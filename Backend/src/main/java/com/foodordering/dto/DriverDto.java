@@ -0,0 +1,21 @@
+package com.foodordering.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DriverDto {
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY)
+    private Long id;
+    private String name;
+    private String phoneNumber;
+    private Double latitude;
+    private Double longitude;
+    private String status; // AVAILABLE, ASSIGNED, OFFLINE
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY)
+    private LocalDateTime updatedAt;
+}
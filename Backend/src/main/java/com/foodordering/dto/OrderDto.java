@@ -27,5 +27,10 @@ public class OrderDto {
     private String specialInstructions;
     private LocalDateTime createdAt;
     private LocalDateTime deliveredAt;
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY)
+    private LocalDateTime estimatedDeliveryAt;
+    // Seconds from now until estimatedDeliveryAt, 0 when overdue
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY)
+    private Integer etaSeconds;
     private DeliveryDto delivery;
 }
@@ -17,7 +17,11 @@ public class RestaurantDto {
     private String address;
     private String city;
     private String phoneNumber;
+    private Double latitude;
+    private Double longitude;
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY)
     private Double rating;
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY)
     private Integer totalReviews;
     private Boolean isOpen;
     private String approvalStatus; // PENDING, APPROVED, REJECTED
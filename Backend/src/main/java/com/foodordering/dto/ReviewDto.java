@@ -0,0 +1,24 @@
+package com.foodordering.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReviewDto {
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY)
+    private Long id;
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY)
+    private Long orderId;
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY)
+    private Long restaurantId;
+    private Integer rating; // 1 to 5
+    private String comment;
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY)
+    private String customerName;
+    @Schema(accessMode = Schema.AccessMode.READ_ONLY)
+    private LocalDateTime createdAt;
+}
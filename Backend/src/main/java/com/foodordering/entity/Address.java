@@ -28,6 +28,11 @@ public class Address {
 
     private String landmark;
 
+    // WGS84 degrees, optional; used to find restaurants near the address
+    private Double latitude;
+
+    private Double longitude;
+
     @Column(nullable = false)
     private Boolean isDefault = false;
 
@@ -7,7 +7,7 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "deliveries")
+@Table(name = "deliveries", indexes = @Index(name = "idx_deliveries_status_driver", columnList = "status, driver_id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -17,6 +17,11 @@ public class Delivery {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Version
+    @org.hibernate.annotations.ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @OneToOne
     @JoinColumn(name = "order_id", nullable = false, unique = true)
     private Order order;
@@ -25,10 +30,15 @@ public class Delivery {
     @lombok.Builder.Default
     private DeliveryStatus status = DeliveryStatus.SCHEDULED;
 
-    // For demo, a simple assigned driver name or id
+    // Null until the DriverDispatcher assigns one
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "driver_id")
+    private Driver driver;
+
+    // The assigned driver's name, kept for clients that only show who is coming
     private String assignedDriver;
 
-    // ETA in seconds for demo fast scheduling (30 - 120 seconds)
+    // Estimated seconds for the driver to reach the restaurant, set on assignment
     private Integer etaSeconds;
 
     private LocalDateTime scheduledAt;
@@ -0,0 +1,43 @@
+package com.foodordering.entity;
+
+import com.foodordering.enums.DriverStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "drivers", indexes = @Index(name = "idx_drivers_status", columnList = "status"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Driver {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Version
+    @org.hibernate.annotations.ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(nullable = false)
+    private String name;
+
+    private String phoneNumber;
+
+    // Last reported position (WGS84 degrees)
+    @Column(nullable = false)
+    private Double latitude;
+
+    @Column(nullable = false)
+    private Double longitude;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @lombok.Builder.Default
+    private DriverStatus status = DriverStatus.AVAILABLE;
+
+    private LocalDateTime updatedAt;
+}
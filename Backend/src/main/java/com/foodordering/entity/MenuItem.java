@@ -5,7 +5,7 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "menu_items")
+@Table(name = "menu_items", indexes = @Index(name = "idx_menu_items_restaurant_available", columnList = "restaurant_id, is_available"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
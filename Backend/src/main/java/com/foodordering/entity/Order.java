@@ -7,16 +7,39 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+// Indexes for the hot reads (customer history, restaurant/owner dashboards, status scans); see db/migration/add_hot_path_indexes.sql
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_customer_created", columnList = "customer_id, created_at"),
+        @Index(name = "idx_orders_restaurant_status_created", columnList = "restaurant_id, status, created_at"),
+        @Index(name = "idx_orders_status_created", columnList = "status, created_at")
+})
+// Everything OrderMapper.toDto touches, fetched with the order so listings don't load it row by row
+@NamedEntityGraph(name = Order.LISTING_GRAPH, attributeNodes = {
+        @NamedAttributeNode("customer"),
+        @NamedAttributeNode("restaurant"),
+        @NamedAttributeNode("deliveryAddress"),
+        @NamedAttributeNode("delivery"),
+        @NamedAttributeNode(value = "orderItems", subgraph = "items")
+}, subgraphs = @NamedSubgraph(name = "items", attributeNodes = @NamedAttributeNode("menuItem")))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Order {
+    public static final String LISTING_GRAPH = "Order.listing";
+
+    // Pooled sequence (not IDENTITY) so Hibernate can batch inserts; ids are reserved 50 at a time
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
+    // Optimistic lock: a status written from a stale copy fails instead of silently winning
+    @Version
+    @org.hibernate.annotations.ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customer_id", nullable = false)
     private User customer;
@@ -58,6 +81,9 @@ public class Order {
 
     private LocalDateTime deliveredAt;
 
+    // Expected drop-off time, re-estimated by KitchenLoadTracker on every status change; null once finished
+    private LocalDateTime estimatedDeliveryAt;
+
     @OneToOne(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private com.foodordering.entity.Delivery delivery;
 }
@@ -10,8 +10,10 @@ import lombok.*;
 @AllArgsConstructor
 @Builder
 public class OrderItem {
+    // Pooled sequence (not IDENTITY) so Hibernate can batch inserts; ids are reserved 50 at a time
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -7,7 +7,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "restaurants")
+// Only changed columns are written, so saving a restaurant never overwrites a rating flushed meanwhile
+@org.hibernate.annotations.DynamicUpdate
+@Table(name = "restaurants", indexes = @Index(name = "idx_restaurants_approval_city", columnList = "approval_status, city"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -33,6 +35,12 @@ public class Restaurant {
 
     private String phoneNumber;
 
+    // WGS84 degrees; restaurants without them are left out of nearby search
+    private Double latitude;
+
+    private Double longitude;
+
+    // Running average of its reviews, maintained by RatingAggregator
     @Column(nullable = false)
     private Double rating = 0.0;
 
@@ -0,0 +1,7 @@
+package com.foodordering.enums;
+
+public enum DriverStatus {
+    AVAILABLE,
+    ASSIGNED,
+    OFFLINE
+}
@@ -0,0 +1,49 @@
+package com.foodordering.enums;
+
+/**
+ * Steps of the automatic order progression, each fired a fixed delay after the previous one:
+ * PENDING -> CONFIRMED (10s) -> PREPARING (30s) -> OUT_FOR_DELIVERY + PICKED_UP (30s)
+ * -> IN_TRANSIT (10s) -> DELIVERED (10s)
+ */
+public enum LifecycleStep {
+    CONFIRM(10),
+    PREPARE(30),
+    DISPATCH(30),
+    TRANSIT(10),
+    DELIVER(10);
+
+    private final int delaySeconds;
+
+    LifecycleStep(int delaySeconds) {
+        this.delaySeconds = delaySeconds;
+    }
+
+    public int getDelaySeconds() {
+        return delaySeconds;
+    }
+
+    public LifecycleStep next() {
+        int next = ordinal() + 1;
+        return next < values().length ? values()[next] : null;
+    }
+
+    /**
+     * Works out which step is still outstanding for an order in the given state,
+     * or null when the order has finished (or was cancelled).
+     */
+    public static LifecycleStep pendingFor(OrderStatus status, DeliveryStatus deliveryStatus) {
+        if (status == null) return null;
+        switch (status) {
+            case PENDING:
+                return CONFIRM;
+            case CONFIRMED:
+                return PREPARE;
+            case PREPARING:
+                return DISPATCH;
+            case OUT_FOR_DELIVERY:
+                return deliveryStatus == DeliveryStatus.IN_TRANSIT ? DELIVER : TRANSIT;
+            default:
+                return null;
+        }
+    }
+}
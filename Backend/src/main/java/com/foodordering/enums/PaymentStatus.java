@@ -2,6 +2,8 @@ package com.foodordering.enums;
 
 public enum PaymentStatus {
     PENDING,
+    // Sent to the payment gateway, result not known yet
+    PROCESSING,
     COMPLETED,
     FAILED,
     REFUNDED
@@ -0,0 +1,12 @@
+package com.foodordering.exception;
+
+/** The payment gateway could not be reached or did not answer in time; the charge may be retried. */
+public class PaymentGatewayException extends RuntimeException {
+    public PaymentGatewayException(String message) {
+        super(message);
+    }
+
+    public PaymentGatewayException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
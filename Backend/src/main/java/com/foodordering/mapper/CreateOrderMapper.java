@@ -15,5 +15,7 @@ public interface CreateOrderMapper {
     @Mapping(target = "totalAmount", ignore = true)
     @Mapping(target = "paymentStatus", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "estimatedDeliveryAt", ignore = true)
     Order toEntity(CreateOrderDto dto);
 }
@@ -3,9 +3,12 @@ package com.foodordering.mapper;
 import com.foodordering.dto.DeliveryDto;
 import com.foodordering.entity.Delivery;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 @Mapper(componentModel = "spring")
 public interface DeliveryMapper {
     DeliveryDto toDto(Delivery delivery);
+    @Mapping(target = "driver", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Delivery toEntity(DeliveryDto dto);
 }
@@ -0,0 +1,17 @@
+package com.foodordering.mapper;
+
+import com.foodordering.dto.DriverDto;
+import com.foodordering.entity.Driver;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface DriverMapper {
+    @Mapping(target = "status", expression = "java(driver.getStatus() != null ? driver.getStatus().name() : null)")
+    DriverDto toDto(Driver driver);
+
+    @Mapping(target = "status", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    Driver toEntity(DriverDto dto);
+}
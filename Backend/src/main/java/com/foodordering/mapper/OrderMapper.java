@@ -17,12 +17,20 @@ public interface OrderMapper {
     @Mapping(target = "status", expression = "java(order.getStatus()!=null?order.getStatus().name():null)")
     @Mapping(target = "paymentMethod", expression = "java(order.getPaymentMethod()!=null?order.getPaymentMethod().name():null)")
     @Mapping(target = "paymentStatus", expression = "java(order.getPaymentStatus()!=null?order.getPaymentStatus().name():null)")
+    @Mapping(target = "etaSeconds", expression = "java(etaSeconds(order.getEstimatedDeliveryAt()))")
     OrderDto toDto(Order order);
 
+    default Integer etaSeconds(java.time.LocalDateTime estimatedDeliveryAt) {
+        if (estimatedDeliveryAt == null) return null;
+        return (int) Math.max(0, java.time.Duration.between(java.time.LocalDateTime.now(), estimatedDeliveryAt).getSeconds());
+    }
+
     // Creating/updating orders typically requires services to set relations; ignore complex relations here
     @Mapping(target = "customer", ignore = true)
     @Mapping(target = "restaurant", ignore = true)
     @Mapping(target = "orderItems", ignore = true)
     @Mapping(target = "deliveryAddress", ignore = true)
+    @Mapping(target = "estimatedDeliveryAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
     Order toEntity(OrderDto dto);
 }
@@ -16,5 +16,7 @@ public interface RestaurantMapper {
     @Mapping(target = "menuItems", ignore = true)
     @Mapping(target = "orders", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "rating", ignore = true)
+    @Mapping(target = "totalReviews", ignore = true)
     Restaurant toEntity(RestaurantDto dto);
 }
@@ -0,0 +1,14 @@
+package com.foodordering.mapper;
+
+import com.foodordering.dto.ReviewDto;
+import com.foodordering.entity.Review;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface ReviewMapper {
+    @Mapping(target = "orderId", source = "order.id")
+    @Mapping(target = "restaurantId", source = "restaurant.id")
+    @Mapping(target = "customerName", source = "customer.fullName")
+    ReviewDto toDto(Review review);
+}
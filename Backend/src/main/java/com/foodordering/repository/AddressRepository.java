@@ -10,4 +10,5 @@ import java.util.Optional;
 public interface AddressRepository extends JpaRepository<Address, Long> {
     List<Address> findByUserId(Long userId);
     Optional<Address> findByUserIdAndIsDefault(Long userId, Boolean isDefault);
+    Optional<Address> findByIdAndUserEmail(Long id, String email);
 }
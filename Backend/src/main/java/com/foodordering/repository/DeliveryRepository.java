@@ -1,8 +1,37 @@
 package com.foodordering.repository;
 
 import com.foodordering.entity.Delivery;
+import com.foodordering.enums.DeliveryStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
 
 public interface DeliveryRepository extends JpaRepository<Delivery, Long> {
     Delivery findByOrderId(Long orderId);
+
+    @Query("select d.order.id from Delivery d where d.id = :id")
+    Optional<Long> findOrderIdById(@Param("id") Long id);
+
+    // Admin keyset page: newest first, rows with id below the cursor; a null filter matches everything
+    @Query("select d from Delivery d where (:cursor is null or d.id < :cursor) " +
+            "and (:status is null or d.status = :status) order by d.id desc")
+    List<Delivery> findAdminPage(@Param("cursor") Long cursor, @Param("status") DeliveryStatus status, Pageable pageable);
+
+    // Deliveries still waiting for a driver with their pickup point, oldest first; cancelled orders no longer need one
+    @Query("select d.id as id, o.id as orderId, r.latitude as latitude, r.longitude as longitude " +
+            "from Delivery d join d.order o join o.restaurant r " +
+            "where d.status = com.foodordering.enums.DeliveryStatus.SCHEDULED and d.driver is null " +
+            "and o.status <> com.foodordering.enums.OrderStatus.CANCELLED order by d.id")
+    List<PendingDispatch> findPendingDispatch(Pageable pageable);
+
+    interface PendingDispatch {
+        Long getId();
+        Long getOrderId();
+        Double getLatitude();
+        Double getLongitude();
+    }
 }
@@ -0,0 +1,43 @@
+package com.foodordering.repository;
+
+import com.foodordering.entity.Driver;
+import com.foodordering.enums.DriverStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface DriverRepository extends JpaRepository<Driver, Long> {
+    List<Driver> findAllByOrderByIdAsc();
+
+    // Position of every driver in a status, used to (re)build the dispatcher's spatial index
+    @Query("select d.id as id, d.name as name, d.latitude as latitude, d.longitude as longitude " +
+            "from Driver d where d.status = :status")
+    List<DriverPosition> findPositionsByStatus(@Param("status") DriverStatus status);
+
+    // Takes an available driver; 0 when someone else got there first or the driver went offline
+    @Modifying
+    @Query("update Driver d set d.status = com.foodordering.enums.DriverStatus.ASSIGNED, d.updatedAt = :now, " +
+            "d.version = d.version + 1 " +
+            "where d.id = :id and d.status = com.foodordering.enums.DriverStatus.AVAILABLE")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // Frees an assigned driver, moved to the given position unless null; a driver taken offline meanwhile stays offline
+    @Modifying
+    @Query("update Driver d set d.status = com.foodordering.enums.DriverStatus.AVAILABLE, d.updatedAt = :now, " +
+            "d.latitude = coalesce(:latitude, d.latitude), d.longitude = coalesce(:longitude, d.longitude), " +
+            "d.version = d.version + 1 " +
+            "where d.id = :id and d.status = com.foodordering.enums.DriverStatus.ASSIGNED")
+    int release(@Param("id") Long id, @Param("latitude") Double latitude, @Param("longitude") Double longitude,
+                @Param("now") LocalDateTime now);
+
+    interface DriverPosition {
+        Long getId();
+        String getName();
+        Double getLatitude();
+        Double getLongitude();
+    }
+}
@@ -2,8 +2,12 @@ package com.foodordering.repository;
 
 import com.foodordering.entity.MenuItem;
 import com.foodordering.enums.Category;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -11,4 +15,11 @@ public interface MenuItemRepository extends JpaRepository<MenuItem, Long> {
     List<MenuItem> findByRestaurantId(Long restaurantId);
     List<MenuItem> findByRestaurantIdAndIsAvailable(Long restaurantId, Boolean isAvailable);
     List<MenuItem> findByCategory(Category category);
+    List<MenuItem> findByIsAvailableTrue();
+    List<MenuItem> findByRestaurantIdAndIdIn(Long restaurantId, Collection<Long> ids);
+
+    // Admin keyset page: newest first, rows with id below the cursor; a null filter matches everything
+    @Query("select m from MenuItem m where (:cursor is null or m.id < :cursor) " +
+            "and (:restaurantId is null or m.restaurant.id = :restaurantId) order by m.id desc")
+    List<MenuItem> findAdminPage(@Param("cursor") Long cursor, @Param("restaurantId") Long restaurantId, Pageable pageable);
 }
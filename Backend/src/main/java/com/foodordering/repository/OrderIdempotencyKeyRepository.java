@@ -0,0 +1,23 @@
+package com.foodordering.repository;
+
+import com.foodordering.entity.OrderIdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface OrderIdempotencyKeyRepository extends JpaRepository<OrderIdempotencyKey, Long> {
+
+    // Order created earlier under this key by the user with this email
+    @Query("select k.orderId from OrderIdempotencyKey k where k.idempotencyKey = :key and k.orderId is not null " +
+            "and k.customerId = (select u.id from User u where u.email = :email)")
+    Optional<Long> findOrderId(@Param("email") String email, @Param("key") String key);
+
+    @Modifying
+    @Query("delete from OrderIdempotencyKey k where k.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,10 +1,24 @@
 package com.foodordering.repository;
 
 import com.foodordering.entity.Order;
+import com.foodordering.enums.DeliveryStatus;
 import com.foodordering.enums.OrderStatus;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
@@ -13,4 +27,111 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByStatus(OrderStatus status);
     List<Order> findByCustomerIdOrderByCreatedAtDesc(Long customerId);
     java.util.Optional<Order> findFirstByCustomerIdOrderByCreatedAtDesc(Long customerId);
+
+    // Listing reads: load orders together with everything OrderDto needs in one statement
+    @EntityGraph(Order.LISTING_GRAPH)
+    List<Order> findWithDetailsByCustomerIdOrderByCreatedAtDesc(Long customerId);
+
+    @EntityGraph(Order.LISTING_GRAPH)
+    List<Order> findWithDetailsByRestaurantIdInOrderByCreatedAtDesc(Collection<Long> restaurantIds);
+
+    @EntityGraph(Order.LISTING_GRAPH)
+    java.util.Optional<Order> findWithDetailsById(Long id);
+
+    @EntityGraph(Order.LISTING_GRAPH)
+    List<Order> findWithDetailsByIdIn(Collection<Long> ids);
+
+    // Owner dashboard: all orders of every restaurant the owner has, in one statement
+    @EntityGraph(Order.LISTING_GRAPH)
+    List<Order> findWithDetailsByRestaurantOwnerEmailOrderByCreatedAtDesc(String ownerEmail);
+
+    @Query("select o.id from Order o where o.restaurant.owner.email = :email and o.status in :statuses " +
+            "order by o.createdAt desc, o.id desc")
+    Slice<Long> findOwnerPageIds(@Param("email") String ownerEmail, @Param("statuses") Collection<OrderStatus> statuses,
+                                Pageable pageable);
+
+    // Orders changed after the (:since, :afterId) keyset, oldest change first; ties on the time go by id
+    @Query("select o.id from Order o where o.restaurant.owner.email = :email and o.status in :statuses " +
+            "and (coalesce(o.updatedAt, o.createdAt) > :since " +
+            "or (coalesce(o.updatedAt, o.createdAt) = :since and o.id > :afterId)) " +
+            "order by coalesce(o.updatedAt, o.createdAt), o.id")
+    List<Long> findOwnerChangedIds(@Param("email") String ownerEmail, @Param("statuses") Collection<OrderStatus> statuses,
+                                   @Param("since") LocalDateTime since, @Param("afterId") Long afterId, Pageable pageable);
+
+    // Admin keyset page of ids (newest first); the orders themselves come from findWithDetailsByIdIn,
+    // since limiting a query that fetch-joins the items would page in memory
+    @Query("select o.id from Order o where (:cursor is null or o.id < :cursor) " + ADMIN_FILTER + " order by o.id desc")
+    List<Long> findAdminPageIds(@Param("cursor") Long cursor, @Param("status") OrderStatus status,
+                                @Param("restaurantId") Long restaurantId, @Param("from") LocalDateTime from,
+                                @Param("to") LocalDateTime to, Pageable pageable);
+
+    // Flat rows for the streaming export: nothing ends up in the persistence context, rows arrive in fetch-size chunks
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("select o.id as id, c.email as customerEmail, r.id as restaurantId, r.name as restaurantName, " +
+            "o.status as status, o.paymentMethod as paymentMethod, o.paymentStatus as paymentStatus, " +
+            "o.totalAmount as totalAmount, o.createdAt as createdAt, o.deliveredAt as deliveredAt " +
+            "from Order o join o.customer c join o.restaurant r where 1 = 1 " + ADMIN_FILTER + " order by o.id")
+    Stream<ExportRow> streamForExport(@Param("status") OrderStatus status, @Param("restaurantId") Long restaurantId,
+                                      @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    String ADMIN_FILTER = "and (:status is null or o.status = :status) " +
+            "and (:restaurantId is null or o.restaurant.id = :restaurantId) " +
+            "and (:from is null or o.createdAt >= :from) and (:to is null or o.createdAt < :to)";
+
+    interface ExportRow {
+        Long getId();
+        String getCustomerEmail();
+        Long getRestaurantId();
+        String getRestaurantName();
+        OrderStatus getStatus();
+        com.foodordering.enums.PaymentMethod getPaymentMethod();
+        com.foodordering.enums.PaymentStatus getPaymentStatus();
+        Double getTotalAmount();
+        LocalDateTime getCreatedAt();
+        LocalDateTime getDeliveredAt();
+    }
+
+    @EntityGraph(Order.LISTING_GRAPH)
+    @Query("select o from Order o order by o.createdAt desc")
+    List<Order> findAllWithDetails();
+
+    /**
+     * Moves the order to {@code target} only if its status is still one of {@code from}, in a single
+     * statement; returns 0 when a concurrent change got there first. Also bumps the version, so
+     * copies loaded before this update fail their optimistic check.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Order o set o.status = :target, o.updatedAt = :now, " +
+            "o.deliveredAt = coalesce(:deliveredAt, o.deliveredAt), o.estimatedDeliveryAt = :estimatedDeliveryAt, " +
+            "o.version = o.version + 1 " +
+            "where o.id = :id and o.status in :from")
+    int updateStatusIfIn(@Param("id") Long id, @Param("from") Collection<OrderStatus> from,
+                         @Param("target") OrderStatus target, @Param("now") LocalDateTime now,
+                         @Param("deliveredAt") LocalDateTime deliveredAt,
+                         @Param("estimatedDeliveryAt") LocalDateTime estimatedDeliveryAt);
+
+    // Minimal view of in-flight orders used to rebuild the lifecycle schedule after a restart
+    @Query("select o.id as id, o.status as status, d.status as deliveryStatus, " +
+            "coalesce(o.updatedAt, o.createdAt) as lastChangedAt " +
+            "from Order o left join o.delivery d where o.status in :statuses")
+    List<LifecycleSnapshot> findLifecycleSnapshots(@Param("statuses") Collection<OrderStatus> statuses);
+
+    interface LifecycleSnapshot {
+        Long getId();
+        OrderStatus getStatus();
+        DeliveryStatus getDeliveryStatus();
+        LocalDateTime getLastChangedAt();
+    }
+
+    // Orders per restaurant and status, used to rebuild KitchenLoadTracker's in-memory counters
+    @Query("select o.restaurant.id as restaurantId, o.status as status, count(o) as orders " +
+            "from Order o where o.status in :statuses group by o.restaurant.id, o.status")
+    List<StatusCount> countByRestaurantAndStatus(@Param("statuses") Collection<OrderStatus> statuses);
+
+    interface StatusCount {
+        Long getRestaurantId();
+        OrderStatus getStatus();
+        Long getOrders();
+    }
 }
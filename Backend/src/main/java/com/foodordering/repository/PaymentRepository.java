@@ -2,8 +2,13 @@ package com.foodordering.repository;
 
 import com.foodordering.entity.Payment;
 import com.foodordering.enums.PaymentStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.List;
 
@@ -11,4 +16,15 @@ import java.util.List;
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     Optional<Payment> findByOrderId(Long orderId);
     List<Payment> findByStatus(PaymentStatus status);
+
+    // Admin keyset page: newest first, rows with id below the cursor; a null filter matches everything
+    @Query("select p from Payment p where (:cursor is null or p.id < :cursor) and (:status is null or p.status = :status) " +
+            "and (:from is null or p.createdAt >= :from) and (:to is null or p.createdAt < :to) order by p.id desc")
+    List<Payment> findAdminPage(@Param("cursor") Long cursor, @Param("status") PaymentStatus status,
+                                @Param("from") LocalDateTime from, @Param("to") LocalDateTime to, Pageable pageable);
+
+    // Orders don't cascade to their payment, so a restaurant's payments go before the restaurant (and its orders)
+    @Modifying
+    @Query("delete from Payment p where p.order.id in (select o.id from Order o where o.restaurant.id = :restaurantId)")
+    int deleteByRestaurantId(@Param("restaurantId") Long restaurantId);
 }
@@ -1,7 +1,14 @@
 package com.foodordering.repository;
 
 import com.foodordering.entity.Restaurant;
+import com.foodordering.enums.ApprovalStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 
@@ -11,4 +18,27 @@ public interface RestaurantRepository extends JpaRepository<Restaurant, Long> {
     List<Restaurant> findByIsOpen(Boolean isOpen);
     List<Restaurant> findByOwnerId(Long ownerId);
     List<Restaurant> findByNameContainingIgnoreCase(String name);
+    List<Restaurant> findByApprovalStatus(ApprovalStatus approvalStatus, Sort sort);
+    List<Restaurant> findByApprovalStatusAndCityIgnoreCase(ApprovalStatus approvalStatus, String city, Sort sort);
+    Page<Restaurant> findByApprovalStatus(ApprovalStatus approvalStatus, Pageable pageable);
+    Page<Restaurant> findByApprovalStatusAndCityIgnoreCase(ApprovalStatus approvalStatus, String city, Pageable pageable);
+    // Everything nearby search can return, loaded once at startup into RestaurantLocationIndex
+    List<Restaurant> findByApprovalStatusAndIsOpenTrueAndLatitudeIsNotNullAndLongitudeIsNotNull(ApprovalStatus approvalStatus);
+
+    // Admin keyset page: newest first, rows with id below the cursor; a null filter matches everything
+    @Query("select r from Restaurant r where (:cursor is null or r.id < :cursor) " +
+            "and (:status is null or r.approvalStatus = :status) and (:city is null or lower(r.city) = lower(:city)) order by r.id desc")
+    List<Restaurant> findAdminPage(@Param("cursor") Long cursor, @Param("status") ApprovalStatus status,
+                                   @Param("city") String city, Pageable pageable);
+
+    // Folds a batch of new ratings into the running average; set clauses all see the row as it was
+    @Modifying
+    @Query("update Restaurant r set r.rating = (r.rating * coalesce(r.totalReviews, 0) + :ratingSum) / (coalesce(r.totalReviews, 0) + :reviewCount), " +
+            "r.totalReviews = coalesce(r.totalReviews, 0) + :reviewCount where r.id = :id")
+    int addRatings(@Param("id") Long id, @Param("ratingSum") double ratingSum, @Param("reviewCount") int reviewCount);
+
+    // Overwrites the aggregate, used when it is recomputed from the reviews table
+    @Modifying
+    @Query("update Restaurant r set r.rating = :rating, r.totalReviews = :reviewCount where r.id = :id")
+    int setRating(@Param("id") Long id, @Param("rating") double rating, @Param("reviewCount") int reviewCount);
 }
@@ -0,0 +1,33 @@
+package com.foodordering.repository;
+
+import com.foodordering.entity.Review;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface ReviewRepository extends JpaRepository<Review, Long> {
+    boolean existsByOrderId(Long orderId);
+
+    // Keyset page of a restaurant's reviews, newest first, rows with id below the cursor
+    @Query("select r from Review r join fetch r.customer where r.restaurant.id = :restaurantId " +
+            "and (:cursor is null or r.id < :cursor) order by r.id desc")
+    List<Review> findRestaurantPage(@Param("restaurantId") Long restaurantId, @Param("cursor") Long cursor, Pageable pageable);
+
+    // Full recount for one restaurant; only used to repair the aggregated rating, never on reads
+    @Query("select coalesce(sum(r.rating), 0) as ratingSum, count(r) as reviewCount from Review r where r.restaurant.id = :restaurantId")
+    RatingTotals findTotals(@Param("restaurantId") Long restaurantId);
+
+    // Reviews point at both the restaurant and its orders, so they go before a restaurant is deleted
+    @Modifying
+    @Query("delete from Review r where r.restaurant.id = :restaurantId")
+    int deleteByRestaurantId(@Param("restaurantId") Long restaurantId);
+
+    interface RatingTotals {
+        Long getRatingSum();
+        Long getReviewCount();
+    }
+}
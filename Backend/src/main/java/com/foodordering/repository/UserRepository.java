@@ -2,7 +2,10 @@ package com.foodordering.repository;
 
 import com.foodordering.entity.User;
 import com.foodordering.enums.Role;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.Optional;
 import java.util.List;
@@ -12,4 +15,18 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     Boolean existsByEmail(String email);
     List<User> findByRole(Role role);
+
+    /** Role and active flag only, for the per-request authentication check. */
+    @Query("select u.role as role, u.isActive as active from User u where u.email = :email")
+    Optional<StatusView> findStatusByEmail(@Param("email") String email);
+
+    // Admin keyset page: newest first, rows with id below the cursor; a null filter matches everything
+    @Query("select u from User u where (:cursor is null or u.id < :cursor) " +
+            "and (:role is null or u.role = :role) and (:active is null or u.isActive = :active) order by u.id desc")
+    List<User> findAdminPage(@Param("cursor") Long cursor, @Param("role") Role role, @Param("active") Boolean active, Pageable pageable);
+
+    interface StatusView {
+        Role getRole();
+        Boolean getActive();
+    }
 }
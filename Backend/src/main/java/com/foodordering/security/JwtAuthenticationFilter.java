@@ -1,7 +1,11 @@
 package com.foodordering.security;
 
+import io.jsonwebtoken.Claims;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
@@ -13,16 +17,17 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.List;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider tokenProvider;
-    private final CustomUserDetailsService userDetailsService;
+    private final UserStatusCache userStatusCache;
 
-    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, CustomUserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtTokenProvider tokenProvider, UserStatusCache userStatusCache) {
         this.tokenProvider = tokenProvider;
-        this.userDetailsService = userDetailsService;
+        this.userStatusCache = userStatusCache;
     }
 
     @Override
@@ -33,18 +38,29 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             logger.debug("Processing request to: " + request.getRequestURI());
             logger.debug("JWT token present: " + (jwt != null));
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String email = tokenProvider.getEmailFromToken(jwt);
+            // Single verify+parse; repeat requests with the same token hit the provider's cache
+            Claims claims = StringUtils.hasText(jwt) ? tokenProvider.parseClaims(jwt) : null;
+            if (claims != null && !Boolean.FALSE.equals(claims.get(JwtTokenProvider.CLAIM_ACTIVE, Boolean.class))) {
+                String email = claims.getSubject();
                 logger.debug("JWT validated for email: " + email);
-                UserDetails userDetails = userDetailsService.loadUserByUsername(email);
-                logger.debug("User authorities: " + userDetails.getAuthorities());
+                // Role comes from the token; the cached status only catches deactivated, deleted or re-roled users
+                UserStatusCache.Status status = userStatusCache.get(email);
+                String tokenRole = claims.get(JwtTokenProvider.CLAIM_ROLE, String.class);
+                if (status.active() && (tokenRole == null || tokenRole.equals(status.role().name()))) {
+                    String role = tokenRole != null ? tokenRole : status.role().name();
+                    List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role));
+                    UserDetails userDetails = new User(email, "", authorities);
+                    logger.debug("User authorities: " + authorities);
 
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                            userDetails, null, userDetails.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                logger.debug("Authentication set in SecurityContext");
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                    logger.debug("Authentication set in SecurityContext");
+                } else {
+                    logger.debug("User is inactive or its role changed since the token was issued: " + email);
+                }
             } else {
                 logger.debug("JWT validation failed or token is empty");
             }
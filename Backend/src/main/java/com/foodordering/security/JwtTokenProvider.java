@@ -3,8 +3,11 @@ package com.foodordering.security;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
@@ -12,19 +15,43 @@ import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 @Component
 public class JwtTokenProvider {
 
+    // Claims carried so requests can be authenticated without loading the user
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_ACTIVE = "active";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
     @Value("${jwt.expiration}")
     private long jwtExpiration;
 
-    private SecretKey getSigningKey() {
+    // Upper bound on remembered verified tokens (see parseClaims)
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private int verifiedCacheMaxSize;
+
+    // Built once at startup: deriving the key (SHA-512 for short secrets) and the parser is not free
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+
+    // Recently verified tokens -> claims, so a token is HMAC-verified once rather than on every request
+    private final Map<String, Claims> verifiedTokens = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        signingKey = buildSigningKey();
+        jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+    }
+
+    private SecretKey buildSigningKey() {
         // Support either a base64-encoded secret (prefix with "base64:") or a plain text secret.
         byte[] keyBytes;
         try {
@@ -66,34 +93,85 @@ public class JwtTokenProvider {
         String email = authentication.getName();
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpiration);
+        String role = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .filter(a -> a.startsWith("ROLE_"))
+                .map(a -> a.substring("ROLE_".length()))
+                .findFirst()
+                .orElse(null);
+        boolean active = !(authentication.getPrincipal() instanceof UserDetails details) || details.isEnabled();
 
         return Jwts.builder()
                 .setSubject(email)
+                .claim(CLAIM_ROLE, role)
+                .claim(CLAIM_ACTIVE, active)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS512)
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
 
+    /**
+     * Verifies the token and returns its claims, or null if it is invalid or expired. Verified tokens
+     * are cached until they expire, so repeated requests with the same token skip signature checks.
+     */
+    public Claims parseClaims(String token) {
+        if (token == null) return null;
+        Claims cached = verifiedTokens.get(token);
+        if (cached != null) {
+            if (!isExpired(cached)) {
+                return cached;
+            }
+            verifiedTokens.remove(token);
+            return null;
+        }
+        try {
+            Claims claims = jwtParser.parseClaimsJws(token).getBody();
+            rememberVerified(token, claims);
+            return claims;
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.error("JWT validation failed: " + e.getMessage(), e);
+            return null;
+        }
+    }
+
     public String getEmailFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        Claims claims = parseClaims(token);
+        if (claims == null) {
+            throw new JwtException("Invalid JWT token");
+        }
         return claims.getSubject();
     }
 
     public boolean validateToken(String token) {
-        try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            logger.error("JWT validation failed: " + e.getMessage(), e);
-            return false;
+        return parseClaims(token) != null;
+    }
+
+    private void rememberVerified(String token, Claims claims) {
+        if (verifiedTokens.size() >= verifiedCacheMaxSize) {
+            evictBatch();
+        }
+        verifiedTokens.put(token, claims);
+    }
+
+    /**
+     * Makes room for a tenth of the cache at once, so the full scan happens once per that many new
+     * tokens instead of on every miss. Expired tokens go first, then arbitrary ones.
+     */
+    private synchronized void evictBatch() {
+        // Another thread may have made room while this one waited
+        if (verifiedTokens.size() < verifiedCacheMaxSize) return;
+        int target = verifiedCacheMaxSize - Math.max(1, verifiedCacheMaxSize / 10);
+        verifiedTokens.values().removeIf(this::isExpired);
+        Iterator<String> it = verifiedTokens.keySet().iterator();
+        while (verifiedTokens.size() > target && it.hasNext()) {
+            it.next();
+            it.remove();
         }
     }
+
+    private boolean isExpired(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return expiration != null && expiration.before(new Date());
+    }
 }
@@ -48,10 +48,17 @@ public class SecurityConfig {
                 .requestMatchers("/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html", "/v3/api-docs.yaml","/h2-console/**").permitAll()
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/restaurants").permitAll() // Allow GET to list all restaurants (public)
+                .requestMatchers("/api/restaurants/nearby").permitAll() // Nearby search (public; addressId needs a token)
                 .requestMatchers("/api/restaurants/{id}").permitAll() // Allow GET specific restaurant (public)
                 .requestMatchers("/api/restaurants/city/**").permitAll() // Allow GET restaurants by city (public)
+                .requestMatchers("/api/restaurants/{id}/reviews").permitAll() // Allow GET restaurant reviews (public)
+                .requestMatchers("/api/search").permitAll() // Public restaurant/menu search
                 .requestMatchers("/api/menu-items/restaurant/**").permitAll() // Allow public to view menu items
                 .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                // Actuator (metrics Maven profile): only health is anonymous, for container health checks;
+                // Prometheus scrapes /actuator/prometheus with an ADMIN bearer token
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 .anyRequest().authenticated() // All other requests need authentication (POST/PUT/DELETE)
             )
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
@@ -0,0 +1,70 @@
+package com.foodordering.security;
+
+import com.foodordering.enums.Role;
+import com.foodordering.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Short-lived cache of each user's role and active flag, checked on every authenticated request
+ * instead of loading the full user. Entries expire after {@code security.user-status-cache.ttl-seconds}
+ * and are dropped immediately when an admin changes or deletes the user, so a deactivation takes
+ * effect on the next request on this instance and within the TTL on the others.
+ */
+@Component
+public class UserStatusCache {
+
+    /** Current role and active flag; role is null for a user that no longer exists. */
+    public record Status(Role role, boolean active, long loadedAtMillis) {
+    }
+
+    private final UserRepository userRepository;
+    private final long ttlMillis;
+    private final int maxSize;
+    private final Map<String, Status> statuses = new ConcurrentHashMap<>();
+
+    public UserStatusCache(UserRepository userRepository,
+                           @Value("${security.user-status-cache.ttl-seconds:60}") long ttlSeconds,
+                           @Value("${security.user-status-cache.max-size:10000}") int maxSize) {
+        this.userRepository = userRepository;
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+        this.maxSize = Math.max(1, maxSize);
+    }
+
+    public Status get(String email) {
+        long now = System.currentTimeMillis();
+        Status status = statuses.get(email);
+        if (status != null && now - status.loadedAtMillis() < ttlMillis) {
+            return status;
+        }
+        status = userRepository.findStatusByEmail(email)
+                .map(s -> new Status(s.getRole(), Boolean.TRUE.equals(s.getActive()), now))
+                .orElse(new Status(null, false, now));
+        if (statuses.size() >= maxSize) {
+            evict(now);
+        }
+        statuses.put(email, status);
+        return status;
+    }
+
+    public void invalidate(String email) {
+        if (email != null) {
+            statuses.remove(email);
+        }
+    }
+
+    private void evict(long now) {
+        // Stale entries first; if still full, drop arbitrary ones to stay bounded
+        statuses.values().removeIf(s -> now - s.loadedAtMillis() >= ttlMillis);
+        Iterator<String> it = statuses.keySet().iterator();
+        while (statuses.size() >= maxSize && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+}
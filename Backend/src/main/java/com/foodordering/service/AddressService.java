@@ -86,6 +86,8 @@ public class AddressService {
         address.setState(dto.getState());
         address.setZipCode(dto.getZipCode());
         address.setLandmark(dto.getLandmark());
+        address.setLatitude(dto.getLatitude());
+        address.setLongitude(dto.getLongitude());
         address.setIsDefault(dto.getIsDefault());
 
         address = addressRepository.save(address);
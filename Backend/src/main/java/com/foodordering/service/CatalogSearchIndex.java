@@ -0,0 +1,379 @@
+package com.foodordering.service;
+
+import com.foodordering.dto.MenuItemDto;
+import com.foodordering.dto.RestaurantDto;
+import com.foodordering.entity.MenuItem;
+import com.foodordering.entity.Restaurant;
+import com.foodordering.enums.ApprovalStatus;
+import com.foodordering.enums.Category;
+import com.foodordering.mapper.MenuItemMapper;
+import com.foodordering.mapper.RestaurantMapper;
+import com.foodordering.repository.MenuItemRepository;
+import com.foodordering.repository.RestaurantRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index behind {@code /api/search}: approved restaurants (name, city,
+ * description) and available menu items (name, category, description, vegetarian).
+ *
+ * Every query word must match each result, either exactly, as the prefix of an indexed word
+ * (search as you type) or within one typo (two for words of eight letters or more). Weaker
+ * matches and matches in less important fields score lower. Menu item results come with counts
+ * per {@link Category}, taken before the category filter so the client can offer the others.
+ *
+ * Loaded once at startup; afterwards {@link RestaurantService}, {@link MenuItemService} and the
+ * admin endpoints report every change, which is applied after commit.
+ */
+@Component
+public class CatalogSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSearchIndex.class);
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Set<String> STOP_WORDS = Set.of("a", "an", "and", "the", "of", "with", "in", "on", "for");
+
+    private static final double PREFIX_MATCH = 0.7;
+    private static final double ONE_TYPO = 0.5;
+    private static final double TWO_TYPOS = 0.3;
+    // A short prefix can match hundreds of terms; this many is plenty for a result page
+    private static final int MAX_EXPANSIONS = 50;
+    private static final int MAX_LIMIT = 100;
+
+    public record RestaurantHit(RestaurantDto restaurant, double score) {
+    }
+
+    public record MenuItemHit(MenuItemDto menuItem, String restaurantName, double score) {
+    }
+
+    public record Result(List<RestaurantHit> restaurants, List<MenuItemHit> menuItems, Map<Category, Integer> categories) {
+    }
+
+    private final RestaurantRepository restaurantRepository;
+    private final MenuItemRepository menuItemRepository;
+    private final RestaurantMapper restaurantMapper;
+    private final MenuItemMapper menuItemMapper;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TermIndex<RestaurantDto> restaurants = new TermIndex<>();
+    private final TermIndex<MenuItemDto> menuItems = new TermIndex<>();
+
+    private final AtomicLong queries = new AtomicLong();
+    private final AtomicLong updates = new AtomicLong();
+
+    public CatalogSearchIndex(RestaurantRepository restaurantRepository, MenuItemRepository menuItemRepository,
+                              RestaurantMapper restaurantMapper, MenuItemMapper menuItemMapper) {
+        this.restaurantRepository = restaurantRepository;
+        this.menuItemRepository = menuItemRepository;
+        this.restaurantMapper = restaurantMapper;
+        this.menuItemMapper = menuItemMapper;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<Restaurant> approved = restaurantRepository.findByApprovalStatus(ApprovalStatus.APPROVED, Sort.by("id"));
+        List<MenuItem> available = menuItemRepository.findByIsAvailableTrue();
+        lock.writeLock().lock();
+        try {
+            approved.forEach(r -> restaurants.put(r.getId(), restaurantMapper.toDto(r), restaurantTerms(r)));
+            available.forEach(m -> menuItems.put(m.getId(), menuItemMapper.toDto(m), menuItemTerms(m)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Indexed {} restaurants and {} menu items for search", approved.size(), available.size());
+    }
+
+    /** Re-indexes the restaurant as it is now; only approved restaurants (and their items) are searchable. */
+    public void restaurantChanged(Restaurant restaurant) {
+        Long id = restaurant.getId();
+        RestaurantDto dto = restaurant.getApprovalStatus() == ApprovalStatus.APPROVED ? restaurantMapper.toDto(restaurant) : null;
+        Map<String, Double> terms = dto != null ? restaurantTerms(restaurant) : null;
+        afterCommit(() -> {
+            if (dto != null) {
+                restaurants.put(id, dto, terms);
+            } else {
+                restaurants.remove(id);
+            }
+        });
+    }
+
+    /** Drops the restaurant and its menu items (deleted along with it). */
+    public void restaurantRemoved(Long restaurantId) {
+        afterCommit(() -> {
+            restaurants.remove(restaurantId);
+            menuItems.removeIf(item -> restaurantId.equals(item.getRestaurantId()));
+        });
+    }
+
+    /** Re-indexes the menu item as it is now; unavailable items are not searchable. */
+    public void menuItemChanged(MenuItem menuItem) {
+        Long id = menuItem.getId();
+        MenuItemDto dto = Boolean.TRUE.equals(menuItem.getIsAvailable()) ? menuItemMapper.toDto(menuItem) : null;
+        Map<String, Double> terms = dto != null ? menuItemTerms(menuItem) : null;
+        afterCommit(() -> {
+            if (dto != null) {
+                menuItems.put(id, dto, terms);
+            } else {
+                menuItems.remove(id);
+            }
+        });
+    }
+
+    public void menuItemRemoved(Long menuItemId) {
+        afterCommit(() -> menuItems.remove(menuItemId));
+    }
+
+    /**
+     * Best {@code limit} restaurants and menu items for {@code query}. Menu items can be narrowed to a
+     * category and/or to vegetarian ones; the category counts ignore the category filter.
+     */
+    public Result search(String query, Category category, Boolean vegetarian, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        List<String> words = tokens(query);
+        if (words.isEmpty()) {
+            throw new IllegalArgumentException("q must contain at least one word");
+        }
+        queries.incrementAndGet();
+        lock.readLock().lock();
+        try {
+            List<RestaurantHit> restaurantHits = new ArrayList<>();
+            for (Map.Entry<Long, Double> match : top(restaurants.match(words), limit)) {
+                restaurantHits.add(new RestaurantHit(restaurants.docs.get(match.getKey()), match.getValue()));
+            }
+
+            // Items of restaurants that are not (or no longer) approved are left out
+            Map<Long, Double> itemScores = menuItems.match(words);
+            itemScores.keySet().removeIf(id -> {
+                MenuItemDto item = menuItems.docs.get(id);
+                return !restaurants.docs.containsKey(item.getRestaurantId())
+                        || (vegetarian != null && !vegetarian.equals(Boolean.TRUE.equals(item.getIsVegetarian())));
+            });
+            Map<Category, Integer> counts = new EnumMap<>(Category.class);
+            for (Long id : itemScores.keySet()) {
+                counts.merge(Category.valueOf(menuItems.docs.get(id).getCategory()), 1, Integer::sum);
+            }
+            if (category != null) {
+                itemScores.keySet().removeIf(id -> !category.name().equals(menuItems.docs.get(id).getCategory()));
+            }
+            List<MenuItemHit> itemHits = new ArrayList<>();
+            for (Map.Entry<Long, Double> match : top(itemScores, limit)) {
+                MenuItemDto item = menuItems.docs.get(match.getKey());
+                itemHits.add(new MenuItemHit(item, restaurants.docs.get(item.getRestaurantId()).getName(), match.getValue()));
+            }
+            return new Result(restaurantHits, itemHits, counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            stats.put("restaurants", restaurants.docs.size());
+            stats.put("restaurantTerms", restaurants.postings.size());
+            stats.put("menuItems", menuItems.docs.size());
+            stats.put("menuItemTerms", menuItems.postings.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+        stats.put("queries", queries.get());
+        stats.put("updates", updates.get());
+        return stats;
+    }
+
+    private static Map<String, Double> restaurantTerms(Restaurant restaurant) {
+        Map<String, Double> terms = new HashMap<>();
+        addTerms(terms, restaurant.getName(), 3.0);
+        addTerms(terms, restaurant.getCity(), 2.0);
+        addTerms(terms, restaurant.getDescription(), 1.0);
+        return terms;
+    }
+
+    private static Map<String, Double> menuItemTerms(MenuItem item) {
+        Map<String, Double> terms = new HashMap<>();
+        addTerms(terms, item.getName(), 3.0);
+        addTerms(terms, item.getCategory() != null ? item.getCategory().name() : null, 2.0);
+        addTerms(terms, item.getDescription(), 1.0);
+        if (Boolean.TRUE.equals(item.getIsVegetarian())) {
+            addTerms(terms, "vegetarian veg", 1.0);
+        }
+        return terms;
+    }
+
+    // A word found in several fields counts with its most important one
+    private static void addTerms(Map<String, Double> terms, String text, double weight) {
+        for (String token : tokens(text)) {
+            terms.merge(token, weight, Math::max);
+        }
+    }
+
+    /** Lower-cased words without accents, stop words dropped. */
+    static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) return tokens;
+        String folded = MARKS.matcher(Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD)).replaceAll("");
+        for (String token : NON_WORD.split(folded)) {
+            if (!token.isEmpty() && !STOP_WORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static List<Map.Entry<Long, Double>> top(Map<Long, Double> scores, int limit) {
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .toList();
+    }
+
+    private void afterCommit(Runnable update) {
+        updates.incrementAndGet();
+        Runnable locked = () -> {
+            lock.writeLock().lock();
+            try {
+                update.run();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    locked.run();
+                }
+            });
+        } else {
+            locked.run();
+        }
+    }
+
+    /** Edit distance between a and b, or {@code max + 1} once it is known to exceed {@code max}. */
+    static int editDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) return max + 1;
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) previous[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) return max + 1;
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    /** Documents of one kind with their weighted terms; guarded by the enclosing index's lock. */
+    private static final class TermIndex<D> {
+        final Map<Long, D> docs = new HashMap<>();
+        // Term -> document id -> weight; sorted so prefixes are a range
+        final NavigableMap<String, Map<Long, Double>> postings = new TreeMap<>();
+        final Map<Long, Set<String>> docTerms = new HashMap<>();
+
+        void put(Long id, D doc, Map<String, Double> terms) {
+            remove(id);
+            docs.put(id, doc);
+            terms.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(id, weight));
+            docTerms.put(id, terms.keySet());
+        }
+
+        void remove(Long id) {
+            docs.remove(id);
+            Set<String> terms = docTerms.remove(id);
+            if (terms == null) return;
+            for (String term : terms) {
+                Map<Long, Double> docsWithTerm = postings.get(term);
+                docsWithTerm.remove(id);
+                if (docsWithTerm.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+
+        void removeIf(Predicate<D> condition) {
+            List<Long> ids = docs.entrySet().stream().filter(e -> condition.test(e.getValue())).map(Map.Entry::getKey).toList();
+            ids.forEach(this::remove);
+        }
+
+        /** Scores of the documents matching every word: per word its best expansion, summed over words. */
+        Map<Long, Double> match(List<String> words) {
+            Map<Long, Double> scores = null;
+            for (String word : words) {
+                Map<Long, Double> wordScores = new HashMap<>();
+                expand(word).forEach((term, quality) -> postings.get(term)
+                        .forEach((id, weight) -> wordScores.merge(id, weight * quality, Math::max)));
+                if (scores == null) {
+                    scores = wordScores;
+                } else {
+                    Map<Long, Double> previous = scores;
+                    wordScores.keySet().retainAll(previous.keySet());
+                    wordScores.replaceAll((id, score) -> score + previous.get(id));
+                    scores = wordScores;
+                }
+                if (scores.isEmpty()) break;
+            }
+            return scores == null ? new HashMap<>() : scores;
+        }
+
+        // Indexed terms the word may stand for, with how well they match (1 = exact)
+        private Map<String, Double> expand(String word) {
+            Map<String, Double> terms = new HashMap<>();
+            if (postings.containsKey(word)) {
+                terms.put(word, 1.0);
+            }
+            for (String term : postings.subMap(word, false, word + Character.MAX_VALUE, false).keySet()) {
+                if (terms.size() >= MAX_EXPANSIONS) break;
+                terms.put(term, PREFIX_MATCH);
+            }
+            if (word.length() >= 4) {
+                int maxEdits = word.length() >= 8 ? 2 : 1;
+                // Typos rarely hit the first letter, which keeps the candidates to one slice of the terms
+                String first = word.substring(0, 1);
+                for (String term : postings.subMap(first, true, first + Character.MAX_VALUE, false).keySet()) {
+                    if (terms.containsKey(term)) continue;
+                    int edits = editDistance(word, term, maxEdits);
+                    if (edits <= maxEdits) {
+                        terms.put(term, edits == 1 ? ONE_TYPO : TWO_TYPOS);
+                    }
+                }
+            }
+            return terms;
+        }
+    }
+}
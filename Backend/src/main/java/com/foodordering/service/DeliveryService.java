@@ -1,83 +1,47 @@
 package com.foodordering.service;
 
+import com.foodordering.config.HotPathMetrics;
 import com.foodordering.entity.Delivery;
 import com.foodordering.entity.Order;
 import com.foodordering.mapper.DeliveryMapper;
 import com.foodordering.repository.DeliveryRepository;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.Random;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
 
 @Service
 public class DeliveryService {
 
     private final DeliveryRepository deliveryRepository;
     private final DeliveryMapper deliveryMapper;
-    private final SimpMessagingTemplate messagingTemplate;
-    private final com.foodordering.repository.OrderRepository orderRepository;
-    private final com.foodordering.mapper.OrderMapper orderMapper;
-    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
-    private static final Random RANDOM = new Random();
+    private final OrderNotificationDispatcher notificationDispatcher;
+    private final OrderLifecycleEngine lifecycleEngine;
+    private final HotPathMetrics metrics;
 
     public DeliveryService(DeliveryRepository deliveryRepository, DeliveryMapper deliveryMapper,
-                           SimpMessagingTemplate messagingTemplate, com.foodordering.repository.OrderRepository orderRepository,
-                           com.foodordering.mapper.OrderMapper orderMapper) {
+                           OrderNotificationDispatcher notificationDispatcher, OrderLifecycleEngine lifecycleEngine,
+                           HotPathMetrics metrics) {
         this.deliveryRepository = deliveryRepository;
         this.deliveryMapper = deliveryMapper;
-        this.messagingTemplate = messagingTemplate;
-        this.orderRepository = orderRepository;
-        this.orderMapper = orderMapper;
-    }
-
-    // Helper used by scheduled tasks to apply status changes (best-effort)
-    private void applyStatusChangeById(Long deliveryId, com.foodordering.enums.DeliveryStatus newStatus) {
-        Delivery delivery = deliveryRepository.findById(deliveryId).orElse(null);
-        if (delivery == null) return;
-        delivery.setStatus(newStatus);
-        delivery.setUpdatedAt(java.time.LocalDateTime.now());
-        delivery = deliveryRepository.save(delivery);
-
-        // publish delivery update
-        try {
-            messagingTemplate.convertAndSend("/topic/orders/" + delivery.getOrder().getId(), deliveryMapper.toDto(delivery));
-            if (delivery.getOrder().getCustomer()!=null && delivery.getOrder().getCustomer().getEmail()!=null) {
-                messagingTemplate.convertAndSendToUser(delivery.getOrder().getCustomer().getEmail(), "/queue/order-updates", deliveryMapper.toDto(delivery));
-            }
-        } catch (Exception ex) {
-            // best-effort
-        }
-
-        if (newStatus == com.foodordering.enums.DeliveryStatus.DELIVERED) {
-            Order order = delivery.getOrder();
-            order.setStatus(com.foodordering.enums.OrderStatus.DELIVERED);
-            order.setDeliveredAt(java.time.LocalDateTime.now());
-            order.setUpdatedAt(java.time.LocalDateTime.now());
-            order = orderRepository.save(order);
-
-            try {
-                messagingTemplate.convertAndSend("/topic/orders/" + order.getId(), orderMapper.toDto(order));
-                if (order.getCustomer()!=null && order.getCustomer().getEmail()!=null) {
-                    messagingTemplate.convertAndSendToUser(order.getCustomer().getEmail(), "/queue/order-updates", orderMapper.toDto(order));
-                }
-            } catch (Exception ex) {
-                // ignore
-            }
-        }
+        this.notificationDispatcher = notificationDispatcher;
+        this.lifecycleEngine = lifecycleEngine;
+        this.metrics = metrics;
     }
 
+    /**
+     * Creates the delivery for a confirmed order, without a driver: {@link DriverDispatcher} assigns one
+     * shortly after. PICKED_UP / IN_TRANSIT / DELIVERED are driven by the order's automatic progression
+     * (see {@link OrderLifecycleScheduler}), not scheduled here.
+     */
     @Transactional
     public Delivery scheduleDelivery(Order order) {
-        int etaSeconds = 30 + RANDOM.nextInt(91); // 30..120 seconds
+        return metrics.observation("delivery.schedule").observe(() -> createDelivery(order));
+    }
+
+    private Delivery createDelivery(Order order) {
         Delivery delivery = Delivery.builder()
                 .order(order)
-                .assignedDriver("Driver-" + (RANDOM.nextInt(90) + 10))
-                .etaSeconds(etaSeconds)
                 .scheduledAt(LocalDateTime.now())
                 .build();
 
@@ -90,75 +54,23 @@ public class DeliveryService {
             // ignore
         }
 
-        // publish delivery info to order/topic and user queue
-        try {
-            messagingTemplate.convertAndSend("/topic/orders/" + order.getId(), deliveryMapper.toDto(delivery));
-            if (order.getCustomer() != null && order.getCustomer().getEmail() != null) {
-                messagingTemplate.convertAndSendToUser(order.getCustomer().getEmail(), "/queue/order-updates", deliveryMapper.toDto(delivery));
-            }
-        } catch (Exception ex) {
-            // ignore - best effort
-        }
-
-        // Schedule demo updates: PICKED_UP after 5s, IN_TRANSIT after half ETA, DELIVERED after ETA
-        int pickedUpDelay = 5;
-        int inTransitDelay = Math.max(10, etaSeconds / 2);
-        int deliveredDelay = etaSeconds;
-
-        final Long deliveryId = delivery.getId();
-        scheduler.schedule(() -> {
-            try { applyStatusChangeById(deliveryId, com.foodordering.enums.DeliveryStatus.PICKED_UP); } catch (Exception ignored) {}
-        }, pickedUpDelay, TimeUnit.SECONDS);
-
-        scheduler.schedule(() -> {
-            try { applyStatusChangeById(deliveryId, com.foodordering.enums.DeliveryStatus.IN_TRANSIT); } catch (Exception ignored) {}
-        }, inTransitDelay, TimeUnit.SECONDS);
-
-        scheduler.schedule(() -> {
-            try { applyStatusChangeById(deliveryId, com.foodordering.enums.DeliveryStatus.DELIVERED); } catch (Exception ignored) {}
-        }, deliveredDelay, TimeUnit.SECONDS);
+        // publish delivery info once the transaction commits
+        notificationDispatcher.deliveryUpdated(delivery);
 
         return delivery;
     }
 
-    @Transactional
     public com.foodordering.dto.DeliveryDto updateDeliveryStatus(Long deliveryId, String statusStr) {
-        Delivery delivery = deliveryRepository.findById(deliveryId)
-                .orElseThrow(() -> new IllegalArgumentException("Delivery not found"));
-
         com.foodordering.enums.DeliveryStatus newStatus = com.foodordering.enums.DeliveryStatus.valueOf(statusStr.toUpperCase());
-        delivery.setStatus(newStatus);
-        delivery.setUpdatedAt(java.time.LocalDateTime.now());
-        delivery = deliveryRepository.save(delivery);
-
-        // publish delivery update
-        try {
-            messagingTemplate.convertAndSend("/topic/orders/" + delivery.getOrder().getId(), deliveryMapper.toDto(delivery));
-            if (delivery.getOrder().getCustomer()!=null && delivery.getOrder().getCustomer().getEmail()!=null) {
-                messagingTemplate.convertAndSendToUser(delivery.getOrder().getCustomer().getEmail(), "/queue/order-updates", deliveryMapper.toDto(delivery));
-            }
-        } catch (Exception ex) {
-            // best-effort
-        }
-
-        // If delivered, update order status and deliveredAt, publish order update
-        if (newStatus == com.foodordering.enums.DeliveryStatus.DELIVERED) {
-            Order order = delivery.getOrder();
-            order.setStatus(com.foodordering.enums.OrderStatus.DELIVERED);
-            order.setDeliveredAt(java.time.LocalDateTime.now());
-            order.setUpdatedAt(java.time.LocalDateTime.now());
-            order = orderRepository.save(order);
-
-            try {
-                messagingTemplate.convertAndSend("/topic/orders/" + order.getId(), orderMapper.toDto(order));
-                if (order.getCustomer()!=null && order.getCustomer().getEmail()!=null) {
-                    messagingTemplate.convertAndSendToUser(order.getCustomer().getEmail(), "/queue/order-updates", orderMapper.toDto(order));
-                }
-            } catch (Exception ex) {
-                // ignore
-            }
-        }
+        Long orderId = deliveryRepository.findOrderIdById(deliveryId)
+                .orElseThrow(() -> new IllegalArgumentException("Delivery not found"));
 
-        return deliveryMapper.toDto(delivery);
+        // Applied on the order's lifecycle shard; a DELIVERED delivery also completes the order
+        return lifecycleEngine.call(orderId, () -> {
+            Delivery delivery = deliveryRepository.findById(deliveryId)
+                    .orElseThrow(() -> new IllegalArgumentException("Delivery not found"));
+            lifecycleEngine.requireDeliveryTransition(delivery, newStatus);
+            return deliveryMapper.toDto(delivery);
+        });
     }
 }
@@ -0,0 +1,244 @@
+package com.foodordering.service;
+
+import com.foodordering.config.HotPathMetrics;
+import com.foodordering.entity.Delivery;
+import com.foodordering.enums.DeliveryStatus;
+import com.foodordering.enums.DriverStatus;
+import com.foodordering.enums.OrderStatus;
+import com.foodordering.repository.DeliveryRepository;
+import com.foodordering.repository.DriverRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Assigns drivers to deliveries.
+ *
+ * Available drivers are kept in a {@link GeoGridIndex}. Every {@code delivery.dispatch.interval-millis}
+ * a single dispatcher thread loads a batch of deliveries still waiting for a driver and matches them
+ * greedily, oldest first, each to the free driver nearest its restaurant within
+ * {@code delivery.dispatch.max-radius-km}.
+ * Matching is pure in-memory work; the matches are then written on the orders' lifecycle shards,
+ * where each driver is claimed with a conditional UPDATE, so a driver taken by another instance or
+ * set offline in the meantime is simply skipped. The next batch starts once the last one is written.
+ *
+ * Drivers are freed by {@link OrderLifecycleEngine} when their delivery completes (at the delivery
+ * address when it has coordinates) or its order is cancelled. The index is rebuilt from the drivers table every {@code delivery.dispatch.refresh-seconds},
+ * which picks those drivers up again along with changes made by other instances.
+ */
+@Component
+public class DriverDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(DriverDispatcher.class);
+
+    /** A delivery matched to a driver, before it is written. */
+    record Assignment(long deliveryId, long orderId, GeoGridIndex.Entry<Long> driver, String driverName, double distanceKm) {
+    }
+
+    private final DeliveryRepository deliveryRepository;
+    private final DriverRepository driverRepository;
+    private final OrderLifecycleEngine lifecycleEngine;
+    private final OrderNotificationDispatcher notificationDispatcher;
+    private final GeoGridIndex<Long> available;
+    // Driver names by id, for the drivers currently in the index
+    private final Map<Long, String> names = new ConcurrentHashMap<>();
+    private final long intervalMillis;
+    private final long refreshMillis;
+    private final int batchSize;
+    private final double maxRadiusKm;
+    private final double speedKmh;
+    private final double originLatitude;
+    private final double originLongitude;
+    private final ScheduledExecutorService loop = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "driver-dispatcher");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Only touched by the dispatcher thread
+    private long lastRefreshMillis;
+
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong assigned = new AtomicLong();
+    private final AtomicLong claimConflicts = new AtomicLong();
+    private final AtomicLong lastBatchSize = new AtomicLong();
+    private final AtomicLong lastMatchMicros = new AtomicLong();
+    private final AtomicLong lastBatchMillis = new AtomicLong();
+
+    public DriverDispatcher(DeliveryRepository deliveryRepository, DriverRepository driverRepository,
+                            OrderLifecycleEngine lifecycleEngine, OrderNotificationDispatcher notificationDispatcher,
+                            HotPathMetrics metrics,
+                            @Value("${delivery.dispatch.interval-millis:300}") long intervalMillis,
+                            @Value("${delivery.dispatch.refresh-seconds:5}") long refreshSeconds,
+                            @Value("${delivery.dispatch.batch-size:500}") int batchSize,
+                            @Value("${delivery.dispatch.cell-km:1.0}") double cellKm,
+                            @Value("${delivery.dispatch.max-radius-km:15}") double maxRadiusKm,
+                            @Value("${delivery.dispatch.speed-kmh:25}") double speedKmh,
+                            @Value("${delivery.dispatch.origin-latitude:19.0760}") double originLatitude,
+                            @Value("${delivery.dispatch.origin-longitude:72.8777}") double originLongitude) {
+        this.deliveryRepository = deliveryRepository;
+        this.driverRepository = driverRepository;
+        this.lifecycleEngine = lifecycleEngine;
+        this.notificationDispatcher = notificationDispatcher;
+        this.available = new GeoGridIndex<>(cellKm);
+        this.intervalMillis = Math.max(10, intervalMillis);
+        this.refreshMillis = TimeUnit.SECONDS.toMillis(Math.max(1, refreshSeconds));
+        this.batchSize = Math.max(1, batchSize);
+        this.maxRadiusKm = maxRadiusKm;
+        this.speedKmh = Math.max(1, speedKmh);
+        this.originLatitude = originLatitude;
+        this.originLongitude = originLongitude;
+        metrics.gauge("dispatch.pending", pending::get);
+        metrics.gauge("dispatch.available.drivers", available::size);
+    }
+
+    @PreDestroy
+    void stop() {
+        loop.shutdownNow();
+    }
+
+    // Started once the application is ready, so the sample drivers are already in the table
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        loop.scheduleWithFixedDelay(this::onTick, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /** Puts a driver into, or takes it out of, this instance's index right away instead of at the next refresh. */
+    public void driverChanged(Long driverId, String name, DriverStatus status, double latitude, double longitude) {
+        if (status == DriverStatus.AVAILABLE) {
+            names.put(driverId, name);
+            available.put(driverId, latitude, longitude);
+        } else {
+            available.remove(driverId);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("availableDrivers", available.size());
+        stats.put("pendingDeliveries", pending.get());
+        stats.put("assigned", assigned.get());
+        stats.put("claimConflicts", claimConflicts.get());
+        stats.put("lastBatchSize", lastBatchSize.get());
+        stats.put("lastMatchMicros", lastMatchMicros.get());
+        stats.put("lastBatchMillis", lastBatchMillis.get());
+        stats.put("intervalMillis", intervalMillis);
+        return stats;
+    }
+
+    private void onTick() {
+        try {
+            long started = System.currentTimeMillis();
+            if (started - lastRefreshMillis >= refreshMillis) {
+                refreshIndex();
+                lastRefreshMillis = started;
+            }
+            List<DeliveryRepository.PendingDispatch> waiting = deliveryRepository.findPendingDispatch(PageRequest.of(0, batchSize));
+            pending.set(waiting.size());
+            if (waiting.isEmpty()) return;
+
+            long matchStart = System.nanoTime();
+            List<Assignment> matches = match(waiting);
+            lastMatchMicros.set(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - matchStart));
+            lastBatchSize.set(matches.size());
+            if (matches.isEmpty()) return;
+
+            write(matches);
+            lastBatchMillis.set(System.currentTimeMillis() - started);
+        } catch (Exception ex) {
+            // Never let an exception cancel the periodic loop
+            logger.error("Driver dispatch failed", ex);
+        }
+    }
+
+    private void refreshIndex() {
+        List<GeoGridIndex.Entry<Long>> points = new ArrayList<>();
+        for (DriverRepository.DriverPosition driver : driverRepository.findPositionsByStatus(DriverStatus.AVAILABLE)) {
+            names.put(driver.getId(), driver.getName());
+            points.add(new GeoGridIndex.Entry<>(driver.getId(), driver.getLatitude(), driver.getLongitude()));
+        }
+        available.replaceAll(points);
+        names.keySet().retainAll(points.stream().map(GeoGridIndex.Entry::key).collect(Collectors.toSet()));
+    }
+
+    // Greedy: each delivery, oldest first, takes the nearest driver still free in this batch
+    private List<Assignment> match(List<DeliveryRepository.PendingDispatch> waiting) {
+        List<Assignment> matches = new ArrayList<>();
+        for (DeliveryRepository.PendingDispatch delivery : waiting) {
+            if (available.size() == 0) break;
+            // Restaurants without coordinates are picked up from the configured origin
+            boolean located = delivery.getLatitude() != null && delivery.getLongitude() != null;
+            double latitude = located ? delivery.getLatitude() : originLatitude;
+            double longitude = located ? delivery.getLongitude() : originLongitude;
+            GeoGridIndex.Entry<Long> driver = available.takeNearest(latitude, longitude, maxRadiusKm);
+            // Nobody close enough to this restaurant; others may still have someone
+            if (driver == null) continue;
+            double km = GeoGridIndex.distanceKm(latitude, longitude, driver.latitude(), driver.longitude());
+            matches.add(new Assignment(delivery.getId(), delivery.getOrderId(), driver, names.get(driver.key()), km));
+        }
+        return matches;
+    }
+
+    // Writes the matches shard by shard and waits for all of them; unused drivers go back into the index
+    private void write(List<Assignment> matches) {
+        Map<Integer, List<Assignment>> byShard = matches.stream()
+                .collect(Collectors.groupingBy(a -> lifecycleEngine.shardOf(a.orderId())));
+        List<CompletableFuture<Void>> writes = new ArrayList<>();
+        byShard.forEach((shard, batch) -> writes.add(lifecycleEngine.submit(shard, () -> apply(batch))
+                .handle((unused, ex) -> {
+                    if (ex != null) {
+                        logger.error("Failed to assign drivers to {} deliveries", batch.size(), ex);
+                        unused = batch;
+                    }
+                    unused.forEach(a -> available.put(a.driver().key(), a.driver().latitude(), a.driver().longitude()));
+                    return null;
+                })));
+        CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).join();
+    }
+
+    /** Writes a batch of matches on its shard; returns those whose delivery no longer needs a driver. */
+    private List<Assignment> apply(List<Assignment> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Assignment> unused = new ArrayList<>();
+        for (Assignment assignment : batch) {
+            Delivery delivery = deliveryRepository.findById(assignment.deliveryId()).orElse(null);
+            if (delivery == null || delivery.getDriver() != null || delivery.getStatus() != DeliveryStatus.SCHEDULED
+                    || delivery.getOrder().getStatus() == OrderStatus.CANCELLED) {
+                unused.add(assignment);
+                continue;
+            }
+            if (driverRepository.claim(assignment.driver().key(), now) == 0) {
+                // Taken elsewhere or gone offline: not available, so it stays out of the index
+                claimConflicts.incrementAndGet();
+                continue;
+            }
+            delivery.setDriver(driverRepository.getReferenceById(assignment.driver().key()));
+            delivery.setAssignedDriver(assignment.driverName());
+            delivery.setEtaSeconds((int) Math.round(assignment.distanceKm() / speedKmh * 3600));
+            delivery.setUpdatedAt(now);
+            deliveryRepository.save(delivery);
+            notificationDispatcher.deliveryUpdated(delivery);
+            assigned.incrementAndGet();
+        }
+        return unused;
+    }
+}
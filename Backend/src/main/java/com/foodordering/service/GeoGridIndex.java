@@ -0,0 +1,151 @@
+package com.foodordering.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * In-memory spatial index of points keyed by {@code K}, bucketed into a fixed grid of square cells
+ * ({@code cellKm} on a side, measured north-south). A k-nearest search only visits the cells in
+ * growing rings around the query point and stops as soon as no unvisited cell can hold anything
+ * closer than the k found so far, so it stays cheap with tens of thousands of points.
+ * Thread-safe; every method holds the index's lock, which keeps {@link #takeNearest} atomic.
+ */
+public class GeoGridIndex<K> {
+
+    /** A point in the index. */
+    public record Entry<K>(K key, double latitude, double longitude) {
+    }
+
+    /** A point found by a search, with its distance from the search position. */
+    public record Hit<K>(Entry<K> entry, double distanceKm) {
+    }
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double KM_PER_DEGREE = 111.32;
+
+    private final double cellDegrees;
+    private final double cellKm;
+    private final Map<Long, Map<K, Entry<K>>> cells = new HashMap<>();
+    private final Map<K, Entry<K>> entries = new HashMap<>();
+
+    public GeoGridIndex(double cellKm) {
+        this.cellKm = Math.max(0.05, cellKm);
+        this.cellDegrees = this.cellKm / KM_PER_DEGREE;
+    }
+
+    /** Great-circle distance in kilometres. */
+    public static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /** Adds the point, or moves it when the key is already indexed. */
+    public synchronized void put(K key, double latitude, double longitude) {
+        remove(key);
+        Entry<K> entry = new Entry<>(key, latitude, longitude);
+        entries.put(key, entry);
+        cells.computeIfAbsent(cellOf(row(latitude), col(longitude)), c -> new HashMap<>()).put(key, entry);
+    }
+
+    public synchronized Entry<K> remove(K key) {
+        Entry<K> entry = entries.remove(key);
+        if (entry != null) {
+            long cell = cellOf(row(entry.latitude()), col(entry.longitude()));
+            Map<K, Entry<K>> members = cells.get(cell);
+            members.remove(key);
+            if (members.isEmpty()) {
+                cells.remove(cell);
+            }
+        }
+        return entry;
+    }
+
+    /** Replaces the whole content with {@code points}. */
+    public synchronized void replaceAll(Iterable<Entry<K>> points) {
+        cells.clear();
+        entries.clear();
+        for (Entry<K> point : points) {
+            put(point.key(), point.latitude(), point.longitude());
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /** The closest point within {@code maxKm} of the given position, or null. */
+    public synchronized Entry<K> nearest(double latitude, double longitude, double maxKm) {
+        List<Hit<K>> hits = nearest(latitude, longitude, 1, maxKm);
+        return hits.isEmpty() ? null : hits.get(0).entry();
+    }
+
+    /** Up to {@code k} points within {@code maxKm} of the given position, closest first. */
+    public synchronized List<Hit<K>> nearest(double latitude, double longitude, int k, double maxKm) {
+        int row = row(latitude);
+        int col = col(longitude);
+        // East-west cells shrink away from the equator; bound the search by the narrower side
+        double ringKm = cellKm * Math.max(0.01, Math.cos(Math.toRadians(latitude)));
+        int maxRings = (int) Math.ceil(maxKm / ringKm) + 1;
+
+        // The k best so far, farthest on top
+        PriorityQueue<Hit<K>> best = new PriorityQueue<>(Comparator.comparingDouble(Hit<K>::distanceKm).reversed());
+        for (int ring = 0; ring <= maxRings; ring++) {
+            // Everything in this ring or beyond is at least (ring - 1) cells away
+            if (best.size() >= k && best.peek().distanceKm() <= (ring - 1) * ringKm) break;
+            for (int r = row - ring; r <= row + ring; r++) {
+                // Only the ring's border: full rows at the top and bottom, two cells on the others
+                int step = (r == row - ring || r == row + ring) ? 1 : Math.max(1, 2 * ring);
+                for (int c = col - ring; c <= col + ring; c += step) {
+                    Map<K, Entry<K>> members = cells.get(cellOf(r, c));
+                    if (members == null) continue;
+                    for (Entry<K> entry : members.values()) {
+                        double km = distanceKm(latitude, longitude, entry.latitude(), entry.longitude());
+                        if (km > maxKm) continue;
+                        if (best.size() < k) {
+                            best.add(new Hit<>(entry, km));
+                        } else if (km < best.peek().distanceKm()) {
+                            best.poll();
+                            best.add(new Hit<>(entry, km));
+                        }
+                    }
+                }
+            }
+        }
+        List<Hit<K>> hits = new ArrayList<>(best);
+        hits.sort(Comparator.comparingDouble(Hit::distanceKm));
+        return hits;
+    }
+
+    /** Every point within {@code radiusKm}, closest first. */
+    public List<Hit<K>> within(double latitude, double longitude, double radiusKm) {
+        return nearest(latitude, longitude, Integer.MAX_VALUE, radiusKm);
+    }
+
+    /** Removes and returns the closest point within {@code maxKm}, or null. */
+    public synchronized Entry<K> takeNearest(double latitude, double longitude, double maxKm) {
+        Entry<K> entry = nearest(latitude, longitude, maxKm);
+        if (entry != null) {
+            remove(entry.key());
+        }
+        return entry;
+    }
+
+    private int row(double latitude) {
+        return (int) Math.floor(latitude / cellDegrees);
+    }
+
+    private int col(double longitude) {
+        return (int) Math.floor(longitude / cellDegrees);
+    }
+
+    private static long cellOf(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+}
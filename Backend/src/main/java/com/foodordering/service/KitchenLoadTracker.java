@@ -0,0 +1,269 @@
+package com.foodordering.service;
+
+import com.foodordering.config.HotPathMetrics;
+import com.foodordering.entity.Address;
+import com.foodordering.entity.Order;
+import com.foodordering.entity.Restaurant;
+import com.foodordering.enums.OrderStatus;
+import com.foodordering.repository.OrderRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live kitchen load per restaurant and the delivery time estimates built on it.
+ *
+ * Every order status change adjusts two lock-free counters of the order's restaurant: orders
+ * CONFIRMED (queued) and PREPARING. How long preparing takes is learnt per restaurant as an
+ * exponentially weighted average of the PREPARING to OUT_FOR_DELIVERY time of the orders this
+ * instance saw through. An order's estimate is then its wait behind the orders ahead of it
+ * ({@code kitchen.eta.parallel-orders} cooked at a time), its own preparation, and the ride from
+ * the restaurant to the delivery address.
+ *
+ * Counters change after commit. They only see this instance's changes, so they are rebuilt from
+ * the orders table every {@code kitchen.load.refresh-seconds}, which also corrects any drift.
+ */
+@Component
+public class KitchenLoadTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(KitchenLoadTracker.class);
+
+    private static final List<OrderStatus> IN_KITCHEN = List.of(OrderStatus.CONFIRMED, OrderStatus.PREPARING);
+
+    private final class Kitchen {
+        final AtomicInteger queued = new AtomicInteger();
+        final AtomicInteger preparing = new AtomicInteger();
+        // Average preparation seconds, as the bits of a double
+        final AtomicLong prepSecondsBits = new AtomicLong(Double.doubleToLongBits(defaultPrepSeconds));
+        final AtomicLong samples = new AtomicLong();
+
+        double prepSeconds() {
+            return Double.longBitsToDouble(prepSecondsBits.get());
+        }
+
+        void sample(double seconds) {
+            boolean first = samples.getAndIncrement() == 0;
+            prepSecondsBits.updateAndGet(bits -> {
+                double average = Double.longBitsToDouble(bits);
+                return Double.doubleToLongBits(first ? seconds : average + alpha * (seconds - average));
+            });
+        }
+
+        AtomicInteger counter(OrderStatus status) {
+            return status == OrderStatus.CONFIRMED ? queued : status == OrderStatus.PREPARING ? preparing : null;
+        }
+    }
+
+    private final OrderRepository orderRepository;
+    private final double defaultPrepSeconds;
+    private final double alpha;
+    private final long maxSampleMillis;
+    private final int parallelOrders;
+    private final double defaultDeliverySeconds;
+    private final double speedKmh;
+    private final long refreshSeconds;
+    private final Map<Long, Kitchen> kitchens = new ConcurrentHashMap<>();
+    // When each order this instance moved into PREPARING got there, until it leaves
+    private final Map<Long, Long> preparingSince = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "kitchen-load-refresh");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final AtomicLong transitions = new AtomicLong();
+    private final AtomicLong samples = new AtomicLong();
+    private final AtomicLong discardedSamples = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+
+    public KitchenLoadTracker(OrderRepository orderRepository, HotPathMetrics metrics,
+                              @Value("${kitchen.eta.default-prep-seconds:600}") double defaultPrepSeconds,
+                              @Value("${kitchen.eta.alpha:0.2}") double alpha,
+                              @Value("${kitchen.eta.max-sample-seconds:7200}") long maxSampleSeconds,
+                              @Value("${kitchen.eta.parallel-orders:4}") int parallelOrders,
+                              @Value("${kitchen.eta.default-delivery-seconds:900}") double defaultDeliverySeconds,
+                              @Value("${delivery.dispatch.speed-kmh:25}") double speedKmh,
+                              @Value("${kitchen.load.refresh-seconds:30}") long refreshSeconds) {
+        this.orderRepository = orderRepository;
+        this.defaultPrepSeconds = Math.max(1, defaultPrepSeconds);
+        this.alpha = Math.min(1, Math.max(0.01, alpha));
+        this.maxSampleMillis = TimeUnit.SECONDS.toMillis(Math.max(1, maxSampleSeconds));
+        this.parallelOrders = Math.max(1, parallelOrders);
+        this.defaultDeliverySeconds = Math.max(0, defaultDeliverySeconds);
+        this.speedKmh = Math.max(1, speedKmh);
+        this.refreshSeconds = Math.max(1, refreshSeconds);
+        metrics.gauge("kitchen.queued", () -> total(OrderStatus.CONFIRMED));
+        metrics.gauge("kitchen.preparing", () -> total(OrderStatus.PREPARING));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        refresher.scheduleWithFixedDelay(this::onTick, 0, refreshSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        refresher.shutdownNow();
+    }
+
+    /** Records an order status change; after commit when called inside a transaction. */
+    public void orderMoved(Long orderId, Long restaurantId, OrderStatus from, OrderStatus to) {
+        if (from == to || restaurantId == null) return;
+        afterCommit(() -> apply(orderId, restaurantId, from, to, System.currentTimeMillis()));
+    }
+
+    /**
+     * When the order should be delivered if it is now in {@code status}, or null when it is finished.
+     * Reads the order's restaurant and delivery address.
+     */
+    public LocalDateTime estimateDeliveryAt(Order order, OrderStatus status, LocalDateTime now) {
+        if (status == OrderStatus.DELIVERED || status == OrderStatus.CANCELLED) return null;
+        Restaurant restaurant = order.getRestaurant();
+        double seconds = kitchenSeconds(restaurant != null ? kitchens.get(restaurant.getId()) : null, status)
+                + deliverySeconds(restaurant, order.getDeliveryAddress());
+        return now.plusSeconds(Math.round(seconds));
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("restaurants", kitchens.size());
+        stats.put("queued", total(OrderStatus.CONFIRMED));
+        stats.put("preparing", total(OrderStatus.PREPARING));
+        stats.put("transitions", transitions.get());
+        stats.put("samples", samples.get());
+        stats.put("discardedSamples", discardedSamples.get());
+        stats.put("refreshes", refreshes.get());
+        Map<Long, Object> load = new LinkedHashMap<>();
+        kitchens.forEach((restaurantId, kitchen) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("queued", kitchen.queued.get());
+            entry.put("preparing", kitchen.preparing.get());
+            entry.put("prepSeconds", Math.round(kitchen.prepSeconds()));
+            entry.put("samples", kitchen.samples.get());
+            load.put(restaurantId, entry);
+        });
+        stats.put("kitchens", load);
+        return stats;
+    }
+
+    // Package-private so recorded order timelines can be replayed with their own timestamps
+    void apply(Long orderId, Long restaurantId, OrderStatus from, OrderStatus to, long nowMillis) {
+        transitions.incrementAndGet();
+        Kitchen kitchen = kitchens.computeIfAbsent(restaurantId, id -> new Kitchen());
+        AtomicInteger left = kitchen.counter(from);
+        if (left != null) {
+            // Never below zero: a refresh may already have counted the order out
+            left.updateAndGet(n -> Math.max(0, n - 1));
+        }
+        AtomicInteger entered = kitchen.counter(to);
+        if (entered != null) {
+            entered.incrementAndGet();
+        }
+
+        if (to == OrderStatus.PREPARING) {
+            preparingSince.put(orderId, nowMillis);
+        } else if (from == OrderStatus.PREPARING || to == OrderStatus.CANCELLED) {
+            Long since = preparingSince.remove(orderId);
+            // A cancelled order was never finished, so its time says nothing about preparation
+            if (since != null && to != OrderStatus.CANCELLED) {
+                long millis = nowMillis - since;
+                if (millis <= maxSampleMillis) {
+                    kitchen.sample(millis / 1000.0);
+                    samples.incrementAndGet();
+                } else {
+                    discardedSamples.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    // Wait behind the orders ahead plus the order's own preparation; the order itself isn't counted yet
+    private double kitchenSeconds(Kitchen kitchen, OrderStatus status) {
+        double prepSeconds = kitchen != null ? kitchen.prepSeconds() : defaultPrepSeconds;
+        switch (status) {
+            case PENDING:
+            case CONFIRMED:
+                int ahead = kitchen != null ? kitchen.queued.get() + kitchen.preparing.get() : 0;
+                // Starts right away while a station is free; beyond that, stations free up parallelOrders per prepSeconds
+                double wait = Math.max(0, ahead - parallelOrders + 1) / (double) parallelOrders * prepSeconds;
+                return wait + prepSeconds;
+            case PREPARING:
+                return prepSeconds;
+            default:
+                return 0;
+        }
+    }
+
+    private double deliverySeconds(Restaurant restaurant, Address address) {
+        if (restaurant == null || address == null || restaurant.getLatitude() == null || restaurant.getLongitude() == null
+                || address.getLatitude() == null || address.getLongitude() == null) {
+            return defaultDeliverySeconds;
+        }
+        double km = GeoGridIndex.distanceKm(restaurant.getLatitude(), restaurant.getLongitude(),
+                address.getLatitude(), address.getLongitude());
+        return km / speedKmh * 3600;
+    }
+
+    private void onTick() {
+        try {
+            refresh();
+        } catch (Exception ex) {
+            // Never let an exception cancel the periodic refresh
+            logger.error("Kitchen load refresh failed", ex);
+        }
+    }
+
+    // Replaces every counter with the orders table's numbers; kitchens keep their learnt preparation time
+    private void refresh() {
+        Map<Long, int[]> counts = new HashMap<>();
+        for (OrderRepository.StatusCount row : orderRepository.countByRestaurantAndStatus(IN_KITCHEN)) {
+            int[] pair = counts.computeIfAbsent(row.getRestaurantId(), id -> new int[2]);
+            pair[row.getStatus() == OrderStatus.CONFIRMED ? 0 : 1] = row.getOrders().intValue();
+        }
+        counts.keySet().forEach(restaurantId -> kitchens.computeIfAbsent(restaurantId, id -> new Kitchen()));
+        kitchens.forEach((restaurantId, kitchen) -> {
+            int[] pair = counts.getOrDefault(restaurantId, new int[2]);
+            kitchen.queued.set(pair[0]);
+            kitchen.preparing.set(pair[1]);
+        });
+        // Orders that left PREPARING on another instance would otherwise stay here forever
+        long cutoff = System.currentTimeMillis() - maxSampleMillis;
+        preparingSince.values().removeIf(since -> since < cutoff);
+        refreshes.incrementAndGet();
+    }
+
+    private int total(OrderStatus status) {
+        return kitchens.values().stream().mapToInt(kitchen -> kitchen.counter(status).get()).sum();
+    }
+
+    private void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+}
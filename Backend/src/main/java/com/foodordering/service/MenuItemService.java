@@ -1,5 +1,8 @@
 package com.foodordering.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodordering.dto.ApiResponse;
 import com.foodordering.dto.MenuItemDto;
 import com.foodordering.entity.MenuItem;
 import com.foodordering.entity.Restaurant;
@@ -20,11 +23,18 @@ public class MenuItemService {
     private final MenuItemRepository menuItemRepository;
     private final RestaurantRepository restaurantRepository;
     private final MenuItemMapper menuItemMapper;
+    private final MenuSnapshotCache menuCache;
+    private final ObjectMapper objectMapper;
+    private final CatalogSearchIndex searchIndex;
 
-    public MenuItemService(MenuItemRepository menuItemRepository, RestaurantRepository restaurantRepository, MenuItemMapper menuItemMapper) {
+    public MenuItemService(MenuItemRepository menuItemRepository, RestaurantRepository restaurantRepository, MenuItemMapper menuItemMapper,
+                           MenuSnapshotCache menuCache, ObjectMapper objectMapper, CatalogSearchIndex searchIndex) {
         this.menuItemRepository = menuItemRepository;
         this.restaurantRepository = restaurantRepository;
         this.menuItemMapper = menuItemMapper;
+        this.menuCache = menuCache;
+        this.objectMapper = objectMapper;
+        this.searchIndex = searchIndex;
     }
 
     @Transactional
@@ -48,21 +58,41 @@ public class MenuItemService {
         }
 
         menuItem = menuItemRepository.save(menuItem);
+        menuCache.invalidate(restaurant.getId());
+        searchIndex.menuItemChanged(menuItem);
         return menuItemMapper.toDto(menuItem);
     }
 
+    @Transactional(readOnly = true)
     public List<MenuItemDto> getMenuItemsByRestaurant(Long restaurantId) {
     return menuItemRepository.findByRestaurantId(restaurantId).stream()
         .map(menuItemMapper::toDto)
         .collect(Collectors.toList());
     }
 
+    /**
+     * The restaurant's menu as a ready-to-send JSON response body, served from {@link MenuSnapshotCache}.
+     * Not read-only on purpose: a snapshot rebuilt from a lagging replica would be cached until the next change.
+     */
+    public MenuSnapshotCache.Snapshot getMenuSnapshot(Long restaurantId) {
+        return menuCache.get(restaurantId, () -> {
+            ApiResponse response = new ApiResponse(true, "Menu items retrieved successfully", getMenuItemsByRestaurant(restaurantId));
+            try {
+                return objectMapper.writeValueAsBytes(response);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not serialize menu of restaurant " + restaurantId, e);
+            }
+        });
+    }
+
+    @Transactional(readOnly = true)
     public List<MenuItemDto> getAllMenuItems() {
         return menuItemRepository.findAll().stream()
                 .map(menuItemMapper::toDto)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public MenuItemDto getMenuItemById(Long id) {
     MenuItem menuItem = menuItemRepository.findById(id)
         .orElseThrow(() -> new ResourceNotFoundException("Menu item not found"));
@@ -91,6 +121,8 @@ public class MenuItemService {
         menuItem.setUpdatedAt(LocalDateTime.now());
 
         menuItem = menuItemRepository.save(menuItem);
+        menuCache.invalidate(menuItem.getRestaurant().getId());
+        searchIndex.menuItemChanged(menuItem);
         return menuItemMapper.toDto(menuItem);
     }
 
@@ -106,6 +138,8 @@ public class MenuItemService {
         }
 
         menuItemRepository.deleteById(id);
+        menuCache.invalidate(menuItem.getRestaurant().getId());
+        searchIndex.menuItemRemoved(id);
     }
 
     // Mapping handled by MenuItemMapper
@@ -0,0 +1,200 @@
+package com.foodordering.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Immutable per-restaurant menu snapshots, kept as the serialized JSON response body.
+ *
+ * Every menu change bumps the restaurant's version and drops its snapshot; the next read rebuilds
+ * it once. The version (plus a per-process epoch, so restarts never reuse a tag) is the strong ETag
+ * of the bytes. Least recently used snapshots are evicted beyond {@code menu.snapshot-cache.max-entries}.
+ *
+ * Changes only invalidate this instance's snapshots, so snapshots also expire after
+ * {@code menu.snapshot-cache.ttl-seconds}. An expired snapshot is rebuilt and keeps its version
+ * (and ETag) when the bytes are unchanged; otherwise the version is bumped as for a local change.
+ */
+@Component
+public class MenuSnapshotCache {
+
+    /** Serialized menu of one restaurant at {@code version}. Shared by every reader, so the bytes never leave it. */
+    public static final class Snapshot {
+        private final long restaurantId;
+        private final long version;
+        private final byte[] json;
+        private final String etag;
+        private final long loadedAtMillis;
+
+        Snapshot(long restaurantId, long version, byte[] json, String etag, long loadedAtMillis) {
+            this.restaurantId = restaurantId;
+            this.version = version;
+            this.json = json;
+            this.etag = etag;
+            this.loadedAtMillis = loadedAtMillis;
+        }
+
+        public long restaurantId() {
+            return restaurantId;
+        }
+
+        public long version() {
+            return version;
+        }
+
+        public String etag() {
+            return etag;
+        }
+
+        public long loadedAtMillis() {
+            return loadedAtMillis;
+        }
+
+        public int length() {
+            return json.length;
+        }
+
+        /** The JSON as a response body: streamed from the cached bytes, which it gives no access to. */
+        public Resource body() {
+            return new AbstractResource() {
+                @Override
+                public InputStream getInputStream() {
+                    return new ByteArrayInputStream(json);
+                }
+
+                @Override
+                public long contentLength() {
+                    return json.length;
+                }
+
+                @Override
+                public String getDescription() {
+                    return "menu snapshot of restaurant " + restaurantId + " at version " + version;
+                }
+            };
+        }
+
+        boolean sameJson(byte[] other) {
+            return Arrays.equals(json, other);
+        }
+    }
+
+    private final long epoch = System.currentTimeMillis();
+    private final Map<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final Map<Long, Snapshot> snapshots;
+    private final long ttlMillis;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong remoteChanges = new AtomicLong();
+
+    public MenuSnapshotCache(@Value("${menu.snapshot-cache.max-entries:2000}") int maxEntries,
+                             @Value("${menu.snapshot-cache.ttl-seconds:60}") long ttlSeconds) {
+        int limit = Math.max(1, maxEntries);
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(Math.max(1, ttlSeconds));
+        this.snapshots = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Snapshot> eldest) {
+                if (size() > limit) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /** Returns the current snapshot, building it with {@code loader} on a miss. */
+    public Snapshot get(Long restaurantId, Supplier<byte[]> loader) {
+        long version = currentVersion(restaurantId);
+        long now = System.currentTimeMillis();
+        Snapshot snapshot;
+        synchronized (snapshots) {
+            snapshot = snapshots.get(restaurantId);
+        }
+        boolean cached = snapshot != null && snapshot.version() == version;
+        if (cached && now - snapshot.loadedAtMillis() < ttlMillis) {
+            hits.incrementAndGet();
+            return snapshot;
+        }
+        misses.incrementAndGet();
+        byte[] json = loader.get();
+        if (cached) {
+            expired.incrementAndGet();
+            if (!snapshot.sameJson(json)) {
+                // Changed by another instance: the bytes need a new tag
+                remoteChanges.incrementAndGet();
+                doInvalidate(restaurantId);
+                version = currentVersion(restaurantId);
+            }
+        }
+        Snapshot loaded = new Snapshot(restaurantId, version, json,
+                "\"menu-" + restaurantId + "-" + epoch + "-" + version + "\"", now);
+        // A change committed while loading makes this snapshot stale: serve it once, don't keep it
+        if (currentVersion(restaurantId) == version) {
+            synchronized (snapshots) {
+                snapshots.put(restaurantId, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    /** Bumps the restaurant's menu version, after commit when called inside a transaction. */
+    public void invalidate(Long restaurantId) {
+        if (restaurantId == null) return;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doInvalidate(restaurantId);
+                }
+            });
+        } else {
+            doInvalidate(restaurantId);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        synchronized (snapshots) {
+            stats.put("entries", snapshots.size());
+        }
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        stats.put("invalidations", invalidations.get());
+        stats.put("expired", expired.get());
+        stats.put("remoteChanges", remoteChanges.get());
+        return stats;
+    }
+
+    // Only invalidation creates a counter, so reads of unknown ids don't grow the map
+    private long currentVersion(Long restaurantId) {
+        AtomicLong version = versions.get(restaurantId);
+        return version != null ? version.get() : 0;
+    }
+
+    private void doInvalidate(Long restaurantId) {
+        versions.computeIfAbsent(restaurantId, id -> new AtomicLong()).incrementAndGet();
+        synchronized (snapshots) {
+            snapshots.remove(restaurantId);
+        }
+        invalidations.incrementAndGet();
+    }
+}
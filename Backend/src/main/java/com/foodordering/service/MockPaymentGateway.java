@@ -0,0 +1,50 @@
+package com.foodordering.service;
+
+import com.foodordering.exception.PaymentGatewayException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Local stand-in for a payment gateway. Approves unless the request forces a failure (mockResult
+ * other than SUCCESS/COMPLETED). For load tests it can add latency and fail a share of the calls,
+ * see the {@code payment.gateway.mock.*} properties.
+ */
+@Component
+public class MockPaymentGateway implements PaymentGateway {
+
+    private final long latencyMillis;
+    private final long jitterMillis;
+    private final double errorRate;
+
+    public MockPaymentGateway(@Value("${payment.gateway.mock.latency-millis:0}") long latencyMillis,
+                              @Value("${payment.gateway.mock.jitter-millis:0}") long jitterMillis,
+                              @Value("${payment.gateway.mock.error-rate:0.0}") double errorRate) {
+        this.latencyMillis = Math.max(0, latencyMillis);
+        this.jitterMillis = Math.max(0, jitterMillis);
+        this.errorRate = errorRate;
+    }
+
+    @Override
+    public Result charge(Charge charge) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = latencyMillis + (jitterMillis > 0 ? random.nextLong(jitterMillis + 1) : 0);
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new PaymentGatewayException("Payment gateway call interrupted", e);
+            }
+        }
+        if (errorRate > 0 && random.nextDouble() < errorRate) {
+            throw new PaymentGatewayException("Mock payment gateway error");
+        }
+
+        String result = charge.mockResult() == null ? "COMPLETED" : charge.mockResult().toUpperCase();
+        boolean approved = "COMPLETED".equals(result) || "SUCCESS".equals(result);
+        return new Result(approved, (approved ? "MOCK_TXN_" : "MOCK_TXN_FAILED_") + UUID.randomUUID());
+    }
+}
@@ -1,69 +1,209 @@
 package com.foodordering.service;
 
+import com.foodordering.config.HotPathMetrics;
+import com.foodordering.config.ReadYourWritesTracker;
 import com.foodordering.dto.PaymentRequestDto;
 import com.foodordering.dto.OrderDto;
 import com.foodordering.entity.Order;
 import com.foodordering.entity.Payment;
 import com.foodordering.enums.PaymentStatus;
 import com.foodordering.enums.OrderStatus;
+import com.foodordering.exception.ResourceAlreadyExistsException;
 import com.foodordering.repository.OrderRepository;
 import com.foodordering.repository.PaymentRepository;
 import com.foodordering.mapper.OrderMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.util.UUID;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+/**
+ * Payments through a {@link PaymentGateway} (the {@link MockPaymentGateway} unless another adapter
+ * is configured). A payment runs in three steps: it is marked PROCESSING on the order's lifecycle
+ * shard, charged through {@link PaymentGatewayClient} with no transaction or shard thread held, and
+ * the gateway's answer is applied back on the shard. {@link #processPayment} waits for all three;
+ * {@link #submitPayment} returns after the first and applies the answer when it arrives.
+ */
 @Service
 public class MockPaymentService implements PaymentService {
 
+    private static final Logger logger = LoggerFactory.getLogger(MockPaymentService.class);
+
     private final PaymentRepository paymentRepository;
     private final OrderRepository orderRepository;
     private final OrderMapper orderMapper;
     private final com.foodordering.service.DeliveryService deliveryService;
+    private final OrderLifecycleEngine lifecycleEngine;
+    private final ReadYourWritesTracker readYourWrites;
+    private final PaymentGatewayClient gatewayClient;
+    private final HotPathMetrics metrics;
+    private final long staleProcessingSeconds;
 
     public MockPaymentService(PaymentRepository paymentRepository, OrderRepository orderRepository, OrderMapper orderMapper,
-                              com.foodordering.service.DeliveryService deliveryService) {
+                              com.foodordering.service.DeliveryService deliveryService, OrderLifecycleEngine lifecycleEngine,
+                              ReadYourWritesTracker readYourWrites, PaymentGatewayClient gatewayClient, HotPathMetrics metrics,
+                              @Value("${payment.gateway.stale-processing-seconds:120}") long staleProcessingSeconds) {
         this.paymentRepository = paymentRepository;
         this.orderRepository = orderRepository;
         this.orderMapper = orderMapper;
         this.deliveryService = deliveryService;
+        this.lifecycleEngine = lifecycleEngine;
+        this.readYourWrites = readYourWrites;
+        this.gatewayClient = gatewayClient;
+        this.metrics = metrics;
+        this.staleProcessingSeconds = staleProcessingSeconds;
     }
 
     @Override
-    @Transactional
     public OrderDto processPayment(Long orderId, PaymentRequestDto request) {
-        Order order = orderRepository.findById(orderId).orElseThrow(() -> new IllegalArgumentException("Order not found"));
-        Payment payment = paymentRepository.findByOrderId(orderId).orElseThrow(() -> new IllegalArgumentException("Payment record not found for order"));
+        return metrics.observation("payment.process").observe(() -> processAndWait(orderId, request));
+    }
+
+    private OrderDto processAndWait(Long orderId, PaymentRequestDto request) {
+        readYourWrites.recordWrite();
+        PaymentGateway.Charge charge = begin(orderId, request);
+        if (charge == null) {
+            return lifecycleEngine.call(orderId, () -> orderMapper.toDto(loadOrder(orderId)));
+        }
+        PaymentGateway.Result result;
+        try {
+            result = gatewayClient.chargeAndWait(charge);
+        } catch (RuntimeException ex) {
+            lifecycleEngine.call(orderId, () -> applyResult(charge, null));
+            throw ex;
+        }
+        return lifecycleEngine.call(orderId, () -> orderMapper.toDto(applyResult(charge, result)));
+    }
+
+    @Override
+    public Map<String, Object> submitPayment(Long orderId, PaymentRequestDto request) {
+        return metrics.observation("payment.submit").observe(() -> submit(orderId, request));
+    }
+
+    private Map<String, Object> submit(Long orderId, PaymentRequestDto request) {
+        readYourWrites.recordWrite();
+        PaymentGateway.Charge charge = begin(orderId, request);
+        if (charge != null) {
+            int shard = lifecycleEngine.shardOf(orderId);
+            gatewayClient.charge(charge).whenComplete((result, error) -> {
+                if (error != null) {
+                    logger.warn("Payment {} for order {} failed: {}", charge.paymentId(), orderId, error.getMessage());
+                }
+                lifecycleEngine.submit(shard, () -> applyResult(charge, error == null ? result : null))
+                        .exceptionally(ex -> {
+                            logger.error("Could not record the outcome of payment {} for order {}", charge.paymentId(), orderId, ex);
+                            return null;
+                        });
+            });
+        }
+        return getPaymentStatus(orderId);
+    }
 
-        String result = (request.getMockResult() == null) ? "COMPLETED" : request.getMockResult().toUpperCase();
+    @Override
+    public Map<String, Object> getPaymentStatus(Long orderId) {
+        return lifecycleEngine.call(orderId, () -> {
+            Payment payment = paymentRepository.findByOrderId(orderId).orElseThrow(() -> new IllegalArgumentException("Payment record not found for order"));
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("paymentId", payment.getId());
+            status.put("orderId", orderId);
+            status.put("status", payment.getStatus());
+            status.put("transactionId", payment.getTransactionId());
+            status.put("updatedAt", payment.getUpdatedAt());
+            return status;
+        });
+    }
 
-            if ("COMPLETED".equals(result) || "SUCCESS".equals(result)) {
+    /**
+     * Marks the payment PROCESSING and returns what to charge, or null when it is already paid.
+     * A payment stuck in PROCESSING (say, the instance died mid-call) may be charged again after
+     * {@code payment.gateway.stale-processing-seconds}; the payment id keeps that from charging twice.
+     * Cancelled and delivered orders can't be paid.
+     */
+    private PaymentGateway.Charge begin(Long orderId, PaymentRequestDto request) {
+        return lifecycleEngine.call(orderId, () -> {
+            Order order = loadOrder(orderId);
+            Payment payment = paymentRepository.findByOrderId(orderId).orElseThrow(() -> new IllegalArgumentException("Payment record not found for order"));
+            if (payment.getStatus() == PaymentStatus.COMPLETED) {
+                return null;
+            }
+            if (!isPayable(order.getStatus())) {
+                throw new IllegalArgumentException("Order is " + order.getStatus() + " and can't be paid");
+            }
+            LocalDateTime now = LocalDateTime.now();
+            if (payment.getStatus() == PaymentStatus.PROCESSING && payment.getUpdatedAt() != null
+                    && payment.getUpdatedAt().isAfter(now.minusSeconds(staleProcessingSeconds))) {
+                throw new ResourceAlreadyExistsException("Payment for this order is already being processed");
+            }
+            payment.setStatus(PaymentStatus.PROCESSING);
+            payment.setUpdatedAt(now);
+            paymentRepository.save(payment);
+            order.setPaymentStatus(PaymentStatus.PROCESSING);
+            orderRepository.save(order);
+            String method = request.getMethod() != null ? request.getMethod() : String.valueOf(payment.getPaymentMethod());
+            return new PaymentGateway.Charge(payment.getId(), orderId, payment.getAmount(), method, request.getMockResult());
+        });
+    }
+
+    /**
+     * Records the gateway's answer. A decline cancels the order, as before; a gateway failure
+     * ({@code result} null) only fails the payment, so the customer can pay again. Ignored when the
+     * payment is no longer PROCESSING, i.e. a later attempt already settled it. An approval for an
+     * order cancelled while the charge was in flight marks the payment REFUNDED instead of COMPLETED
+     * and schedules no delivery; the gateway has no refund call, so the refund is logged for support.
+     */
+    private Order applyResult(PaymentGateway.Charge charge, PaymentGateway.Result result) {
+        Order order = loadOrder(charge.orderId());
+        Payment payment = paymentRepository.findById(charge.paymentId()).orElseThrow(() -> new IllegalArgumentException("Payment record not found for order"));
+        if (payment.getStatus() != PaymentStatus.PROCESSING) {
+            return order;
+        }
+
+        payment.setUpdatedAt(LocalDateTime.now());
+        if (result != null && result.approved() && !isPayable(order.getStatus())) {
+            logger.warn("Payment {} approved for order {} which is {}; refund transaction {}",
+                    payment.getId(), order.getId(), order.getStatus(), result.transactionId());
+            payment.setStatus(PaymentStatus.REFUNDED);
+            payment.setTransactionId(result.transactionId());
+            paymentRepository.save(payment);
+            order.setPaymentStatus(PaymentStatus.REFUNDED);
+            orderRepository.save(order);
+        } else if (result != null && result.approved()) {
             payment.setStatus(PaymentStatus.COMPLETED);
-            payment.setTransactionId("MOCK_TXN_" + UUID.randomUUID());
-            payment.setUpdatedAt(java.time.LocalDateTime.now());
+            payment.setTransactionId(result.transactionId());
             paymentRepository.save(payment);
-            order.setPaymentStatus(com.foodordering.enums.PaymentStatus.COMPLETED);
-            order.setStatus(OrderStatus.CONFIRMED);
-            order.setUpdatedAt(java.time.LocalDateTime.now());
+            order.setPaymentStatus(PaymentStatus.COMPLETED);
+            lifecycleEngine.transitionOrder(order, OrderStatus.CONFIRMED);
             orderRepository.save(order);
-                // schedule delivery for confirmed order
-                try {
+            // schedule delivery for confirmed order
+            try {
+                if (order.getDelivery() == null) {
                     deliveryService.scheduleDelivery(order);
-                } catch (Exception ex) {
-                    // ignore delivery scheduling errors for demo
                 }
+            } catch (Exception ex) {
+                // ignore delivery scheduling errors for demo
+            }
         } else {
             payment.setStatus(PaymentStatus.FAILED);
-            payment.setTransactionId("MOCK_TXN_FAILED_" + UUID.randomUUID());
-            payment.setUpdatedAt(java.time.LocalDateTime.now());
+            payment.setTransactionId(result != null ? result.transactionId() : null);
             paymentRepository.save(payment);
-            order.setPaymentStatus(com.foodordering.enums.PaymentStatus.FAILED);
-            order.setStatus(OrderStatus.CANCELLED);
-            order.setUpdatedAt(java.time.LocalDateTime.now());
+            order.setPaymentStatus(PaymentStatus.FAILED);
+            if (result != null) {
+                lifecycleEngine.transitionOrder(order, OrderStatus.CANCELLED);
+            }
             orderRepository.save(order);
         }
+        return order;
+    }
+
+    private static boolean isPayable(OrderStatus status) {
+        return status != OrderStatus.CANCELLED && status != OrderStatus.DELIVERED;
+    }
 
-        return orderMapper.toDto(order);
+    private Order loadOrder(Long orderId) {
+        return orderRepository.findById(orderId).orElseThrow(() -> new IllegalArgumentException("Order not found"));
     }
 }
@@ -0,0 +1,115 @@
+package com.foodordering.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodordering.enums.OrderStatus;
+import com.foodordering.repository.OrderRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Streams the orders table to a response as NDJSON or CSV. Rows are read through a forward-only
+ * JDBC cursor and written as they arrive, so memory use does not depend on how many orders match.
+ */
+@Service
+public class OrderExportService {
+
+    public enum Format { NDJSON, CSV }
+
+    private static final String[] CSV_HEADER = {"id", "customerEmail", "restaurantId", "restaurantName", "status",
+            "paymentMethod", "paymentStatus", "totalAmount", "createdAt", "deliveredAt"};
+    private static final int FLUSH_EVERY = 500;
+
+    private final OrderRepository orderRepository;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public OrderExportService(OrderRepository orderRepository, ObjectMapper objectMapper, EntityManager entityManager,
+                              PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /** Writes every matching order to {@code out}; runs in its own read-only transaction. */
+    public void exportOrders(OrderStatus status, Long restaurantId, LocalDateTime from, LocalDateTime to,
+                             Format format, OutputStream out) {
+        readOnlyTransaction.executeWithoutResult(tx -> {
+            try (Stream<OrderRepository.ExportRow> rows = orderRepository.streamForExport(status, restaurantId, from, to)) {
+                if (format == Format.CSV) {
+                    writeLine(out, csvLine(CSV_HEADER));
+                }
+                int written = 0;
+                for (var it = rows.iterator(); it.hasNext(); ) {
+                    OrderRepository.ExportRow row = it.next();
+                    writeLine(out, format == Format.CSV ? csvLine(csvValues(row)) : objectMapper.writeValueAsString(toMap(row)));
+                    if (++written % FLUSH_EVERY == 0) {
+                        out.flush();
+                        // Projections aren't managed, but make sure nothing accumulates over a long export
+                        entityManager.clear();
+                    }
+                }
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static Map<String, Object> toMap(OrderRepository.ExportRow row) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("id", row.getId());
+        map.put("customerEmail", row.getCustomerEmail());
+        map.put("restaurantId", row.getRestaurantId());
+        map.put("restaurantName", row.getRestaurantName());
+        map.put("status", row.getStatus());
+        map.put("paymentMethod", row.getPaymentMethod());
+        map.put("paymentStatus", row.getPaymentStatus());
+        map.put("totalAmount", row.getTotalAmount());
+        map.put("createdAt", row.getCreatedAt());
+        map.put("deliveredAt", row.getDeliveredAt());
+        return map;
+    }
+
+    private static String[] csvValues(OrderRepository.ExportRow row) {
+        return new String[]{str(row.getId()), row.getCustomerEmail(), str(row.getRestaurantId()), row.getRestaurantName(),
+                str(row.getStatus()), str(row.getPaymentMethod()), str(row.getPaymentStatus()), str(row.getTotalAmount()),
+                str(row.getCreatedAt()), str(row.getDeliveredAt())};
+    }
+
+    private static String str(Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+    private static String csvLine(String[] values) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) line.append(',');
+            String value = values[i] == null ? "" : values[i];
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                line.append('"').append(value.replace("\"", "\"\"")).append('"');
+            } else {
+                line.append(value);
+            }
+        }
+        return line.toString();
+    }
+
+    private static void writeLine(OutputStream out, String line) throws IOException {
+        out.write(line.getBytes(StandardCharsets.UTF_8));
+        out.write('\n');
+    }
+}
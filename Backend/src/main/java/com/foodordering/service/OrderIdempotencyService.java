@@ -0,0 +1,212 @@
+package com.foodordering.service;
+
+import com.foodordering.config.HotPathMetrics;
+import com.foodordering.config.ReadYourWritesTracker;
+import com.foodordering.dto.CreateOrderDto;
+import com.foodordering.dto.OrderDto;
+import com.foodordering.exception.ResourceAlreadyExistsException;
+import com.foodordering.repository.OrderIdempotencyKeyRepository;
+import com.foodordering.security.SecurityUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * {@code Idempotency-Key} support for {@code POST /api/orders}: a retried request with the same key
+ * gets the order the first one created instead of a second order and payment.
+ *
+ * Lookups go through three layers. Recently answered keys are remembered in a small LRU, so most
+ * retries cost one primary-key read of the order. A duplicate arriving while the first request is
+ * still running on this instance waits for its result. Everything else relies on the unique
+ * (customer, key) index of {@code order_idempotency_keys}, written in the order's own transaction
+ * (see {@link OrderService#createOrder(CreateOrderDto, String)}), which also covers other instances.
+ * Keys older than {@code order.idempotency.ttl-hours} are purged periodically.
+ */
+@Service
+public class OrderIdempotencyService {
+
+    /** The order for a request, and whether it was created by an earlier request with the same key. */
+    public record Result(OrderDto order, boolean replayed) {
+    }
+
+    public static final int MAX_KEY_LENGTH = 100;
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderIdempotencyService.class);
+
+    private record Remembered(long orderId, long atMillis) {
+    }
+
+    private final OrderService orderService;
+    private final OrderIdempotencyKeyRepository keyRepository;
+    private final ReadYourWritesTracker readYourWrites;
+    private final HotPathMetrics metrics;
+    private final TransactionTemplate transaction;
+    private final long ttlMillis;
+    private final long purgeIntervalMinutes;
+    private final long waitSeconds;
+
+    // "email\nkey" -> order id, least recently used dropped beyond order.idempotency.cache-size
+    private final Map<String, Remembered> recent;
+    // Requests currently creating an order on this instance, completed with the order id
+    private final Map<String, CompletableFuture<Long>> inFlight = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService purger = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "order-idempotency-purger");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public OrderIdempotencyService(OrderService orderService, OrderIdempotencyKeyRepository keyRepository,
+                                   ReadYourWritesTracker readYourWrites, HotPathMetrics metrics,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${order.idempotency.ttl-hours:24}") long ttlHours,
+                                   @Value("${order.idempotency.cache-size:10000}") int cacheSize,
+                                   @Value("${order.idempotency.purge-interval-minutes:15}") long purgeIntervalMinutes,
+                                   @Value("${order.idempotency.wait-seconds:30}") long waitSeconds) {
+        this.orderService = orderService;
+        this.keyRepository = keyRepository;
+        this.readYourWrites = readYourWrites;
+        this.metrics = metrics;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.ttlMillis = TimeUnit.HOURS.toMillis(ttlHours);
+        this.purgeIntervalMinutes = Math.max(1, purgeIntervalMinutes);
+        this.waitSeconds = waitSeconds;
+        int limit = Math.max(1, cacheSize);
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Remembered> eldest) {
+                return size() > limit;
+            }
+        };
+    }
+
+    @PostConstruct
+    void start() {
+        purger.scheduleWithFixedDelay(this::purgeExpired, purgeIntervalMinutes, purgeIntervalMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    void stop() {
+        purger.shutdownNow();
+    }
+
+    /** Creates the order, or returns the one already created under {@code idempotencyKey}; a null key always creates. */
+    public Result createOrder(String idempotencyKey, CreateOrderDto dto) {
+        // Timed here rather than in OrderService so the commit is included
+        return metrics.observation("order.create").observe(() -> createOrTimed(idempotencyKey, dto));
+    }
+
+    private Result createOrTimed(String idempotencyKey, CreateOrderDto dto) {
+        String email = SecurityUtils.getCurrentUserEmail();
+        if (idempotencyKey == null || email == null) {
+            return new Result(orderService.createOrder(dto), false);
+        }
+        String key = idempotencyKey.trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        // The original order may have been written moments ago; read it back from the primary
+        readYourWrites.recordWrite();
+
+        String cacheKey = email + '\n' + key;
+        Long orderId = remembered(cacheKey);
+        if (orderId != null) {
+            return new Result(orderService.getOrderById(orderId), true);
+        }
+
+        CompletableFuture<Long> mine = new CompletableFuture<>();
+        CompletableFuture<Long> running = inFlight.putIfAbsent(cacheKey, mine);
+        if (running != null) {
+            return new Result(orderService.getOrderById(await(running)), true);
+        }
+        try {
+            Result result = createOnce(email, key, dto);
+            remember(cacheKey, result.order().getId());
+            mine.complete(result.order().getId());
+            return result;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(cacheKey, mine);
+        }
+    }
+
+    private Result createOnce(String email, String key, CreateOrderDto dto) {
+        Long existing = keyRepository.findOrderId(email, key).orElse(null);
+        if (existing != null) {
+            return new Result(orderService.getOrderById(existing), true);
+        }
+        try {
+            return new Result(orderService.createOrder(dto, key), false);
+        } catch (DataIntegrityViolationException e) {
+            // Another instance committed an order under this key first
+            Long winner = keyRepository.findOrderId(email, key).orElseThrow(() -> e);
+            return new Result(orderService.getOrderById(winner), true);
+        }
+    }
+
+    private long await(CompletableFuture<Long> running) {
+        try {
+            return running.get(waitSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            throw new ResourceAlreadyExistsException("An order with this Idempotency-Key is still being processed");
+        } catch (ExecutionException e) {
+            // The first request failed; this copy of it would fail the same way
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a duplicate order request", e);
+        }
+    }
+
+    private Long remembered(String cacheKey) {
+        synchronized (recent) {
+            Remembered entry = recent.get(cacheKey);
+            if (entry == null) return null;
+            if (entry.atMillis() + ttlMillis < System.currentTimeMillis()) {
+                recent.remove(cacheKey);
+                return null;
+            }
+            return entry.orderId();
+        }
+    }
+
+    private void remember(String cacheKey, long orderId) {
+        synchronized (recent) {
+            recent.put(cacheKey, new Remembered(orderId, System.currentTimeMillis()));
+        }
+    }
+
+    void purgeExpired() {
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minus(ttlMillis, ChronoUnit.MILLIS);
+            Integer purged = transaction.execute(tx -> keyRepository.deleteCreatedBefore(cutoff));
+            if (purged != null && purged > 0) {
+                logger.info("Purged {} expired order idempotency keys", purged);
+            }
+        } catch (RuntimeException e) {
+            // Keep the schedule alive; the next run deletes whatever this one missed
+            logger.warn("Could not purge expired order idempotency keys", e);
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package com.foodordering.service;
+
+import com.foodordering.entity.Address;
+import com.foodordering.entity.Delivery;
+import com.foodordering.entity.Order;
+import com.foodordering.enums.DeliveryStatus;
+import com.foodordering.enums.LifecycleStep;
+import com.foodordering.enums.OrderStatus;
+import com.foodordering.exception.ResourceNotFoundException;
+import com.foodordering.repository.DeliveryRepository;
+import com.foodordering.repository.DriverRepository;
+import com.foodordering.repository.OrderRepository;
+import com.foodordering.service.OrderLifecycleScheduler.ScheduledTransition;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Single owner of every {@link OrderStatus} and {@link DeliveryStatus} change.
+ *
+ * Legal transitions are declared below; asking for the status an order/delivery already has is a
+ * no-op, so repeated or racing requests never cause a second write or WebSocket push. Work for an
+ * order always runs on the same shard (a single thread picked by order id), which serializes
+ * changes per order without any global lock while orders on other shards proceed in parallel.
+ *
+ * Across instances, {@link Order} and {@link Delivery} are versioned: a write from a copy that another
+ * instance changed in the meantime fails its optimistic check, and the work is retried a bounded number
+ * of times in a fresh transaction, where it sees the new status and re-checks the transition.
+ * {@link #moveOrder} changes a status with a single conditional UPDATE and needs no retry at all.
+ */
+@Component
+public class OrderLifecycleEngine {
+
+    private static final Map<OrderStatus, Set<OrderStatus>> ORDER_TRANSITIONS = new EnumMap<>(OrderStatus.class);
+    private static final Map<DeliveryStatus, Set<DeliveryStatus>> DELIVERY_TRANSITIONS = new EnumMap<>(DeliveryStatus.class);
+    // Inverse of ORDER_TRANSITIONS: the statuses an order may be in to move to the key
+    private static final Map<OrderStatus, Set<OrderStatus>> ORDER_SOURCES = new EnumMap<>(OrderStatus.class);
+
+    static {
+        // Orders only move forward; they can be cancelled until they leave the restaurant
+        ORDER_TRANSITIONS.put(OrderStatus.PENDING, EnumSet.of(OrderStatus.CONFIRMED, OrderStatus.PREPARING,
+                OrderStatus.OUT_FOR_DELIVERY, OrderStatus.DELIVERED, OrderStatus.CANCELLED));
+        ORDER_TRANSITIONS.put(OrderStatus.CONFIRMED, EnumSet.of(OrderStatus.PREPARING,
+                OrderStatus.OUT_FOR_DELIVERY, OrderStatus.DELIVERED, OrderStatus.CANCELLED));
+        ORDER_TRANSITIONS.put(OrderStatus.PREPARING, EnumSet.of(OrderStatus.OUT_FOR_DELIVERY,
+                OrderStatus.DELIVERED, OrderStatus.CANCELLED));
+        ORDER_TRANSITIONS.put(OrderStatus.OUT_FOR_DELIVERY, EnumSet.of(OrderStatus.DELIVERED));
+        ORDER_TRANSITIONS.put(OrderStatus.DELIVERED, EnumSet.noneOf(OrderStatus.class));
+        ORDER_TRANSITIONS.put(OrderStatus.CANCELLED, EnumSet.noneOf(OrderStatus.class));
+
+        DELIVERY_TRANSITIONS.put(DeliveryStatus.SCHEDULED, EnumSet.of(DeliveryStatus.PICKED_UP,
+                DeliveryStatus.IN_TRANSIT, DeliveryStatus.DELIVERED));
+        DELIVERY_TRANSITIONS.put(DeliveryStatus.PICKED_UP, EnumSet.of(DeliveryStatus.IN_TRANSIT, DeliveryStatus.DELIVERED));
+        DELIVERY_TRANSITIONS.put(DeliveryStatus.IN_TRANSIT, EnumSet.of(DeliveryStatus.DELIVERED));
+        DELIVERY_TRANSITIONS.put(DeliveryStatus.DELIVERED, EnumSet.noneOf(DeliveryStatus.class));
+
+        for (OrderStatus target : OrderStatus.values()) {
+            ORDER_SOURCES.put(target, EnumSet.noneOf(OrderStatus.class));
+        }
+        ORDER_TRANSITIONS.forEach((from, targets) -> targets.forEach(target -> ORDER_SOURCES.get(target).add(from)));
+    }
+
+    // Shard index of the current thread, unset on non-shard threads
+    private static final ThreadLocal<Integer> CURRENT_SHARD = new ThreadLocal<>();
+
+    private final OrderRepository orderRepository;
+    private final DeliveryRepository deliveryRepository;
+    private final DriverRepository driverRepository;
+    private final OrderNotificationDispatcher notificationDispatcher;
+    private final KitchenLoadTracker kitchenLoad;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService[] shards;
+    private final int maxAttempts;
+    private final AtomicLong conflictRetries = new AtomicLong();
+
+    public OrderLifecycleEngine(OrderRepository orderRepository, DeliveryRepository deliveryRepository,
+                                DriverRepository driverRepository, OrderNotificationDispatcher notificationDispatcher,
+                                KitchenLoadTracker kitchenLoad, PlatformTransactionManager transactionManager,
+                                @Value("${order.lifecycle.shards:4}") int shardCount,
+                                @Value("${order.lifecycle.max-attempts:3}") int maxAttempts) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.orderRepository = orderRepository;
+        this.deliveryRepository = deliveryRepository;
+        this.driverRepository = driverRepository;
+        this.notificationDispatcher = notificationDispatcher;
+        this.kitchenLoad = kitchenLoad;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shards = new ExecutorService[Math.max(1, shardCount)];
+        for (int i = 0; i < shards.length; i++) {
+            final int index = i;
+            shards[i] = Executors.newSingleThreadExecutor(r -> {
+                Thread t = new Thread(() -> {
+                    CURRENT_SHARD.set(index);
+                    r.run();
+                }, "order-lifecycle-shard-" + index);
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        for (ExecutorService shard : shards) {
+            shard.shutdown();
+        }
+    }
+
+    public boolean canTransition(OrderStatus from, OrderStatus to) {
+        return from != null && ORDER_TRANSITIONS.get(from).contains(to);
+    }
+
+    public boolean canTransition(DeliveryStatus from, DeliveryStatus to) {
+        return from != null && DELIVERY_TRANSITIONS.get(from).contains(to);
+    }
+
+    public int shardCount() {
+        return shards.length;
+    }
+
+    public int shardOf(long orderId) {
+        return Math.floorMod(Long.hashCode(orderId), shards.length);
+    }
+
+    /** Transactions re-run so far because a concurrent change made their copy of an order stale. */
+    public long conflictRetries() {
+        return conflictRetries.get();
+    }
+
+    /**
+     * Runs {@code work} in a transaction on the shard owning {@code orderId} and waits for the result.
+     * Exceptions thrown by the work are rethrown unchanged so callers keep their error handling.
+     * Note the work runs on another thread: resolve the current user before calling. The work may run
+     * more than once (see {@link #inTransaction}), so it must re-read what it changes.
+     */
+    public <T> T call(Long orderId, Supplier<T> work) {
+        int shard = shardOf(orderId);
+        if (Integer.valueOf(shard).equals(CURRENT_SHARD.get())) {
+            return inTransaction(work);
+        }
+        try {
+            return submit(shard, work).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) throw cause;
+            throw ex;
+        }
+    }
+
+    /** Runs {@code work} in a transaction on the given shard without waiting. */
+    public <T> CompletableFuture<T> submit(int shard, Supplier<T> work) {
+        return CompletableFuture.supplyAsync(() -> inTransaction(work), shards[shard]);
+    }
+
+    /**
+     * Runs {@code work} in a new transaction, re-running it when the commit fails an optimistic lock
+     * check, up to {@code order.lifecycle.max-attempts} times. Inside an existing transaction the work
+     * just joins it: only the outermost transaction can be retried.
+     */
+    private <T> T inTransaction(Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return transactionTemplate.execute(status -> work.get());
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (OptimisticLockingFailureException ex) {
+                if (attempt >= maxAttempts) throw ex;
+                conflictRetries.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Moves the order to {@code target}. Returns false without writing anything when the order is
+     * already there or the move is not a declared transition.
+     */
+    public boolean transitionOrder(Order order, OrderStatus target) {
+        if (order.getStatus() == target || !canTransition(order.getStatus(), target)) {
+            return false;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        OrderStatus from = order.getStatus();
+        order.setStatus(target);
+        order.setUpdatedAt(now);
+        if (target == OrderStatus.DELIVERED) {
+            order.setDeliveredAt(now);
+        }
+        order.setEstimatedDeliveryAt(kitchenLoad.estimateDeliveryAt(order, target, now));
+        orderRepository.save(order);
+        kitchenLoad.orderMoved(order.getId(), order.getRestaurant().getId(), from, target);
+        notificationDispatcher.orderUpdated(order);
+
+        // Keep the delivery in step with a delivered order
+        if (target == OrderStatus.DELIVERED && order.getDelivery() != null) {
+            transitionDelivery(order.getDelivery(), DeliveryStatus.DELIVERED);
+        }
+        if (target == OrderStatus.CANCELLED) {
+            releaseDriver(order.getDelivery(), null);
+        }
+        return true;
+    }
+
+    /**
+     * Moves the order to {@code target} with one conditional UPDATE (only if its status still allows
+     * it), then loads and returns the changed order. Nothing is locked and a racing change can never
+     * be overwritten. Asking for the status the order already has is a no-op; an undeclared move is
+     * rejected with an IllegalArgumentException. Clears the persistence context: entities loaded
+     * before the call are detached.
+     */
+    public Order moveOrder(Long orderId, OrderStatus target) {
+        LocalDateTime now = LocalDateTime.now();
+        // Usually already in the persistence context; only the kitchen load and the estimate need it
+        Order before = orderRepository.findById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
+        OrderStatus from = before.getStatus();
+        Long restaurantId = before.getRestaurant().getId();
+        int updated = orderRepository.updateStatusIfIn(orderId, ORDER_SOURCES.get(target), target, now,
+                target == OrderStatus.DELIVERED ? now : null, kitchenLoad.estimateDeliveryAt(before, target, now));
+        Order order = orderRepository.findWithDetailsById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
+        if (updated == 0) {
+            if (order.getStatus() == target) return order;
+            throw new IllegalArgumentException("Cannot change order status from " + order.getStatus() + " to " + target);
+        }
+        kitchenLoad.orderMoved(orderId, restaurantId, from, target);
+        notificationDispatcher.orderUpdated(order);
+        if (target == OrderStatus.DELIVERED && order.getDelivery() != null) {
+            transitionDelivery(order.getDelivery(), DeliveryStatus.DELIVERED);
+        }
+        if (target == OrderStatus.CANCELLED) {
+            releaseDriver(order.getDelivery(), null);
+        }
+        return order;
+    }
+
+    /** Like {@link #transitionOrder} but rejects undeclared transitions with an IllegalArgumentException. */
+    public void requireOrderTransition(Order order, OrderStatus target) {
+        if (order.getStatus() != target && !canTransition(order.getStatus(), target)) {
+            throw new IllegalArgumentException("Cannot change order status from " + order.getStatus() + " to " + target);
+        }
+        transitionOrder(order, target);
+    }
+
+    /**
+     * Moves the delivery to {@code target}; a delivered delivery also marks its order delivered.
+     * Returns false without writing anything when already there or the move is not declared.
+     */
+    public boolean transitionDelivery(Delivery delivery, DeliveryStatus target) {
+        if (delivery.getStatus() == target || !canTransition(delivery.getStatus(), target)) {
+            return false;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        delivery.setStatus(target);
+        delivery.setUpdatedAt(now);
+        // The order's change time covers its delivery too (dashboard polling, schedule rebuild)
+        delivery.getOrder().setUpdatedAt(now);
+        deliveryRepository.save(delivery);
+        notificationDispatcher.deliveryUpdated(delivery);
+
+        if (target == DeliveryStatus.DELIVERED) {
+            releaseDriver(delivery, delivery.getOrder().getDeliveryAddress());
+            transitionOrder(delivery.getOrder(), OrderStatus.DELIVERED);
+        }
+        return true;
+    }
+
+    // Hands the delivery's driver back to the DriverDispatcher (picked up at its next index refresh),
+    // standing at the drop-off address when it has coordinates
+    private void releaseDriver(Delivery delivery, Address dropOff) {
+        if (delivery != null && delivery.getDriver() != null) {
+            Double latitude = dropOff != null ? dropOff.getLatitude() : null;
+            Double longitude = dropOff != null ? dropOff.getLongitude() : null;
+            driverRepository.release(delivery.getDriver().getId(), latitude, longitude, LocalDateTime.now());
+        }
+    }
+
+    /** Like {@link #transitionDelivery} but rejects undeclared transitions with an IllegalArgumentException. */
+    public void requireDeliveryTransition(Delivery delivery, DeliveryStatus target) {
+        if (delivery.getStatus() != target && !canTransition(delivery.getStatus(), target)) {
+            throw new IllegalArgumentException("Cannot change delivery status from " + delivery.getStatus() + " to " + target);
+        }
+        transitionDelivery(delivery, target);
+    }
+
+    /**
+     * Applies a batch of due automatic progression steps (all on this shard) and returns the next
+     * step to schedule per order. A step that no longer applies, because the order was moved on by
+     * hand or cancelled, is skipped and the follow-up is worked out from the order's actual state.
+     */
+    Map<Long, LifecycleStep> applyLifecycleTransitions(List<ScheduledTransition> due) {
+        List<Long> ids = due.stream().map(ScheduledTransition::orderId).distinct().collect(Collectors.toList());
+        Map<Long, Order> orders = orderRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+
+        Map<Long, LifecycleStep> next = new LinkedHashMap<>();
+        for (ScheduledTransition transition : due) {
+            Order order = orders.get(transition.orderId());
+            if (order == null) continue;
+            Delivery delivery = order.getDelivery();
+            boolean applied = switch (transition.step()) {
+                case CONFIRM -> transitionOrder(order, OrderStatus.CONFIRMED);
+                case PREPARE -> transitionOrder(order, OrderStatus.PREPARING);
+                case DISPATCH -> {
+                    boolean moved = transitionOrder(order, OrderStatus.OUT_FOR_DELIVERY);
+                    // A cancelled (or otherwise stuck) order's delivery stays where it is
+                    if (delivery != null && (moved || order.getStatus() == OrderStatus.OUT_FOR_DELIVERY)) {
+                        transitionDelivery(delivery, DeliveryStatus.PICKED_UP);
+                    }
+                    yield moved;
+                }
+                // An unpaid order has no delivery; the step still counts so the order gets delivered
+                case TRANSIT -> order.getStatus() == OrderStatus.OUT_FOR_DELIVERY
+                        && (delivery == null || transitionDelivery(delivery, DeliveryStatus.IN_TRANSIT));
+                case DELIVER -> transitionOrder(order, OrderStatus.DELIVERED);
+            };
+
+            LifecycleStep following = applied
+                    ? transition.step().next()
+                    : LifecycleStep.pendingFor(order.getStatus(), delivery != null ? delivery.getStatus() : null);
+            if (following == transition.step()) {
+                following = following.next();
+            }
+            if (following != null) {
+                next.put(order.getId(), following);
+            }
+        }
+        return next;
+    }
+
+    /** Splits due transitions into per-shard batches of at most {@code batchSize}. */
+    List<List<ScheduledTransition>> partitionByShard(List<ScheduledTransition> due, int batchSize) {
+        Map<Integer, List<ScheduledTransition>> byShard = due.stream()
+                .collect(Collectors.groupingBy(t -> shardOf(t.orderId())));
+        List<List<ScheduledTransition>> batches = new ArrayList<>();
+        for (List<ScheduledTransition> transitions : byShard.values()) {
+            for (int from = 0; from < transitions.size(); from += batchSize) {
+                batches.add(new ArrayList<>(transitions.subList(from, Math.min(transitions.size(), from + batchSize))));
+            }
+        }
+        return batches;
+    }
+}
@@ -0,0 +1,272 @@
+package com.foodordering.service;
+
+import com.foodordering.config.HotPathMetrics;
+import com.foodordering.enums.LifecycleStep;
+import com.foodordering.enums.OrderStatus;
+import com.foodordering.repository.OrderRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives the automatic order progression (see {@link LifecycleStep}) with a hashed timer wheel.
+ *
+ * Each pending step is a tiny {@link ScheduledTransition} sitting in a wheel bucket instead of a
+ * sleeping thread. A single ticker thread advances the wheel and hands everything that became due
+ * to the {@link OrderLifecycleEngine} shards in batches, so thousands of in-flight orders cost a
+ * few bytes each. Nothing is kept outside the orders table: on startup the outstanding step of
+ * every in-flight order is rebuilt from its status and last update time.
+ *
+ * A batch that fails is re-run one order at a time, so a single bad order cannot hold up the rest;
+ * a step that still fails goes back on the wheel with an exponential backoff and is retried until
+ * it applies or no longer needs to.
+ */
+@Component
+public class OrderLifecycleScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderLifecycleScheduler.class);
+
+    private static final List<OrderStatus> IN_FLIGHT = List.of(
+            OrderStatus.PENDING, OrderStatus.CONFIRMED, OrderStatus.PREPARING, OrderStatus.OUT_FOR_DELIVERY);
+
+    /** A single pending step for one order, due at {@code deadlineMillis} (epoch millis); {@code attempt} counts failed runs. */
+    public record ScheduledTransition(long orderId, LifecycleStep step, long deadlineMillis, int attempt) {
+        public ScheduledTransition(long orderId, LifecycleStep step, long deadlineMillis) {
+            this(orderId, step, deadlineMillis, 0);
+        }
+    }
+
+    // Wheel entry; remainingRounds is only touched by the ticker thread
+    private static final class Timeout {
+        final ScheduledTransition transition;
+        long remainingRounds;
+
+        Timeout(ScheduledTransition transition, long remainingRounds) {
+            this.transition = transition;
+            this.remainingRounds = remainingRounds;
+        }
+    }
+
+    private final OrderLifecycleEngine lifecycleEngine;
+    private final OrderRepository orderRepository;
+    private final long tickMillis;
+    private final int batchSize;
+    private final long retryBackoffMillis;
+    private final long maxRetryBackoffMillis;
+    private final List<ArrayDeque<Timeout>> wheel;
+    private final int mask;
+    private final long startMillis = System.currentTimeMillis();
+    private final Queue<ScheduledTransition> incoming = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "order-lifecycle-ticker");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Next tick to process; only read/written by the ticker thread
+    private long tick;
+
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicLong firedTotal = new AtomicLong();
+    private final AtomicLong lastLagMillis = new AtomicLong();
+    private final AtomicLong maxLagMillis = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final AtomicLong failedTransitions = new AtomicLong();
+
+    public OrderLifecycleScheduler(OrderLifecycleEngine lifecycleEngine, OrderRepository orderRepository, HotPathMetrics metrics,
+                                   @Value("${order.lifecycle.tick-millis:500}") long tickMillis,
+                                   @Value("${order.lifecycle.wheel-size:512}") int wheelSize,
+                                   @Value("${order.lifecycle.batch-size:200}") int batchSize,
+                                   @Value("${order.lifecycle.retry-backoff-millis:1000}") long retryBackoffMillis,
+                                   @Value("${order.lifecycle.max-retry-backoff-millis:60000}") long maxRetryBackoffMillis) {
+        this.lifecycleEngine = lifecycleEngine;
+        this.orderRepository = orderRepository;
+        this.tickMillis = Math.max(10, tickMillis);
+        this.batchSize = Math.max(1, batchSize);
+        this.retryBackoffMillis = Math.max(1, retryBackoffMillis);
+        this.maxRetryBackoffMillis = Math.max(this.retryBackoffMillis, maxRetryBackoffMillis);
+        // Round the wheel up to a power of two so the bucket index is a mask
+        int size = Integer.highestOneBit(Math.max(2, wheelSize) - 1) << 1;
+        this.wheel = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            wheel.add(new ArrayDeque<>());
+        }
+        this.mask = size - 1;
+        metrics.gauge("lifecycle.queue.depth", queueDepth::get);
+        metrics.gauge("lifecycle.lag.millis", lastLagMillis::get);
+    }
+
+    @PostConstruct
+    void start() {
+        ticker.scheduleAtFixedRate(this::onTick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        // Anything still pending is rebuilt from the orders table on the next start
+        ticker.shutdownNow();
+    }
+
+    /**
+     * Schedules {@code step} for the order after the step's delay. When called inside a transaction
+     * the step is only queued once that transaction commits, so it never fires for a rolled back order.
+     */
+    public void schedule(Long orderId, LifecycleStep step) {
+        ScheduledTransition transition = new ScheduledTransition(orderId, step,
+                System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(step.getDelaySeconds()));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(transition);
+                }
+            });
+        } else {
+            enqueue(transition);
+        }
+    }
+
+    /**
+     * Rebuilds the schedule from the orders table. Steps whose deadline passed while the
+     * application was down fire on the first tick.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reloadPendingTransitions() {
+        int restored = 0;
+        for (OrderRepository.LifecycleSnapshot snapshot : orderRepository.findLifecycleSnapshots(IN_FLIGHT)) {
+            LifecycleStep step = LifecycleStep.pendingFor(snapshot.getStatus(), snapshot.getDeliveryStatus());
+            if (step == null || snapshot.getLastChangedAt() == null) continue;
+            long lastChanged = snapshot.getLastChangedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            enqueue(new ScheduledTransition(snapshot.getId(), step,
+                    lastChanged + TimeUnit.SECONDS.toMillis(step.getDelaySeconds())));
+            restored++;
+        }
+        if (restored > 0) {
+            logger.info("Restored {} pending order lifecycle transitions", restored);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", queueDepth.get());
+        stats.put("firedTotal", firedTotal.get());
+        stats.put("lastLagMillis", lastLagMillis.get());
+        stats.put("maxLagMillis", maxLagMillis.get());
+        stats.put("failedBatches", failedBatches.get());
+        stats.put("failedTransitions", failedTransitions.get());
+        stats.put("tickMillis", tickMillis);
+        stats.put("wheelSize", wheel.size());
+        stats.put("shards", lifecycleEngine.shardCount());
+        stats.put("conflictRetries", lifecycleEngine.conflictRetries());
+        return stats;
+    }
+
+    private void enqueue(ScheduledTransition transition) {
+        incoming.add(transition);
+        queueDepth.incrementAndGet();
+    }
+
+    private void onTick() {
+        try {
+            long now = System.currentTimeMillis();
+            transferIncoming();
+            // Catch up on every tick that elapsed since the last run (GC pauses, slow transfers)
+            long lastDueTick = (now - startMillis) / tickMillis;
+            List<ScheduledTransition> due = new ArrayList<>();
+            while (tick <= lastDueTick) {
+                expireBucket(wheel.get((int) (tick & mask)), due);
+                tick++;
+            }
+            if (!due.isEmpty()) {
+                dispatch(due, now);
+            }
+        } catch (Exception ex) {
+            // Never let an exception cancel the periodic tick
+            logger.error("Order lifecycle tick failed", ex);
+        }
+    }
+
+    private void transferIncoming() {
+        ScheduledTransition transition;
+        while ((transition = incoming.poll()) != null) {
+            // Round up so a step never fires before its deadline
+            long targetTick = Math.max(tick, (transition.deadlineMillis() - startMillis + tickMillis - 1) / tickMillis);
+            long rounds = (targetTick - tick) / wheel.size();
+            wheel.get((int) (targetTick & mask)).add(new Timeout(transition, rounds));
+        }
+    }
+
+    private void expireBucket(ArrayDeque<Timeout> bucket, List<ScheduledTransition> due) {
+        Iterator<Timeout> it = bucket.iterator();
+        while (it.hasNext()) {
+            Timeout timeout = it.next();
+            if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+            } else {
+                it.remove();
+                due.add(timeout.transition);
+            }
+        }
+    }
+
+    private void dispatch(List<ScheduledTransition> due, long now) {
+        queueDepth.addAndGet(-due.size());
+        long lag = 0;
+        for (ScheduledTransition transition : due) {
+            lag = Math.max(lag, now - transition.deadlineMillis());
+        }
+        lastLagMillis.set(lag);
+        maxLagMillis.accumulateAndGet(lag, Math::max);
+
+        for (List<ScheduledTransition> batch : lifecycleEngine.partitionByShard(due, batchSize)) {
+            apply(lifecycleEngine.shardOf(batch.get(0).orderId()), batch);
+        }
+    }
+
+    private void apply(int shard, List<ScheduledTransition> batch) {
+        lifecycleEngine.submit(shard, () -> lifecycleEngine.applyLifecycleTransitions(batch))
+                .whenComplete((next, ex) -> {
+                    if (ex == null) {
+                        firedTotal.addAndGet(batch.size());
+                        next.forEach(this::schedule);
+                    } else if (batch.size() > 1) {
+                        // The whole batch rolled back; find the culprit by re-running each order alone
+                        failedBatches.incrementAndGet();
+                        logger.warn("Failed to apply {} order lifecycle transitions, retrying them one by one", batch.size(), ex);
+                        batch.forEach(transition -> apply(shard, List.of(transition)));
+                    } else {
+                        retryLater(batch.get(0), ex);
+                    }
+                });
+    }
+
+    private void retryLater(ScheduledTransition failed, Throwable ex) {
+        failedTransitions.incrementAndGet();
+        long backoff = Math.min(maxRetryBackoffMillis, retryBackoffMillis << Math.min(failed.attempt(), 20));
+        logger.error("Failed to apply {} to order {} (attempt {}), retrying in {} ms",
+                failed.step(), failed.orderId(), failed.attempt() + 1, backoff, ex);
+        enqueue(new ScheduledTransition(failed.orderId(), failed.step(), System.currentTimeMillis() + backoff, failed.attempt() + 1));
+    }
+}
@@ -0,0 +1,169 @@
+package com.foodordering.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodordering.config.HotPathMetrics;
+import com.foodordering.entity.Delivery;
+import com.foodordering.entity.Order;
+import com.foodordering.mapper.DeliveryMapper;
+import com.foodordering.mapper.OrderMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes order and delivery updates over WebSocket once the changing transaction has committed.
+ *
+ * Callers hand over the entity inside their transaction; it is mapped to a DTO once there and the
+ * send happens after commit on a small pool of sender threads, off the request/lifecycle thread.
+ * Updates waiting to be sent are kept per order, so a burst of changes to the same order collapses
+ * into the latest state, and the payload is serialized to JSON once for all destinations.
+ */
+@Component
+public class OrderNotificationDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderNotificationDispatcher.class);
+
+    /** One update to push: the payload goes to every topic and, if set, to the user's queue. */
+    public record Notification(String key, Object payload, List<String> topics, String user, String userDestination) {
+    }
+
+    private final OrderMapper orderMapper;
+    private final DeliveryMapper deliveryMapper;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final HotPathMetrics metrics;
+
+    // Latest unsent update per key; a key sits in its sender's queue at most once
+    private final Map<String, Notification> pending = new ConcurrentHashMap<>();
+    private final List<BlockingQueue<String>> queues = new ArrayList<>();
+    private final List<Thread> senders = new ArrayList<>();
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    public OrderNotificationDispatcher(OrderMapper orderMapper, DeliveryMapper deliveryMapper,
+                                       SimpMessagingTemplate messagingTemplate, ObjectMapper objectMapper,
+                                       ApplicationEventPublisher eventPublisher, HotPathMetrics metrics,
+                                       @Value("${order.notifications.senders:2}") int senderCount,
+                                       @Value("${order.notifications.queue-capacity:10000}") int queueCapacity) {
+        this.orderMapper = orderMapper;
+        this.deliveryMapper = deliveryMapper;
+        this.messagingTemplate = messagingTemplate;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.metrics = metrics;
+
+        int count = Math.max(1, senderCount);
+        for (int i = 0; i < count; i++) {
+            BlockingQueue<String> queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity / count));
+            Thread sender = new Thread(() -> drain(queue), "order-notification-sender-" + i);
+            sender.setDaemon(true);
+            queues.add(queue);
+            senders.add(sender);
+            sender.start();
+        }
+        metrics.gauge("notification.queue.depth", () -> queues.stream().mapToInt(BlockingQueue::size).sum());
+    }
+
+    @PreDestroy
+    void stop() {
+        senders.forEach(Thread::interrupt);
+    }
+
+    /** Queues the order's current state for /topic/orders/{id}, the restaurant topic and the customer. */
+    public void orderUpdated(Order order) {
+        String email = order.getCustomer() != null ? order.getCustomer().getEmail() : null;
+        eventPublisher.publishEvent(new Notification("order:" + order.getId(), orderMapper.toDto(order),
+                List.of("/topic/orders/" + order.getId(), "/topic/restaurants/" + order.getRestaurant().getId() + "/orders"),
+                email, "/queue/order-updates"));
+    }
+
+    /** Queues the delivery's current state for /topic/orders/{id}/delivery and the customer. */
+    public void deliveryUpdated(Delivery delivery) {
+        Order order = delivery.getOrder();
+        String email = order.getCustomer() != null ? order.getCustomer().getEmail() : null;
+        eventPublisher.publishEvent(new Notification("delivery:" + order.getId(), deliveryMapper.toDto(delivery),
+                List.of("/topic/orders/" + order.getId() + "/delivery"),
+                email, "/queue/delivery-updates"));
+    }
+
+    // Runs after commit; outside a transaction it runs immediately
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNotification(Notification notification) {
+        if (pending.put(notification.key(), notification) != null) {
+            // An older update for the same key is still waiting; it will go out with this state
+            coalesced.incrementAndGet();
+            return;
+        }
+        BlockingQueue<String> queue = queues.get(Math.floorMod(notification.key().hashCode(), queues.size()));
+        if (!queue.offer(notification.key())) {
+            pending.remove(notification.key(), notification);
+            dropped.incrementAndGet();
+            logger.warn("Notification queue full, dropped update {}", notification.key());
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pending", pending.size());
+        stats.put("sent", sent.get());
+        stats.put("coalesced", coalesced.get());
+        stats.put("dropped", dropped.get());
+        return stats;
+    }
+
+    private void drain(BlockingQueue<String> queue) {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                Notification notification = pending.remove(queue.take());
+                if (notification != null) {
+                    metrics.observation("notification.send").observeChecked(() -> send(notification));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception ex) {
+                // best-effort: a failed push must not stop the sender
+                logger.debug("Failed to send notification", ex);
+            }
+        }
+    }
+
+    private void send(Notification notification) throws Exception {
+        byte[] json = objectMapper.writeValueAsBytes(notification.payload());
+        for (String topic : notification.topics()) {
+            messagingTemplate.convertAndSend(topic, json, jsonHeaders());
+        }
+        if (notification.user() != null) {
+            messagingTemplate.convertAndSendToUser(notification.user(), notification.userDestination(), json, jsonHeaders());
+        }
+        sent.incrementAndGet();
+    }
+
+    // Fresh headers per send: the template writes the destination into them
+    private static MessageHeaders jsonHeaders() {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setLeaveMutable(true);
+        return accessor.getMessageHeaders();
+    }
+}
@@ -5,60 +5,105 @@ import com.foodordering.entity.*;
 import com.foodordering.enums.*;
 import com.foodordering.exception.ResourceNotFoundException;
 import com.foodordering.repository.*;
+import com.foodordering.config.ReadYourWritesTracker;
 import com.foodordering.mapper.OrderMapper;
 import com.foodordering.mapper.OrderItemMapper;
 import com.foodordering.mapper.AddressMapper;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.scheduling.annotation.Async;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.concurrent.TimeUnit;
 
 @Service
 public class OrderService {
 
+        // Owner dashboard polling: cursors stay this far behind "now" so a change committed a little
+        // after its timestamp was taken is still picked up by the next poll
+        private static final long CHANGES_SAFETY_LAG_SECONDS = 2;
+        private static final int MAX_OWNER_PAGE_SIZE = 200;
+
         private final OrderRepository orderRepository;
         private final UserRepository userRepository;
         private final RestaurantRepository restaurantRepository;
         private final MenuItemRepository menuItemRepository;
         private final AddressRepository addressRepository;
         private final PaymentRepository paymentRepository;
+        private final OrderIdempotencyKeyRepository idempotencyKeyRepository;
         private final OrderMapper orderMapper;
         private final OrderItemMapper orderItemMapper;
         private final AddressMapper addressMapper;
-        private final SimpMessagingTemplate messagingTemplate;
-        private final DeliveryRepository deliveryRepository;
+        private final OrderNotificationDispatcher notificationDispatcher;
+        private final OrderLifecycleScheduler lifecycleScheduler;
+        private final OrderLifecycleEngine lifecycleEngine;
+        private final ReadYourWritesTracker readYourWrites;
+        private final KitchenLoadTracker kitchenLoad;
 
         public OrderService(OrderRepository orderRepository, UserRepository userRepository,
                                            RestaurantRepository restaurantRepository, MenuItemRepository menuItemRepository,
                                            AddressRepository addressRepository, PaymentRepository paymentRepository,
+                                           OrderIdempotencyKeyRepository idempotencyKeyRepository,
                                            OrderMapper orderMapper, OrderItemMapper orderItemMapper, AddressMapper addressMapper,
-                                           SimpMessagingTemplate messagingTemplate, DeliveryRepository deliveryRepository) {
+                                           OrderNotificationDispatcher notificationDispatcher,
+                                           OrderLifecycleScheduler lifecycleScheduler, OrderLifecycleEngine lifecycleEngine,
+                                           ReadYourWritesTracker readYourWrites, KitchenLoadTracker kitchenLoad) {
                 this.orderRepository = orderRepository;
                 this.userRepository = userRepository;
                 this.restaurantRepository = restaurantRepository;
                 this.menuItemRepository = menuItemRepository;
                 this.addressRepository = addressRepository;
                 this.paymentRepository = paymentRepository;
+                this.idempotencyKeyRepository = idempotencyKeyRepository;
                 this.orderMapper = orderMapper;
                 this.orderItemMapper = orderItemMapper;
                 this.addressMapper = addressMapper;
-                this.messagingTemplate = messagingTemplate;
-                this.deliveryRepository = deliveryRepository;
+                this.notificationDispatcher = notificationDispatcher;
+                this.lifecycleScheduler = lifecycleScheduler;
+                this.lifecycleEngine = lifecycleEngine;
+                this.readYourWrites = readYourWrites;
+                this.kitchenLoad = kitchenLoad;
         }
 
         @Transactional
         public OrderDto createOrder(CreateOrderDto dto) {
+                return createOrder(dto, null);
+        }
+
+        /**
+         * Creates the order and, when {@code idempotencyKey} is given, records the key in the same
+         * transaction. The key row is inserted first: a duplicate fails (or, while the first request is
+         * still running, waits) on the unique key index before any order work is done, and the whole
+         * transaction rolls back with a DataIntegrityViolationException. See {@link OrderIdempotencyService}.
+         */
+        @Transactional
+        public OrderDto createOrder(CreateOrderDto dto, String idempotencyKey) {
                 String email = com.foodordering.security.SecurityUtils.getCurrentUserEmail();
                 if (email == null) throw new ResourceNotFoundException("Authenticated user not found");
+                readYourWrites.recordWrite();
                 User customer = userRepository.findByEmail(email)
                                 .orElseThrow(() -> new ResourceNotFoundException("Customer not found"));
 
+                OrderIdempotencyKey keyRow = null;
+                if (idempotencyKey != null) {
+                        keyRow = idempotencyKeyRepository.saveAndFlush(OrderIdempotencyKey.builder()
+                                        .customerId(customer.getId())
+                                        .idempotencyKey(idempotencyKey)
+                                        .createdAt(LocalDateTime.now())
+                                        .build());
+                }
+
         Restaurant restaurant = restaurantRepository.findById(dto.getRestaurantId())
                 .orElseThrow(() -> new ResourceNotFoundException("Restaurant not found"));
 
@@ -80,39 +125,16 @@ public class OrderService {
                 .specialInstructions(dto.getSpecialInstructions())
                 .build();
 
-        List<OrderItem> orderItems = new ArrayList<>();
-        double totalAmount = 0.0;
-
-        for (OrderItemRequestDto itemDto : dto.getItems()) {
-            MenuItem menuItem = menuItemRepository.findById(itemDto.getMenuItemId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Menu item not found"));
-
-            if (!menuItem.getIsAvailable()) {
-                throw new IllegalArgumentException("Menu item " + menuItem.getName() + " is not available");
-            }
-
-            double subtotal = menuItem.getPrice() * itemDto.getQuantity();
-            totalAmount += subtotal;
-
-            OrderItem orderItem = OrderItem.builder()
-                    .order(order)
-                    .menuItem(menuItem)
-                    .quantity(itemDto.getQuantity())
-                    .price(menuItem.getPrice())
-                    .subtotal(subtotal)
-                    .build();
-
-            orderItems.add(orderItem);
-        }
+        double totalAmount = priceOrderItems(order, restaurant.getId(), dto.getItems());
 
         double deliveryFee = 30.0;
         double taxAmount = totalAmount * 0.05;
         totalAmount += deliveryFee + taxAmount;
 
-        order.setOrderItems(orderItems);
         order.setTotalAmount(totalAmount);
         order.setDeliveryFee(deliveryFee);
         order.setTaxAmount(taxAmount);
+        order.setEstimatedDeliveryAt(kitchenLoad.estimateDeliveryAt(order, OrderStatus.PENDING, order.getCreatedAt()));
 
                 order = orderRepository.save(order);
 
@@ -125,65 +147,182 @@ public class OrderService {
                 .build();
         paymentRepository.save(payment);
 
-                // Notify via WebSocket: full order topic and restaurant topic
-                try {
-                        messagingTemplate.convertAndSend("/topic/orders/" + order.getId(), orderMapper.toDto(order));
-                        messagingTemplate.convertAndSend("/topic/restaurants/" + order.getRestaurant().getId() + "/orders", orderMapper.toDto(order));
-                        // Also send to user-specific destination (if client connected with a principal name)
-                        if (order.getCustomer()!=null && order.getCustomer().getEmail()!=null) {
-                                messagingTemplate.convertAndSendToUser(order.getCustomer().getEmail(), "/queue/order-updates", orderMapper.toDto(order));
-                        }
-                } catch (Exception ex) {
-                        // swallow to avoid breaking order creation; logging could be added
+                if (keyRow != null) {
+                        keyRow.setOrderId(order.getId());
                 }
 
-                // Start automatic order progression
-                autoProgressOrder(order.getId());
+                // Pushed over WebSocket once this transaction commits
+                notificationDispatcher.orderUpdated(order);
+
+                // Start automatic order progression (queued once this transaction commits)
+                lifecycleScheduler.schedule(order.getId(), LifecycleStep.CONFIRM);
 
                 return orderMapper.toDto(order);
     }
 
+    /**
+     * Validates and prices the cart in one query: all requested menu items are loaded together,
+     * scoped to the restaurant, then checked for availability in memory. Builds the order items on
+     * {@code order} and returns the items subtotal.
+     */
+    private double priceOrderItems(Order order, Long restaurantId, List<OrderItemRequestDto> items) {
+        Set<Long> menuItemIds = items.stream().map(OrderItemRequestDto::getMenuItemId).collect(Collectors.toSet());
+        Map<Long, MenuItem> menuItems = menuItemRepository.findByRestaurantIdAndIdIn(restaurantId, menuItemIds).stream()
+                .collect(Collectors.toMap(MenuItem::getId, Function.identity()));
+
+        List<OrderItem> orderItems = new ArrayList<>();
+        double totalAmount = 0.0;
+
+        for (OrderItemRequestDto itemDto : items) {
+            // Missing here means it does not exist or belongs to another restaurant
+            MenuItem menuItem = menuItems.get(itemDto.getMenuItemId());
+            if (menuItem == null) {
+                throw new ResourceNotFoundException("Menu item not found");
+            }
+
+            if (!menuItem.getIsAvailable()) {
+                throw new IllegalArgumentException("Menu item " + menuItem.getName() + " is not available");
+            }
+
+            double subtotal = menuItem.getPrice() * itemDto.getQuantity();
+            totalAmount += subtotal;
+
+            OrderItem orderItem = OrderItem.builder()
+                    .order(order)
+                    .menuItem(menuItem)
+                    .quantity(itemDto.getQuantity())
+                    .price(menuItem.getPrice())
+                    .subtotal(subtotal)
+                    .build();
+
+            orderItems.add(orderItem);
+        }
+
+        order.setOrderItems(orderItems);
+        return totalAmount;
+    }
+
+    @Transactional(readOnly = true)
     public List<OrderDto> getCustomerOrders() {
         String email = com.foodordering.security.SecurityUtils.getCurrentUserEmail();
         if (email == null) throw new ResourceNotFoundException("Authenticated user not found");
         User customer = userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("Customer not found"));
-        return orderRepository.findByCustomerIdOrderByCreatedAtDesc(customer.getId()).stream()
+        return orderRepository.findWithDetailsByCustomerIdOrderByCreatedAtDesc(customer.getId()).stream()
                 .map(orderMapper::toDto)
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<OrderDto> getRestaurantOrders(Long restaurantId) {
-        return orderRepository.findByRestaurantId(restaurantId).stream()
+        return orderRepository.findWithDetailsByRestaurantIdInOrderByCreatedAtDesc(List.of(restaurantId)).stream()
                 .map(orderMapper::toDto)
                 .collect(Collectors.toList());
     }
 
+        @Transactional(readOnly = true)
         public List<OrderDto> getRestaurantOrdersForOwner() {
+                String email = currentOwnerEmail();
+                return orderRepository.findWithDetailsByRestaurantOwnerEmailOrderByCreatedAtDesc(email).stream()
+                                .map(orderMapper::toDto)
+                                .collect(Collectors.toList());
+        }
+
+        /** One page of the owner's orders across all their restaurants, newest first. */
+        @Transactional(readOnly = true)
+        public Map<String, Object> getOwnerOrdersPage(Collection<OrderStatus> statuses, int page, int size) {
+                if (page < 0 || size < 1 || size > MAX_OWNER_PAGE_SIZE) {
+                        throw new IllegalArgumentException("page must be >= 0 and size between 1 and " + MAX_OWNER_PAGE_SIZE);
+                }
+                String email = currentOwnerEmail();
+                // A slice reads one extra id to tell whether another page exists, without a count query
+                Slice<Long> ids = orderRepository.findOwnerPageIds(email, statusFilter(statuses), PageRequest.of(page, size));
+                List<Order> orders = loadInOrder(ids.getContent());
+
+                Map<String, Object> data = new LinkedHashMap<>();
+                data.put("items", orders.stream().map(orderMapper::toDto).collect(Collectors.toList()));
+                data.put("page", page);
+                data.put("size", size);
+                data.put("hasMore", ids.hasNext());
+                return data;
+        }
+
+        /**
+         * Orders of the owner's restaurants created or changed after the ({@code since}, {@code afterId})
+         * cursor, oldest change first, so a dashboard can poll deltas. The id breaks ties between orders
+         * changed at the same instant, so a batch full of them can't stall the cursor. Pass the returned
+         * {@code since} and {@code afterId} on the next call; an order can show up again in a later poll
+         * and should simply replace the copy the client has.
+         * Stays on the primary: replica lag beyond the safety lag would make rows skip the cursor.
+         */
+        public Map<String, Object> getOwnerOrderChanges(Collection<OrderStatus> statuses, LocalDateTime since, Long afterId,
+                                                        int limit) {
+                if (limit < 1 || limit > MAX_OWNER_PAGE_SIZE) {
+                        throw new IllegalArgumentException("limit must be between 1 and " + MAX_OWNER_PAGE_SIZE);
+                }
+                String email = currentOwnerEmail();
+                LocalDateTime safeCursor = LocalDateTime.now().minusSeconds(CHANGES_SAFETY_LAG_SECONDS);
+                long after = afterId != null ? afterId : 0L;
+                List<Long> ids = orderRepository.findOwnerChangedIds(email, statusFilter(statuses), since, after,
+                                PageRequest.ofSize(limit + 1));
+                boolean hasMore = ids.size() > limit;
+                List<Order> orders = loadInOrder(hasMore ? ids.subList(0, limit) : ids);
+
+                LocalDateTime next = since;
+                long nextAfterId = after;
+                if (!orders.isEmpty()) {
+                        Order last = orders.get(orders.size() - 1);
+                        next = last.getUpdatedAt() != null ? last.getUpdatedAt() : last.getCreatedAt();
+                        nextAfterId = last.getId();
+                }
+                // A full batch means there is more to read right away; otherwise never move past the safety
+                // lag, re-reading everything changed at the lag instant
+                if (!hasMore && next.isAfter(safeCursor)) {
+                        if (since.isAfter(safeCursor)) {
+                                next = since;
+                                nextAfterId = after;
+                        } else {
+                                next = safeCursor;
+                                nextAfterId = 0L;
+                        }
+                }
+
+                Map<String, Object> data = new LinkedHashMap<>();
+                data.put("items", orders.stream().map(orderMapper::toDto).collect(Collectors.toList()));
+                data.put("since", next);
+                data.put("afterId", nextAfterId);
+                data.put("hasMore", hasMore);
+                return data;
+        }
+
+        private String currentOwnerEmail() {
                 String email = com.foodordering.security.SecurityUtils.getCurrentUserEmail();
                 if (email == null) throw new ResourceNotFoundException("Authenticated user not found");
-                User owner = userRepository.findByEmail(email)
-                                .orElseThrow(() -> new ResourceNotFoundException("Owner not found"));
+                return email;
+        }
 
-                // Find restaurants for owner and aggregate orders
-                List<Long> restaurantIds = restaurantRepository.findByOwnerId(owner.getId()).stream()
-                                .map(Restaurant::getId)
-                                .collect(Collectors.toList());
+        private static Collection<OrderStatus> statusFilter(Collection<OrderStatus> statuses) {
+                return statuses == null || statuses.isEmpty() ? EnumSet.allOf(OrderStatus.class) : statuses;
+        }
 
-                List<OrderDto> result = new ArrayList<>();
-                for (Long rid : restaurantIds) {
-                        List<Order> orders = orderRepository.findByRestaurantId(rid);
-                        orders.forEach(o -> result.add(orderMapper.toDto(o)));
-                }
-                return result;
+        // Loads orders with the listing graph, keeping the order of ids
+        private List<Order> loadInOrder(List<Long> ids) {
+                if (ids.isEmpty()) return new ArrayList<>();
+                Map<Long, Integer> position = new HashMap<>();
+                for (int i = 0; i < ids.size(); i++) position.put(ids.get(i), i);
+                List<Order> orders = new ArrayList<>(orderRepository.findWithDetailsByIdIn(ids));
+                orders.sort(Comparator.comparing(o -> position.get(o.getId())));
+                return orders;
         }
 
+    @Transactional(readOnly = true)
     public OrderDto getOrderById(Long id) {
-        Order order = orderRepository.findById(id)
+        Order order = orderRepository.findWithDetailsById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
         return orderMapper.toDto(order);
     }
 
+    @Transactional(readOnly = true)
     public OrderDto getLatestCustomerOrder() {
         String email = com.foodordering.security.SecurityUtils.getCurrentUserEmail();
         if (email == null) throw new ResourceNotFoundException("Authenticated user not found");
@@ -194,167 +333,52 @@ public class OrderService {
         return orderMapper.toDto(order);
     }
 
+        @Transactional(readOnly = true)
         public List<OrderDto> getAllOrders() {
-                return orderRepository.findAll().stream()
+                return orderRepository.findAllWithDetails().stream()
                                 .map(orderMapper::toDto)
                                 .collect(Collectors.toList());
         }
 
-    @Transactional
     public OrderDto updateOrderStatus(Long id, String status) {
-        Order order = orderRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
-
-                // If the caller is a restaurant owner, ensure they own the restaurant for this order
-                String email = com.foodordering.security.SecurityUtils.getCurrentUserEmail();
-                if (email != null) {
-                        if (order.getRestaurant() == null || order.getRestaurant().getOwner() == null || !email.equals(order.getRestaurant().getOwner().getEmail())) {
-                                throw new org.springframework.security.access.AccessDeniedException("Not authorized to update status for this order");
-                        }
-                }
-
         OrderStatus newStatus = OrderStatus.valueOf(status.toUpperCase());
-        order.setStatus(newStatus);
-        order.setUpdatedAt(LocalDateTime.now());
-
-        if (newStatus == OrderStatus.DELIVERED) {
-            order.setDeliveredAt(LocalDateTime.now());
-        }
+        // Resolve the caller here: the change itself runs on the order's lifecycle shard
+        String email = com.foodordering.security.SecurityUtils.getCurrentUserEmail();
+        readYourWrites.recordWrite();
 
-                                order = orderRepository.save(order);
+        return lifecycleEngine.call(id, () -> {
+            Order order = orderRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
 
-                                // publish status update
-                                try {
-                                        messagingTemplate.convertAndSend("/topic/orders/" + order.getId(), orderMapper.toDto(order));
-                                        messagingTemplate.convertAndSend("/topic/restaurants/" + order.getRestaurant().getId() + "/orders", orderMapper.toDto(order));
-                                        if (order.getCustomer()!=null && order.getCustomer().getEmail()!=null) {
-                                                messagingTemplate.convertAndSendToUser(order.getCustomer().getEmail(), "/queue/order-updates", orderMapper.toDto(order));
-                                        }
-                                } catch (Exception ex) {
-                                        // ignore
-                                }
+            // If the caller is a restaurant owner, ensure they own the restaurant for this order
+            if (email != null) {
+                if (order.getRestaurant() == null || order.getRestaurant().getOwner() == null || !email.equals(order.getRestaurant().getOwner().getEmail())) {
+                    throw new org.springframework.security.access.AccessDeniedException("Not authorized to update status for this order");
+                }
+            }
 
-                                return orderMapper.toDto(order);
+            return orderMapper.toDto(lifecycleEngine.moveOrder(id, newStatus));
+        });
     }
 
-    @Transactional
     public OrderDto cancelOrder(Long id) {
-        Order order = orderRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
-
-        if (order.getStatus() == OrderStatus.DELIVERED) {
-            throw new IllegalArgumentException("Cannot cancel delivered order");
-        }
-
-        if (order.getStatus() == OrderStatus.OUT_FOR_DELIVERY) {
-            throw new IllegalArgumentException("Cannot cancel order that is out for delivery");
-        }
-
-                order.setStatus(OrderStatus.CANCELLED);
-                order.setUpdatedAt(LocalDateTime.now());
-                order = orderRepository.save(order);
-
-                try {
-                        messagingTemplate.convertAndSend("/topic/orders/" + order.getId(), orderMapper.toDto(order));
-                        messagingTemplate.convertAndSend("/topic/restaurants/" + order.getRestaurant().getId() + "/orders", orderMapper.toDto(order));
-                        if (order.getCustomer()!=null && order.getCustomer().getEmail()!=null) {
-                                messagingTemplate.convertAndSendToUser(order.getCustomer().getEmail(), "/queue/order-updates", orderMapper.toDto(order));
-                        }
-                } catch (Exception ex) {
-                        // ignore
-                }
-
-                return orderMapper.toDto(order);
-    }
+        readYourWrites.recordWrite();
+        return lifecycleEngine.call(id, () -> {
+            Order order = orderRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
 
-    /**
-     * Automatically progress order through stages:
-     * PENDING -> CONFIRMED (10s) -> PREPARING (30s) -> OUT_FOR_DELIVERY (30s) -> DELIVERED (20s)
-     * Total time: ~90 seconds (1.5 minutes)
-     * Also updates delivery status in parallel
-     */
-    @Async
-    @Transactional
-    public void autoProgressOrder(Long orderId) {
-        try {
-            // Stage 1: PENDING -> CONFIRMED (10 seconds)
-            TimeUnit.SECONDS.sleep(10);
-            updateOrderStatusInternal(orderId, OrderStatus.CONFIRMED);
-
-            // Stage 2: CONFIRMED -> PREPARING (30 seconds)
-            TimeUnit.SECONDS.sleep(30);
-            updateOrderStatusInternal(orderId, OrderStatus.PREPARING);
-
-            // Stage 3: PREPARING -> OUT_FOR_DELIVERY (30 seconds)
-            // Also update delivery to PICKED_UP
-            TimeUnit.SECONDS.sleep(30);
-            updateOrderStatusInternal(orderId, OrderStatus.OUT_FOR_DELIVERY);
-            updateDeliveryStatus(orderId, DeliveryStatus.PICKED_UP);
-
-            // Stage 4: Delivery IN_TRANSIT (10 seconds)
-            TimeUnit.SECONDS.sleep(10);
-            updateDeliveryStatus(orderId, DeliveryStatus.IN_TRANSIT);
-
-            // Stage 5: OUT_FOR_DELIVERY -> DELIVERED (10 seconds)
-            TimeUnit.SECONDS.sleep(10);
-            updateDeliveryStatus(orderId, DeliveryStatus.DELIVERED);
-            Order order = orderRepository.findById(orderId).orElse(null);
-            if (order != null && order.getStatus() != OrderStatus.CANCELLED) {
-                order.setStatus(OrderStatus.DELIVERED);
-                order.setDeliveredAt(LocalDateTime.now());
-                order.setUpdatedAt(LocalDateTime.now());
-                orderRepository.save(order);
-                notifyOrderUpdate(order);
+            if (order.getStatus() == OrderStatus.DELIVERED) {
+                throw new IllegalArgumentException("Cannot cancel delivered order");
             }
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        } catch (Exception e) {
-            // Log error but don't fail
-        }
-    }
-
-    @Transactional
-    protected void updateOrderStatusInternal(Long orderId, OrderStatus newStatus) {
-        Order order = orderRepository.findById(orderId).orElse(null);
-        if (order != null && order.getStatus() != OrderStatus.CANCELLED) {
-            order.setStatus(newStatus);
-            order.setUpdatedAt(LocalDateTime.now());
-            orderRepository.save(order);
-            notifyOrderUpdate(order);
-        }
-    }
 
-    @Transactional
-    protected void updateDeliveryStatus(Long orderId, DeliveryStatus newStatus) {
-        Order order = orderRepository.findById(orderId).orElse(null);
-        if (order != null && order.getDelivery() != null) {
-            Delivery delivery = order.getDelivery();
-            delivery.setStatus(newStatus);
-            delivery.setUpdatedAt(LocalDateTime.now());
-            deliveryRepository.save(delivery);
-            
-            // Notify delivery update via WebSocket
-            try {
-                messagingTemplate.convertAndSend("/topic/orders/" + orderId + "/delivery", delivery);
-                if (order.getCustomer() != null && order.getCustomer().getEmail() != null) {
-                    messagingTemplate.convertAndSendToUser(order.getCustomer().getEmail(), "/queue/delivery-updates", delivery);
-                }
-            } catch (Exception ex) {
-                // ignore
+            if (order.getStatus() == OrderStatus.OUT_FOR_DELIVERY) {
+                throw new IllegalArgumentException("Cannot cancel order that is out for delivery");
             }
-        }
-    }
 
-    private void notifyOrderUpdate(Order order) {
-        try {
-            messagingTemplate.convertAndSend("/topic/orders/" + order.getId(), orderMapper.toDto(order));
-            messagingTemplate.convertAndSend("/topic/restaurants/" + order.getRestaurant().getId() + "/orders", orderMapper.toDto(order));
-            if (order.getCustomer() != null && order.getCustomer().getEmail() != null) {
-                messagingTemplate.convertAndSendToUser(order.getCustomer().getEmail(), "/queue/order-updates", orderMapper.toDto(order));
-            }
-        } catch (Exception ex) {
-            // ignore
-        }
+            // The checks above give a friendly message; moveOrder re-checks the status atomically
+            return orderMapper.toDto(lifecycleEngine.moveOrder(id, OrderStatus.CANCELLED));
+        });
     }
+
     // Mapping handled by OrderMapper and OrderItemMapper
 }
@@ -0,0 +1,26 @@
+package com.foodordering.service;
+
+/**
+ * Adapter to an external payment gateway. Implementations block for the duration of the call and
+ * are only invoked through {@link PaymentGatewayClient}, which adds timeouts, retries and a circuit
+ * breaker.
+ */
+public interface PaymentGateway {
+
+    /**
+     * One charge. {@code paymentId} doubles as the gateway's idempotency key, so an attempt retried
+     * after a timeout can never charge the customer twice.
+     */
+    record Charge(Long paymentId, Long orderId, double amount, String method, String mockResult) {
+    }
+
+    /** The gateway's answer: approved or declined, with its transaction reference. */
+    record Result(boolean approved, String transactionId) {
+    }
+
+    /**
+     * Charges the customer. A decline is a normal {@link Result}; throws
+     * {@link com.foodordering.exception.PaymentGatewayException} when the gateway fails.
+     */
+    Result charge(Charge charge);
+}
@@ -0,0 +1,166 @@
+package com.foodordering.service;
+
+import com.foodordering.config.HotPathMetrics;
+import com.foodordering.exception.PaymentGatewayException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Calls the {@link PaymentGateway} off the request and lifecycle threads.
+ *
+ * Calls run on a bounded pool ({@code payment.gateway.threads}, with a bounded queue: when both are
+ * full the charge is refused instead of piling up). Each attempt has a timeout, after which its
+ * thread is interrupted; failed attempts are retried with linear backoff. A circuit breaker stops
+ * calling a gateway that keeps failing, so requests fail fast instead of waiting out every timeout.
+ */
+@Component
+public class PaymentGatewayClient {
+
+    private final PaymentGateway gateway;
+    private final HotPathMetrics metrics;
+    private final ThreadPoolExecutor executor;
+    private final CircuitBreaker breaker;
+    private final long timeoutMillis;
+    private final int maxAttempts;
+    private final long backoffMillis;
+
+    private final AtomicLong charges = new AtomicLong();
+    private final AtomicLong failedAttempts = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong shortCircuited = new AtomicLong();
+
+    public PaymentGatewayClient(PaymentGateway gateway, Environment environment, HotPathMetrics metrics,
+                                @Value("${payment.gateway.threads:16}") int threads,
+                                @Value("${payment.gateway.queue-capacity:500}") int queueCapacity,
+                                @Value("${payment.gateway.timeout-millis:2000}") long timeoutMillis,
+                                @Value("${payment.gateway.max-attempts:3}") int maxAttempts,
+                                @Value("${payment.gateway.retry-backoff-millis:200}") long backoffMillis,
+                                @Value("${payment.gateway.breaker.failure-threshold:5}") int failureThreshold,
+                                @Value("${payment.gateway.breaker.open-seconds:30}") long openSeconds) {
+        this.gateway = gateway;
+        this.metrics = metrics;
+        this.timeoutMillis = Math.max(1, timeoutMillis);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffMillis = Math.max(0, backoffMillis);
+        this.breaker = new CircuitBreaker(failureThreshold, TimeUnit.SECONDS.toMillis(openSeconds));
+        int poolSize = Math.max(1, threads);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), threadFactory(environment));
+        metrics.gauge("payment.gateway.active", executor::getActiveCount);
+        metrics.gauge("payment.gateway.queued", () -> executor.getQueue().size());
+    }
+
+    // Virtual threads when enabled (Java 21, spring.threads.virtual.enabled); the pool size still
+    // bounds how many calls are in flight against the gateway
+    private static ThreadFactory threadFactory(Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return new VirtualThreadTaskExecutor("payment-gateway-").getVirtualThreadFactory();
+        }
+        AtomicInteger threadIndex = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, "payment-gateway-" + threadIndex.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Charges asynchronously. The future completes with the gateway's answer, or exceptionally with
+     * a {@link PaymentGatewayException} once all attempts failed, the breaker is open or the pool is full.
+     */
+    public CompletableFuture<PaymentGateway.Result> charge(PaymentGateway.Charge charge) {
+        charges.incrementAndGet();
+        return attempt(charge, 1);
+    }
+
+    /** Charges and waits for the outcome; unwraps the future's exception. */
+    public PaymentGateway.Result chargeAndWait(PaymentGateway.Charge charge) {
+        try {
+            return charge(charge).join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) throw cause;
+            throw new PaymentGatewayException("Payment gateway call failed", ex.getCause());
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("breaker", breaker.state());
+        stats.put("activeCalls", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("charges", charges.get());
+        stats.put("failedAttempts", failedAttempts.get());
+        stats.put("retries", retries.get());
+        stats.put("rejected", rejected.get());
+        stats.put("shortCircuited", shortCircuited.get());
+        return stats;
+    }
+
+    private CompletableFuture<PaymentGateway.Result> attempt(PaymentGateway.Charge charge, int attempt) {
+        if (!breaker.tryAcquire()) {
+            shortCircuited.incrementAndGet();
+            return CompletableFuture.failedFuture(new PaymentGatewayException("Payment gateway unavailable, try again later"));
+        }
+
+        CompletableFuture<PaymentGateway.Result> call = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = executor.submit(() -> {
+                try {
+                    call.complete(metrics.observation("payment.gateway.charge").observe(() -> gateway.charge(charge)));
+                } catch (RuntimeException e) {
+                    call.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Not the gateway's fault: hand the permit back without counting a failure
+            breaker.release();
+            rejected.incrementAndGet();
+            return CompletableFuture.failedFuture(new PaymentGatewayException("Too many payments in progress, try again later", e));
+        }
+
+        return call.orTimeout(timeoutMillis, TimeUnit.MILLISECONDS).handle((result, error) -> {
+            if (error == null) {
+                breaker.onSuccess();
+                return CompletableFuture.completedFuture(result);
+            }
+            if (error instanceof TimeoutException) {
+                task.cancel(true);
+            }
+            breaker.onFailure();
+            failedAttempts.incrementAndGet();
+            if (attempt >= maxAttempts) {
+                return CompletableFuture.<PaymentGateway.Result>failedFuture(error instanceof PaymentGatewayException
+                        ? error : new PaymentGatewayException("Payment gateway did not answer", error));
+            }
+            retries.incrementAndGet();
+            return CompletableFuture.runAsync(() -> { },
+                            CompletableFuture.delayedExecutor(backoffMillis * attempt, TimeUnit.MILLISECONDS))
+                    .thenCompose(ignored -> attempt(charge, attempt + 1));
+        }).thenCompose(future -> future);
+    }
+}
@@ -3,7 +3,15 @@ package com.foodordering.service;
 import com.foodordering.dto.PaymentRequestDto;
 import com.foodordering.dto.OrderDto;
 
+import java.util.Map;
+
 public interface PaymentService {
     // Process payment for orderId. Returns updated OrderDto for convenience.
     OrderDto processPayment(Long orderId, PaymentRequestDto request);
+
+    // Start payment for orderId without waiting for the gateway. Returns the payment's current status.
+    Map<String, Object> submitPayment(Long orderId, PaymentRequestDto request);
+
+    // Status of the order's payment: paymentId, orderId, status, transactionId, updatedAt
+    Map<String, Object> getPaymentStatus(Long orderId);
 }
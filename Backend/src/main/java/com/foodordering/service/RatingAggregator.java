@@ -0,0 +1,196 @@
+package com.foodordering.service;
+
+import com.foodordering.config.HotPathMetrics;
+import com.foodordering.entity.Restaurant;
+import com.foodordering.repository.RestaurantRepository;
+import com.foodordering.repository.ReviewRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps {@code restaurants.rating} and {@code total_reviews} up to date without reading the reviews
+ * table or locking the restaurant row on every review.
+ *
+ * A new review only adds to an in-memory {@link LongAdder} for its restaurant, so concurrent reviews
+ * of a popular restaurant don't contend. Every {@code review.rating.flush-seconds} the pending
+ * sums are drained and folded into the running averages with one UPDATE per restaurant, all in a
+ * single transaction. Since the UPDATE adds to what is stored, instances flush independently.
+ * Ratings recorded but not yet flushed are lost if the instance dies;
+ * {@link #recompute} rebuilds a restaurant's aggregate from its reviews.
+ */
+@Component
+public class RatingAggregator {
+
+    private static final Logger logger = LoggerFactory.getLogger(RatingAggregator.class);
+
+    // Each rating adds itself plus one in the high half, so one adder holds both sum and count and
+    // draining it can never split a rating from its count
+    private static final long ONE_REVIEW = 1L << 32;
+    private static final long SUM_MASK = ONE_REVIEW - 1;
+
+    private final RestaurantRepository restaurantRepository;
+    private final ReviewRepository reviewRepository;
+    private final RestaurantIndexes restaurantIndexes;
+    private final TransactionTemplate transaction;
+    private final long flushSeconds;
+    // One adder per restaurant ever reviewed here; never removed, so a record can't land in a dropped adder
+    private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "rating-flusher");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushedReviews = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+    private final AtomicLong lastFlushRestaurants = new AtomicLong();
+    private final AtomicLong lastFlushMillis = new AtomicLong();
+
+    public RatingAggregator(RestaurantRepository restaurantRepository, ReviewRepository reviewRepository,
+                            RestaurantIndexes restaurantIndexes, PlatformTransactionManager transactionManager,
+                            HotPathMetrics metrics,
+                            @Value("${review.rating.flush-seconds:5}") long flushSeconds) {
+        this.restaurantRepository = restaurantRepository;
+        this.reviewRepository = reviewRepository;
+        this.restaurantIndexes = restaurantIndexes;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.flushSeconds = Math.max(1, flushSeconds);
+        metrics.gauge("review.rating.pending", this::pendingReviews);
+    }
+
+    @PostConstruct
+    void start() {
+        flusher.scheduleWithFixedDelay(this::onTick, flushSeconds, flushSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        flusher.shutdownNow();
+        // Whatever is still pending would otherwise be lost
+        flush();
+    }
+
+    /** Counts a new rating; after commit when called inside a transaction, so a rolled back review never counts. */
+    public void record(Long restaurantId, int rating) {
+        afterCommit(() -> {
+            pending.computeIfAbsent(restaurantId, id -> new LongAdder()).add(ONE_REVIEW + rating);
+            recorded.incrementAndGet();
+        });
+    }
+
+    /**
+     * Rebuilds the restaurant's aggregate from its reviews. Pending ratings are flushed first and no
+     * flush runs meanwhile, but a review committing during the recompute can still be counted twice:
+     * it is read by the recount and, once its commit completes, also recorded for the next flush.
+     * Blocking {@link #record} would not help, since the review is committed before it is recorded.
+     * Run it when reviews are quiet, or run it again; a recount with nothing pending is exact.
+     */
+    public synchronized Restaurant recompute(Long restaurantId) {
+        flush();
+        return transaction.execute(status -> {
+            ReviewRepository.RatingTotals totals = reviewRepository.findTotals(restaurantId);
+            long count = totals.getReviewCount();
+            restaurantRepository.setRating(restaurantId, count == 0 ? 0.0 : (double) totals.getRatingSum() / count, (int) count);
+            return refresh(Map.of(restaurantId, 0L)).get(restaurantId);
+        });
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pendingReviews", pendingReviews());
+        stats.put("trackedRestaurants", pending.size());
+        stats.put("recorded", recorded.get());
+        stats.put("flushes", flushes.get());
+        stats.put("flushedReviews", flushedReviews.get());
+        stats.put("failedFlushes", failedFlushes.get());
+        stats.put("lastFlushRestaurants", lastFlushRestaurants.get());
+        stats.put("lastFlushMillis", lastFlushMillis.get());
+        stats.put("flushSeconds", flushSeconds);
+        return stats;
+    }
+
+    private void onTick() {
+        try {
+            flush();
+        } catch (Exception ex) {
+            // Never let an exception cancel the periodic flush
+            logger.error("Rating flush failed", ex);
+        }
+    }
+
+    /** Drains every pending sum and writes them in one transaction; on failure they are put back. */
+    private synchronized void flush() {
+        Map<Long, Long> batch = new HashMap<>();
+        pending.forEach((restaurantId, adder) -> {
+            long packed = adder.sumThenReset();
+            if (packed != 0) {
+                batch.put(restaurantId, packed);
+            }
+        });
+        if (batch.isEmpty()) return;
+
+        long started = System.currentTimeMillis();
+        try {
+            transaction.executeWithoutResult(status -> {
+                batch.forEach((restaurantId, packed) ->
+                        restaurantRepository.addRatings(restaurantId, packed & SUM_MASK, (int) (packed >>> 32)));
+                refresh(batch);
+            });
+        } catch (RuntimeException ex) {
+            failedFlushes.incrementAndGet();
+            batch.forEach((restaurantId, packed) -> pending.get(restaurantId).add(packed));
+            throw ex;
+        }
+        flushes.incrementAndGet();
+        flushedReviews.addAndGet(batch.values().stream().mapToLong(packed -> packed >>> 32).sum());
+        lastFlushRestaurants.set(batch.size());
+        lastFlushMillis.set(System.currentTimeMillis() - started);
+    }
+
+    // Pushes the new ratings to the caches and indexes holding restaurant snapshots, after commit
+    private Map<Long, Restaurant> refresh(Map<Long, Long> restaurantIds) {
+        Map<Long, Restaurant> restaurants = new HashMap<>();
+        for (Restaurant restaurant : restaurantRepository.findAllById(restaurantIds.keySet())) {
+            restaurants.put(restaurant.getId(), restaurant);
+        }
+        restaurantIndexes.changed(restaurants.values());
+        return restaurants;
+    }
+
+    private long pendingReviews() {
+        return pending.values().stream().mapToLong(adder -> adder.sum() >>> 32).sum();
+    }
+
+    private void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.foodordering.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of the public (approved) restaurant catalog, one entry per city/page.
+ *
+ * Any restaurant change can move rows between pages, so writes drop the whole catalog and bump its
+ * version. The version and the time of the last change double as ETag and Last-Modified, letting
+ * browsers revalidate with a 304 instead of downloading the list again.
+ *
+ * Writes only reach this instance's cache, so pages also expire after
+ * {@code restaurant.catalog-cache.ttl-seconds}. An expired page is reloaded; if it no longer matches
+ * what was cached (another instance changed a restaurant), the catalog is dropped and its version
+ * bumped as for a local write, so browsers don't keep revalidating against the stale tag.
+ */
+@Component
+public class RestaurantCatalogCache {
+
+    /** One cached catalog page; {@code data} is what goes into the ApiResponse. */
+    public record CatalogPage(Object data, long version, long lastModifiedMillis, long loadedAtMillis) {
+        public String etag() {
+            // Weak: the same catalog version is rendered with a fresh response timestamp
+            return "W/\"catalog-" + version + "\"";
+        }
+    }
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Map<String, CatalogPage> pages = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    // HTTP dates have second precision
+    private volatile long lastModifiedMillis = System.currentTimeMillis() / 1000 * 1000;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong remoteChanges = new AtomicLong();
+
+    public RestaurantCatalogCache(@Value("${restaurant.catalog-cache.max-entries:1000}") int maxEntries,
+                                  @Value("${restaurant.catalog-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(Math.max(1, ttlSeconds));
+    }
+
+    public CatalogPage get(String key, Supplier<Object> loader) {
+        long current = version.get();
+        long now = System.currentTimeMillis();
+        CatalogPage page = pages.get(key);
+        boolean cached = page != null && page.version() == current;
+        if (cached && now - page.loadedAtMillis() < ttlMillis) {
+            hits.incrementAndGet();
+            return page;
+        }
+        misses.incrementAndGet();
+        Object data = loader.get();
+        if (cached) {
+            expired.incrementAndGet();
+            if (!Objects.equals(page.data(), data)) {
+                // Changed by another instance: new validators, and the other pages may be stale too
+                remoteChanges.incrementAndGet();
+                doEvictAll();
+                current = version.get();
+            }
+        }
+        CatalogPage loaded = new CatalogPage(data, current, lastModifiedMillis, now);
+        // Don't keep a page loaded while a change was committing; it may already be stale
+        if (version.get() == current) {
+            if (pages.size() >= maxEntries) {
+                pages.clear();
+            }
+            pages.put(key, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * Drops the catalog. Inside a transaction this happens after commit, so a concurrent reader
+     * cannot re-cache the rows as they were before the change.
+     */
+    public void evictAll() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doEvictAll();
+                }
+            });
+        } else {
+            doEvictAll();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", pages.size());
+        stats.put("version", version.get());
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        stats.put("expired", expired.get());
+        stats.put("remoteChanges", remoteChanges.get());
+        return stats;
+    }
+
+    private void doEvictAll() {
+        lastModifiedMillis = Math.max(lastModifiedMillis + 1000, System.currentTimeMillis() / 1000 * 1000);
+        version.incrementAndGet();
+        pages.clear();
+        evictions.incrementAndGet();
+    }
+}
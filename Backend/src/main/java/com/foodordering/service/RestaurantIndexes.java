@@ -0,0 +1,52 @@
+package com.foodordering.service;
+
+import com.foodordering.entity.Restaurant;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The one place restaurant writes are announced to the caches and indexes holding restaurant
+ * snapshots: the public catalog ({@link RestaurantCatalogCache}), the menu snapshots
+ * ({@link MenuSnapshotCache}), nearby search ({@link RestaurantLocationIndex}) and text search
+ * ({@link CatalogSearchIndex}). Each of them applies the change after commit when called inside a
+ * transaction.
+ */
+@Component
+public class RestaurantIndexes {
+
+    private final RestaurantCatalogCache catalogCache;
+    private final MenuSnapshotCache menuCache;
+    private final RestaurantLocationIndex locationIndex;
+    private final CatalogSearchIndex searchIndex;
+
+    public RestaurantIndexes(RestaurantCatalogCache catalogCache, MenuSnapshotCache menuCache,
+                             RestaurantLocationIndex locationIndex, CatalogSearchIndex searchIndex) {
+        this.catalogCache = catalogCache;
+        this.menuCache = menuCache;
+        this.locationIndex = locationIndex;
+        this.searchIndex = searchIndex;
+    }
+
+    /** The restaurant was created or changed; call with the entity still attached. */
+    public void changed(Restaurant restaurant) {
+        changed(List.of(restaurant));
+    }
+
+    public void changed(Collection<Restaurant> restaurants) {
+        for (Restaurant restaurant : restaurants) {
+            locationIndex.restaurantChanged(restaurant);
+            searchIndex.restaurantChanged(restaurant);
+        }
+        catalogCache.evictAll();
+    }
+
+    /** The restaurant was deleted, with its menu (dropped from search too). */
+    public void removed(Long restaurantId) {
+        catalogCache.evictAll();
+        menuCache.invalidate(restaurantId);
+        locationIndex.restaurantRemoved(restaurantId);
+        searchIndex.restaurantRemoved(restaurantId);
+    }
+}
@@ -0,0 +1,134 @@
+package com.foodordering.service;
+
+import com.foodordering.dto.RestaurantDto;
+import com.foodordering.entity.Restaurant;
+import com.foodordering.enums.ApprovalStatus;
+import com.foodordering.mapper.RestaurantMapper;
+import com.foodordering.repository.RestaurantRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory spatial index of the restaurants nearby search can return: approved, open and with
+ * coordinates. Each entry keeps the restaurant's {@link RestaurantDto}, so a lookup touches no
+ * database at all.
+ *
+ * Loaded once at startup; afterwards every restaurant write updates just that restaurant's entry
+ * ({@link #restaurantChanged}, {@link #restaurantRemoved}), after commit when called inside a
+ * transaction so a rolled back change never shows up.
+ */
+@Component
+public class RestaurantLocationIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(RestaurantLocationIndex.class);
+
+    /** A restaurant found by a search, with its distance from the search position. */
+    public record Nearby(RestaurantDto restaurant, double distanceKm) {
+    }
+
+    private final RestaurantRepository restaurantRepository;
+    private final RestaurantMapper restaurantMapper;
+    private final GeoGridIndex<Long> grid;
+    private final Map<Long, RestaurantDto> restaurants = new ConcurrentHashMap<>();
+
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong updates = new AtomicLong();
+
+    public RestaurantLocationIndex(RestaurantRepository restaurantRepository, RestaurantMapper restaurantMapper,
+                                   @Value("${restaurant.nearby.cell-km:2.0}") double cellKm) {
+        this.restaurantRepository = restaurantRepository;
+        this.restaurantMapper = restaurantMapper;
+        this.grid = new GeoGridIndex<>(cellKm);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<Restaurant> searchable = restaurantRepository
+                .findByApprovalStatusAndIsOpenTrueAndLatitudeIsNotNullAndLongitudeIsNotNull(ApprovalStatus.APPROVED);
+        searchable.forEach(this::apply);
+        logger.info("Indexed {} restaurant locations", searchable.size());
+    }
+
+    /** Re-indexes the restaurant as it is now: added, moved, or dropped when no longer searchable. */
+    public void restaurantChanged(Restaurant restaurant) {
+        // Mapped now, while the entity is still attached
+        RestaurantDto dto = searchable(restaurant) ? restaurantMapper.toDto(restaurant) : null;
+        Long id = restaurant.getId();
+        afterCommit(() -> {
+            if (dto != null) {
+                restaurants.put(id, dto);
+                grid.put(id, dto.getLatitude(), dto.getLongitude());
+            } else {
+                remove(id);
+            }
+        });
+    }
+
+    public void restaurantRemoved(Long restaurantId) {
+        afterCommit(() -> remove(restaurantId));
+    }
+
+    /** Up to {@code limit} restaurants within {@code radiusKm}, closest first. */
+    public List<Nearby> nearest(double latitude, double longitude, int limit, double radiusKm) {
+        lookups.incrementAndGet();
+        List<Nearby> result = new ArrayList<>();
+        for (GeoGridIndex.Hit<Long> hit : grid.nearest(latitude, longitude, limit, radiusKm)) {
+            RestaurantDto restaurant = restaurants.get(hit.entry().key());
+            // Removed between the grid lookup and here
+            if (restaurant != null) {
+                result.add(new Nearby(restaurant, hit.distanceKm()));
+            }
+        }
+        return result;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("restaurants", grid.size());
+        stats.put("lookups", lookups.get());
+        stats.put("updates", updates.get());
+        return stats;
+    }
+
+    private void apply(Restaurant restaurant) {
+        restaurants.put(restaurant.getId(), restaurantMapper.toDto(restaurant));
+        grid.put(restaurant.getId(), restaurant.getLatitude(), restaurant.getLongitude());
+    }
+
+    private void remove(Long id) {
+        grid.remove(id);
+        restaurants.remove(id);
+    }
+
+    private static boolean searchable(Restaurant restaurant) {
+        return restaurant.getApprovalStatus() == ApprovalStatus.APPROVED && Boolean.TRUE.equals(restaurant.getIsOpen())
+                && restaurant.getLatitude() != null && restaurant.getLongitude() != null;
+    }
+
+    private void afterCommit(Runnable update) {
+        updates.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+}
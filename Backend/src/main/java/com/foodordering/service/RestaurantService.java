@@ -1,30 +1,61 @@
 package com.foodordering.service;
 
 import com.foodordering.dto.RestaurantDto;
+import com.foodordering.entity.Address;
 import com.foodordering.entity.Restaurant;
 import com.foodordering.entity.User;
+import com.foodordering.enums.ApprovalStatus;
 import com.foodordering.exception.ResourceNotFoundException;
+import com.foodordering.repository.AddressRepository;
+import com.foodordering.repository.PaymentRepository;
 import com.foodordering.repository.RestaurantRepository;
+import com.foodordering.repository.ReviewRepository;
 import com.foodordering.repository.UserRepository;
 import com.foodordering.mapper.RestaurantMapper;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 public class RestaurantService {
 
+    private static final Sort CATALOG_ORDER = Sort.by("id");
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_NEARBY = 100;
+    private static final double MAX_NEARBY_RADIUS_KM = 50;
+
     private final RestaurantRepository restaurantRepository;
     private final UserRepository userRepository;
     private final RestaurantMapper restaurantMapper;
-
-    public RestaurantService(RestaurantRepository restaurantRepository, UserRepository userRepository, RestaurantMapper restaurantMapper) {
+    private final RestaurantCatalogCache catalogCache;
+    private final RestaurantLocationIndex locationIndex;
+    private final AddressRepository addressRepository;
+    private final RestaurantIndexes restaurantIndexes;
+    private final ReviewRepository reviewRepository;
+    private final PaymentRepository paymentRepository;
+
+    public RestaurantService(RestaurantRepository restaurantRepository, UserRepository userRepository, RestaurantMapper restaurantMapper,
+                             RestaurantCatalogCache catalogCache, RestaurantLocationIndex locationIndex,
+                             AddressRepository addressRepository, RestaurantIndexes restaurantIndexes,
+                             ReviewRepository reviewRepository, PaymentRepository paymentRepository) {
         this.restaurantRepository = restaurantRepository;
         this.userRepository = userRepository;
         this.restaurantMapper = restaurantMapper;
+        this.catalogCache = catalogCache;
+        this.locationIndex = locationIndex;
+        this.addressRepository = addressRepository;
+        this.restaurantIndexes = restaurantIndexes;
+        this.reviewRepository = reviewRepository;
+        this.paymentRepository = paymentRepository;
     }
 
     @Transactional
@@ -41,36 +72,100 @@ public class RestaurantService {
         restaurant.setIsOpen(true);
         restaurant.setApprovalStatus(com.foodordering.enums.ApprovalStatus.PENDING); // New restaurants need approval
         
-        // Set default values for rating and reviews
-        if (restaurant.getRating() == null) {
-            restaurant.setRating(0.0);
-        }
-        if (restaurant.getTotalReviews() == null) {
-            restaurant.setTotalReviews(0);
-        }
+        // Ratings only come from reviews
+        restaurant.setRating(0.0);
+        restaurant.setTotalReviews(0);
         
         if (restaurant.getCreatedAt() == null) {
             restaurant.setCreatedAt(LocalDateTime.now());
         }
 
         restaurant = restaurantRepository.save(restaurant);
+        restaurantIndexes.changed(restaurant);
         return restaurantMapper.toDto(restaurant);
     }
 
+    @Transactional(readOnly = true)
     public List<RestaurantDto> getAllRestaurants() {
     // Only return APPROVED restaurants to regular users
-    return restaurantRepository.findAll().stream()
-        .filter(r -> r.getApprovalStatus() == com.foodordering.enums.ApprovalStatus.APPROVED)
+    return restaurantRepository.findByApprovalStatus(ApprovalStatus.APPROVED, CATALOG_ORDER).stream()
         .map(restaurantMapper::toDto)
         .collect(Collectors.toList());
     }
 
+    /**
+     * Approved restaurants, optionally narrowed to a city, served from {@link RestaurantCatalogCache}.
+     * Without a page the whole list is returned (as before); with one, a page of {@code size} rows.
+     * Reads the primary, like the menu snapshots, so a reload after an eviction is never stale.
+     */
+    public RestaurantCatalogCache.CatalogPage getApprovedCatalog(String city, Integer page, int size) {
+        String cityKey = city == null || city.isBlank() ? null : city.trim();
+        if (page == null) {
+            return catalogCache.get(cacheKey(cityKey, "all"), () -> (cityKey == null
+                    ? restaurantRepository.findByApprovalStatus(ApprovalStatus.APPROVED, CATALOG_ORDER)
+                    : restaurantRepository.findByApprovalStatusAndCityIgnoreCase(ApprovalStatus.APPROVED, cityKey, CATALOG_ORDER))
+                    .stream().map(restaurantMapper::toDto).collect(Collectors.toList()));
+        }
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("page must be >= 0 and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        return catalogCache.get(cacheKey(cityKey, page + ":" + size), () -> {
+            PageRequest pageable = PageRequest.of(page, size, CATALOG_ORDER);
+            Page<Restaurant> result = cityKey == null
+                    ? restaurantRepository.findByApprovalStatus(ApprovalStatus.APPROVED, pageable)
+                    : restaurantRepository.findByApprovalStatusAndCityIgnoreCase(ApprovalStatus.APPROVED, cityKey, pageable);
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("items", result.getContent().stream().map(restaurantMapper::toDto).collect(Collectors.toList()));
+            data.put("page", result.getNumber());
+            data.put("size", result.getSize());
+            data.put("totalElements", result.getTotalElements());
+            data.put("totalPages", result.getTotalPages());
+            return data;
+        });
+    }
+
+    /**
+     * Approved, open restaurants closest to a position, or to one of the current user's saved
+     * addresses when {@code addressId} is given. Served from {@link RestaurantLocationIndex}.
+     */
+    public List<RestaurantLocationIndex.Nearby> getNearbyRestaurants(Double latitude, Double longitude, Long addressId,
+                                                                     int limit, double radiusKm) {
+        if (limit < 1 || limit > MAX_NEARBY || radiusKm <= 0 || radiusKm > MAX_NEARBY_RADIUS_KM) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_NEARBY
+                    + " and radiusKm between 0 and " + MAX_NEARBY_RADIUS_KM);
+        }
+        if (addressId != null) {
+            String email = com.foodordering.security.SecurityUtils.getCurrentUserEmail();
+            if (email == null) throw new ResourceNotFoundException("Authenticated user not found");
+            Address address = addressRepository.findByIdAndUserEmail(addressId, email)
+                    .orElseThrow(() -> new ResourceNotFoundException("Address not found"));
+            latitude = address.getLatitude();
+            longitude = address.getLongitude();
+            if (latitude == null || longitude == null) {
+                throw new IllegalArgumentException("Address has no coordinates");
+            }
+        }
+        if (latitude == null || longitude == null) {
+            throw new IllegalArgumentException("Either lat and lng or addressId is required");
+        }
+        if (Math.abs(latitude) > 90 || Math.abs(longitude) > 180) {
+            throw new IllegalArgumentException("lat must be within ±90 and lng within ±180");
+        }
+        return locationIndex.nearest(latitude, longitude, limit, radiusKm);
+    }
+
+    private static String cacheKey(String city, String page) {
+        return (city == null ? "*" : city.toLowerCase(Locale.ROOT)) + "|" + page;
+    }
+
+    @Transactional(readOnly = true)
     public RestaurantDto getRestaurantById(Long id) {
     Restaurant restaurant = restaurantRepository.findById(id)
         .orElseThrow(() -> new ResourceNotFoundException("Restaurant not found"));
     return restaurantMapper.toDto(restaurant);
     }
 
+    @Transactional(readOnly = true)
     public List<RestaurantDto> getRestaurantsByCity(String city) {
     return restaurantRepository.findByCity(city).stream()
         .map(restaurantMapper::toDto)
@@ -105,10 +200,13 @@ public class RestaurantService {
         restaurant.setAddress(dto.getAddress());
         restaurant.setCity(dto.getCity());
         restaurant.setPhoneNumber(dto.getPhoneNumber());
+        restaurant.setLatitude(dto.getLatitude());
+        restaurant.setLongitude(dto.getLongitude());
         restaurant.setIsOpen(dto.getIsOpen());
         restaurant.setUpdatedAt(LocalDateTime.now());
 
         restaurant = restaurantRepository.save(restaurant);
+        restaurantIndexes.changed(restaurant);
         return restaurantMapper.toDto(restaurant);
     }
 
@@ -124,7 +222,24 @@ public class RestaurantService {
             throw new org.springframework.security.access.AccessDeniedException("Not authorized to delete this restaurant");
         }
 
-        restaurantRepository.deleteById(id);
+        remove(restaurant);
+    }
+
+    /** Deletes any restaurant, with its menu, orders, payments and reviews; admin only, so no owner check. */
+    @Transactional
+    public void adminDeleteRestaurant(Long id) {
+        Restaurant restaurant = restaurantRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Restaurant not found"));
+        remove(restaurant);
+    }
+
+    // Rows pointing at the restaurant or its orders without a cascade go first, in the caller's transaction
+    private void remove(Restaurant restaurant) {
+        Long id = restaurant.getId();
+        reviewRepository.deleteByRestaurantId(id);
+        paymentRepository.deleteByRestaurantId(id);
+        restaurantRepository.delete(restaurant);
+        restaurantIndexes.removed(id);
     }
 
     // Mapping handled by RestaurantMapper
@@ -0,0 +1,102 @@
+package com.foodordering.service;
+
+import com.foodordering.dto.CursorPageDto;
+import com.foodordering.dto.ReviewDto;
+import com.foodordering.entity.Order;
+import com.foodordering.entity.Review;
+import com.foodordering.enums.OrderStatus;
+import com.foodordering.exception.ResourceAlreadyExistsException;
+import com.foodordering.exception.ResourceNotFoundException;
+import com.foodordering.mapper.ReviewMapper;
+import com.foodordering.repository.OrderRepository;
+import com.foodordering.repository.RestaurantRepository;
+import com.foodordering.repository.ReviewRepository;
+import com.foodordering.security.SecurityUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reviews of delivered orders. Writing a review never touches the restaurant row; its rating is
+ * handed to {@link RatingAggregator}, which folds it into the restaurant's average a few seconds later.
+ */
+@Service
+public class ReviewService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_COMMENT_LENGTH = 1000;
+
+    private final ReviewRepository reviewRepository;
+    private final OrderRepository orderRepository;
+    private final RestaurantRepository restaurantRepository;
+    private final ReviewMapper reviewMapper;
+    private final RatingAggregator ratingAggregator;
+
+    public ReviewService(ReviewRepository reviewRepository, OrderRepository orderRepository,
+                         RestaurantRepository restaurantRepository, ReviewMapper reviewMapper,
+                         RatingAggregator ratingAggregator) {
+        this.reviewRepository = reviewRepository;
+        this.orderRepository = orderRepository;
+        this.restaurantRepository = restaurantRepository;
+        this.reviewMapper = reviewMapper;
+        this.ratingAggregator = ratingAggregator;
+    }
+
+    /** Reviews one of the current user's delivered orders; each order can be reviewed once. */
+    @Transactional
+    public ReviewDto createReview(Long orderId, ReviewDto dto) {
+        if (dto.getRating() == null || dto.getRating() < 1 || dto.getRating() > 5) {
+            throw new IllegalArgumentException("rating must be between 1 and 5");
+        }
+        if (dto.getComment() != null && dto.getComment().length() > MAX_COMMENT_LENGTH) {
+            throw new IllegalArgumentException("comment must be at most " + MAX_COMMENT_LENGTH + " characters");
+        }
+        String email = SecurityUtils.getCurrentUserEmail();
+        if (email == null) throw new ResourceNotFoundException("Authenticated user not found");
+
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new ResourceNotFoundException("Order not found"));
+        if (!email.equals(order.getCustomer().getEmail())) {
+            throw new org.springframework.security.access.AccessDeniedException("Not authorized to review this order");
+        }
+        if (order.getStatus() != OrderStatus.DELIVERED) {
+            throw new IllegalArgumentException("Only delivered orders can be reviewed");
+        }
+        if (reviewRepository.existsByOrderId(orderId)) {
+            throw new ResourceAlreadyExistsException("This order has already been reviewed");
+        }
+
+        Review review = Review.builder()
+                .restaurant(order.getRestaurant())
+                .customer(order.getCustomer())
+                .order(order)
+                .rating(dto.getRating())
+                .comment(dto.getComment())
+                .createdAt(LocalDateTime.now())
+                .build();
+        try {
+            // Flushed now so a concurrent review of the same order fails here, on the unique key
+            review = reviewRepository.saveAndFlush(review);
+        } catch (DataIntegrityViolationException e) {
+            throw new ResourceAlreadyExistsException("This order has already been reviewed");
+        }
+        ratingAggregator.record(order.getRestaurant().getId(), review.getRating());
+        return reviewMapper.toDto(review);
+    }
+
+    /** A restaurant's reviews, newest first, {@code limit} at a time. */
+    @Transactional(readOnly = true)
+    public CursorPageDto<ReviewDto> getRestaurantReviews(Long restaurantId, Long cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (!restaurantRepository.existsById(restaurantId)) {
+            throw new ResourceNotFoundException("Restaurant not found");
+        }
+        return CursorPageDto.of(reviewRepository.findRestaurantPage(restaurantId, cursor, PageRequest.ofSize(limit + 1)),
+                limit, Review::getId, reviewMapper::toDto);
+    }
+}
@@ -0,0 +1,12 @@
+-- Coordinates (WGS84 degrees) for nearby restaurant search and driver dispatch. Both are optional:
+-- restaurants without them are left out of nearby search, addresses without them can't be searched from.
+
+-- H2
+ALTER TABLE restaurants ADD COLUMN IF NOT EXISTS latitude DOUBLE PRECISION;
+ALTER TABLE restaurants ADD COLUMN IF NOT EXISTS longitude DOUBLE PRECISION;
+ALTER TABLE addresses ADD COLUMN IF NOT EXISTS latitude DOUBLE PRECISION;
+ALTER TABLE addresses ADD COLUMN IF NOT EXISTS longitude DOUBLE PRECISION;
+
+-- MySQL:
+-- ALTER TABLE restaurants ADD COLUMN latitude DOUBLE, ADD COLUMN longitude DOUBLE;
+-- ALTER TABLE addresses ADD COLUMN latitude DOUBLE, ADD COLUMN longitude DOUBLE;
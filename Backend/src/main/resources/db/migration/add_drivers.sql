@@ -0,0 +1,34 @@
+-- Drivers for the delivery dispatcher, and the driver assigned to each delivery. ddl-auto creates
+-- these on H2; databases managed by hand need the same.
+
+-- H2
+CREATE TABLE IF NOT EXISTS drivers (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    version BIGINT DEFAULT 0 NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    phone_number VARCHAR(255),
+    latitude DOUBLE PRECISION NOT NULL,
+    longitude DOUBLE PRECISION NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    updated_at TIMESTAMP
+);
+CREATE INDEX IF NOT EXISTS idx_drivers_status ON drivers(status);
+ALTER TABLE deliveries ADD COLUMN IF NOT EXISTS driver_id BIGINT;
+ALTER TABLE deliveries ADD CONSTRAINT IF NOT EXISTS fk_deliveries_driver FOREIGN KEY (driver_id) REFERENCES drivers(id);
+CREATE INDEX IF NOT EXISTS idx_deliveries_status_driver ON deliveries(status, driver_id);
+
+-- MySQL:
+-- CREATE TABLE drivers (
+--     id BIGINT AUTO_INCREMENT PRIMARY KEY,
+--     version BIGINT NOT NULL DEFAULT 0,
+--     name VARCHAR(255) NOT NULL,
+--     phone_number VARCHAR(255),
+--     latitude DOUBLE NOT NULL,
+--     longitude DOUBLE NOT NULL,
+--     status VARCHAR(20) NOT NULL,
+--     updated_at DATETIME(6)
+-- );
+-- CREATE INDEX idx_drivers_status ON drivers(status);
+-- ALTER TABLE deliveries ADD COLUMN driver_id BIGINT;
+-- ALTER TABLE deliveries ADD CONSTRAINT fk_deliveries_driver FOREIGN KEY (driver_id) REFERENCES drivers(id);
+-- CREATE INDEX idx_deliveries_status_driver ON deliveries(status, driver_id);
@@ -0,0 +1,24 @@
+-- Composite indexes for the hot query paths (also declared with @Index on the entities, so fresh
+-- databases get them from ddl-auto). Run once on existing databases.
+-- deliveries.order_id needs nothing: its unique constraint is already an index.
+
+-- H2
+CREATE INDEX IF NOT EXISTS idx_orders_customer_created ON orders (customer_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_orders_restaurant_status_created ON orders (restaurant_id, status, created_at);
+CREATE INDEX IF NOT EXISTS idx_orders_status_created ON orders (status, created_at);
+CREATE INDEX IF NOT EXISTS idx_payments_order ON payments (order_id);
+CREATE INDEX IF NOT EXISTS idx_payments_status_created ON payments (status, created_at);
+CREATE INDEX IF NOT EXISTS idx_menu_items_restaurant_available ON menu_items (restaurant_id, is_available);
+CREATE INDEX IF NOT EXISTS idx_restaurants_approval_city ON restaurants (approval_status, city);
+
+-- MySQL (no IF NOT EXISTS for indexes; skip any that already exist):
+-- CREATE INDEX idx_orders_customer_created ON orders (customer_id, created_at);
+-- CREATE INDEX idx_orders_restaurant_status_created ON orders (restaurant_id, status, created_at);
+-- CREATE INDEX idx_orders_status_created ON orders (status, created_at);
+-- CREATE INDEX idx_payments_order ON payments (order_id);
+-- CREATE INDEX idx_payments_status_created ON payments (status, created_at);
+-- CREATE INDEX idx_menu_items_restaurant_available ON menu_items (restaurant_id, is_available);
+-- CREATE INDEX idx_restaurants_approval_city ON restaurants (approval_status, city);
+
+-- Check a query uses its index, e.g.:
+-- EXPLAIN SELECT * FROM orders WHERE customer_id = 1 ORDER BY created_at DESC;
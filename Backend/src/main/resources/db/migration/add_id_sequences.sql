@@ -0,0 +1,21 @@
+-- Orders, order items and payments moved from IDENTITY columns to pooled sequences (allocation size 50)
+-- so Hibernate can batch their inserts. Fresh databases get the sequences from ddl-auto.
+-- On existing H2 and MySQL databases IdSequenceInitializer moves each sequence past MAX(id) + 50 at
+-- startup, so nothing needs to be run by hand. The statements below do the same for databases
+-- managed without ddl-auto; run them with the application stopped.
+
+-- H2 (RESTART WITH takes a literal: first run the SELECT, then use its result)
+CREATE SEQUENCE IF NOT EXISTS orders_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS order_items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS payments_seq START WITH 1 INCREMENT BY 50;
+-- SELECT COALESCE(MAX(id), 0) + 51 FROM orders;       then ALTER SEQUENCE orders_seq RESTART WITH <result>;
+-- SELECT COALESCE(MAX(id), 0) + 51 FROM order_items;  then ALTER SEQUENCE order_items_seq RESTART WITH <result>;
+-- SELECT COALESCE(MAX(id), 0) + 51 FROM payments;     then ALTER SEQUENCE payments_seq RESTART WITH <result>;
+
+-- MySQL (sequences are emulated with single-row tables):
+-- CREATE TABLE IF NOT EXISTS orders_seq (next_val BIGINT);
+-- INSERT INTO orders_seq SELECT COALESCE(MAX(id), 0) + 51 FROM orders;
+-- CREATE TABLE IF NOT EXISTS order_items_seq (next_val BIGINT);
+-- INSERT INTO order_items_seq SELECT COALESCE(MAX(id), 0) + 51 FROM order_items;
+-- CREATE TABLE IF NOT EXISTS payments_seq (next_val BIGINT);
+-- INSERT INTO payments_seq SELECT COALESCE(MAX(id), 0) + 51 FROM payments;
@@ -0,0 +1,10 @@
+-- Optimistic locking columns for orders and deliveries. ddl-auto adds them with DEFAULT 0; existing
+-- databases managed by hand need the same, since a NULL version would fail every update.
+
+-- H2
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE deliveries ADD COLUMN IF NOT EXISTS version BIGINT DEFAULT 0 NOT NULL;
+
+-- MySQL:
+-- ALTER TABLE orders ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+-- ALTER TABLE deliveries ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
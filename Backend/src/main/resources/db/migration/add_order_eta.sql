@@ -0,0 +1,8 @@
+-- Expected delivery time of each order, re-estimated on every status change (see KitchenLoadTracker).
+-- ddl-auto adds it on H2; databases managed by hand need the same.
+
+-- H2
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS estimated_delivery_at TIMESTAMP;
+
+-- MySQL:
+-- ALTER TABLE orders ADD COLUMN estimated_delivery_at DATETIME(6);
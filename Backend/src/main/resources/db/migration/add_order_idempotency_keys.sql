@@ -0,0 +1,24 @@
+-- Idempotency-Key store for POST /api/orders. ddl-auto creates it on fresh databases; the unique
+-- (customer_id, idempotency_key) index is what makes a retried request return the original order.
+
+-- H2
+CREATE TABLE IF NOT EXISTS order_idempotency_keys (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    customer_id BIGINT NOT NULL,
+    idempotency_key VARCHAR(100) NOT NULL,
+    order_id BIGINT,
+    created_at TIMESTAMP NOT NULL,
+    CONSTRAINT uk_order_idempotency_customer_key UNIQUE (customer_id, idempotency_key)
+);
+CREATE INDEX IF NOT EXISTS idx_order_idempotency_created ON order_idempotency_keys (created_at);
+
+-- MySQL:
+-- CREATE TABLE IF NOT EXISTS order_idempotency_keys (
+--     id BIGINT AUTO_INCREMENT PRIMARY KEY,
+--     customer_id BIGINT NOT NULL,
+--     idempotency_key VARCHAR(100) NOT NULL,
+--     order_id BIGINT,
+--     created_at DATETIME(6) NOT NULL,
+--     UNIQUE KEY uk_order_idempotency_customer_key (customer_id, idempotency_key),
+--     KEY idx_order_idempotency_created (created_at)
+-- );
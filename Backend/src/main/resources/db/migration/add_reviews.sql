@@ -0,0 +1,35 @@
+-- Reviews of delivered orders, one per order. restaurants.rating / total_reviews stay the aggregate
+-- that reads use; RatingAggregator folds new reviews into them in batches. ddl-auto creates these
+-- on H2; databases managed by hand need the same.
+
+-- H2
+CREATE TABLE IF NOT EXISTS reviews (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    restaurant_id BIGINT NOT NULL,
+    customer_id BIGINT NOT NULL,
+    order_id BIGINT NOT NULL,
+    rating INT NOT NULL,
+    comment VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL,
+    CONSTRAINT uk_reviews_order UNIQUE (order_id),
+    CONSTRAINT fk_reviews_restaurant FOREIGN KEY (restaurant_id) REFERENCES restaurants(id),
+    CONSTRAINT fk_reviews_customer FOREIGN KEY (customer_id) REFERENCES users(id),
+    CONSTRAINT fk_reviews_order FOREIGN KEY (order_id) REFERENCES orders(id)
+);
+CREATE INDEX IF NOT EXISTS idx_reviews_restaurant ON reviews(restaurant_id, id);
+
+-- MySQL:
+-- CREATE TABLE reviews (
+--     id BIGINT AUTO_INCREMENT PRIMARY KEY,
+--     restaurant_id BIGINT NOT NULL,
+--     customer_id BIGINT NOT NULL,
+--     order_id BIGINT NOT NULL,
+--     rating INT NOT NULL,
+--     comment VARCHAR(1000),
+--     created_at DATETIME(6) NOT NULL,
+--     CONSTRAINT uk_reviews_order UNIQUE (order_id),
+--     CONSTRAINT fk_reviews_restaurant FOREIGN KEY (restaurant_id) REFERENCES restaurants(id),
+--     CONSTRAINT fk_reviews_customer FOREIGN KEY (customer_id) REFERENCES users(id),
+--     CONSTRAINT fk_reviews_order FOREIGN KEY (order_id) REFERENCES orders(id)
+-- );
+-- CREATE INDEX idx_reviews_restaurant ON reviews(restaurant_id, id);
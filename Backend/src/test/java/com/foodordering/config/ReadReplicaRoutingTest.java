@@ -0,0 +1,111 @@
+package com.foodordering.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routes real transactions through {@link ReadReplicaDataSourceConfig} over two in-memory H2
+ * databases, each holding a row that names it, and checks which one every transaction landed on.
+ */
+class ReadReplicaRoutingTest {
+
+    private DriverManagerDataSource primary;
+    private DriverManagerDataSource replica;
+    private ReadYourWritesTracker readYourWrites;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate writeTransaction;
+    private TransactionTemplate readOnlyTransaction;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        readYourWrites = new ReadYourWritesTracker(60);
+        DataSource routing = new ReadReplicaDataSourceConfig().dataSource(primary, replica, readYourWrites);
+        jdbc = new JdbcTemplate(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+        writeTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        new JdbcTemplate(primary).execute("SHUTDOWN");
+        new JdbcTemplate(replica).execute("SHUTDOWN");
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        signIn("reader@example.com");
+
+        assertThat(databaseIn(readOnlyTransaction)).isEqualTo("replica");
+    }
+
+    @Test
+    void writesGoToThePrimary() {
+        signIn("writer@example.com");
+
+        writeTransaction.executeWithoutResult(status ->
+                jdbc.update("INSERT INTO writes (name) VALUES (?)", "order"));
+
+        assertThat(new JdbcTemplate(primary).queryForList("SELECT name FROM writes", String.class)).containsExactly("order");
+        assertThat(new JdbcTemplate(replica).queryForList("SELECT name FROM writes", String.class)).isEmpty();
+        assertThat(databaseIn(writeTransaction)).isEqualTo("primary");
+    }
+
+    @Test
+    void recentWriterReadsFromThePrimary() {
+        signIn("writer@example.com");
+        readYourWrites.recordWrite();
+
+        assertThat(databaseIn(readOnlyTransaction)).isEqualTo("primary");
+
+        // Other users' reads are unaffected
+        signIn("someone-else@example.com");
+        assertThat(databaseIn(readOnlyTransaction)).isEqualTo("replica");
+    }
+
+    @Test
+    void readsOutsideATransactionGoToThePrimary() {
+        assertThat(database()).isEqualTo("primary");
+    }
+
+    private String databaseIn(TransactionTemplate transaction) {
+        return transaction.execute(status -> database());
+    }
+
+    private String database() {
+        List<String> names = jdbc.queryForList("SELECT name FROM whoami", String.class);
+        assertThat(names).hasSize(1);
+        return names.get(0);
+    }
+
+    private static DriverManagerDataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE whoami (name VARCHAR(20))");
+        jdbc.execute("CREATE TABLE writes (name VARCHAR(20))");
+        jdbc.update("INSERT INTO whoami (name) VALUES (?)", name);
+        return dataSource;
+    }
+
+    private static void signIn(String email) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(email, null, List.of()));
+    }
+}
@@ -0,0 +1,95 @@
+package com.foodordering.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Puts 2k concurrent clients against request handlers that spend their time blocked on the database,
+ * once on a pool of Tomcat's default 200 platform threads and once on virtual threads as the
+ * {@code vthreads} profile runs them, and compares throughput and p99 latency. The database wait is a
+ * fixed sleep so only the handler threads differ; in the app the connection pool still caps how many
+ * of those waits overlap. Needs Java 21 (build with {@code -Pjava21}); skipped on older runtimes.
+ */
+@EnabledForJreRange(min = JRE.JAVA_21)
+class VirtualThreadRequestBenchmarkTest {
+
+    private static final int CLIENTS = 2_000;
+    private static final int WARMUP_REQUESTS_PER_CLIENT = 2;
+    private static final int REQUESTS_PER_CLIENT = 10;
+    // Tomcat's default server.tomcat.threads.max
+    private static final int PLATFORM_THREADS = 200;
+    // Time a request spends blocked on JDBC round trips
+    private static final long BLOCKED_MILLIS = 20;
+
+    private record Result(double requestsPerSecond, double p99Millis) {
+    }
+
+    @Test
+    void virtualThreadsServeMoreClientsWithLowerTailLatency() throws Exception {
+        ExecutorService platform = Executors.newFixedThreadPool(PLATFORM_THREADS);
+        try {
+            Result platformRun = run(platform);
+            Result virtualRun = run(new VirtualThreadTaskExecutor("request-"));
+
+            System.out.printf("request handling, %d clients: platform %.0f req/s p99 %.1f ms, virtual %.0f req/s p99 %.1f ms%n",
+                    CLIENTS, platformRun.requestsPerSecond(), platformRun.p99Millis(),
+                    virtualRun.requestsPerSecond(), virtualRun.p99Millis());
+            assertThat(virtualRun.requestsPerSecond()).isGreaterThan(platformRun.requestsPerSecond());
+            assertThat(virtualRun.p99Millis()).isLessThan(platformRun.p99Millis());
+        } finally {
+            platform.shutdownNow();
+        }
+    }
+
+    private Result run(Executor handlers) throws InterruptedException {
+        load(handlers, WARMUP_REQUESTS_PER_CLIENT);
+        return load(handlers, REQUESTS_PER_CLIENT);
+    }
+
+    // Each client sends its requests one after another and waits for every answer
+    private Result load(Executor handlers, int requestsPerClient) throws InterruptedException {
+        VirtualThreadTaskExecutor clients = new VirtualThreadTaskExecutor("client-");
+        long[] latencies = new long[CLIENTS * requestsPerClient];
+        CountDownLatch done = new CountDownLatch(CLIENTS);
+        long started = System.nanoTime();
+        for (int c = 0; c < CLIENTS; c++) {
+            int client = c;
+            clients.execute(() -> {
+                try {
+                    for (int r = 0; r < requestsPerClient; r++) {
+                        long sent = System.nanoTime();
+                        CompletableFuture.runAsync(VirtualThreadRequestBenchmarkTest::handle, handlers).join();
+                        latencies[client * requestsPerClient + r] = System.nanoTime() - sent;
+                    }
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        assertThat(done.await(2, TimeUnit.MINUTES)).isTrue();
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        Arrays.sort(latencies);
+        return new Result(latencies.length / seconds, latencies[(int) (latencies.length * 0.99)] / 1e6);
+    }
+
+    private static void handle() {
+        try {
+            Thread.sleep(BLOCKED_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
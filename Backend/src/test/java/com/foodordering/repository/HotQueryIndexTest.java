@@ -0,0 +1,134 @@
+package com.foodordering.repository;
+
+import com.foodordering.enums.ApprovalStatus;
+import com.foodordering.enums.DriverStatus;
+import com.foodordering.enums.OrderStatus;
+import com.foodordering.enums.PaymentStatus;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Calls the hot repository queries, captures the SQL Hibernate generates for them with a
+ * {@link StatementInspector}, and runs EXPLAIN for it on the schema Hibernate generates (with the
+ * entities' {@code @Index} declarations). Fails when H2 plans a full table scan.
+ */
+@DataJpaTest
+class HotQueryIndexTest {
+
+    // Repository method -> a call with sample arguments
+    private final Map<String, Runnable> hotQueries = new LinkedHashMap<>();
+
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private PaymentRepository paymentRepository;
+    @Autowired
+    private DeliveryRepository deliveryRepository;
+    @Autowired
+    private MenuItemRepository menuItemRepository;
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+    @Autowired
+    private ReviewRepository reviewRepository;
+    @Autowired
+    private DriverRepository driverRepository;
+    @Autowired
+    private SqlCapture sqlCapture;
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        hotQueries.put("OrderRepository.findByCustomerIdOrderByCreatedAtDesc",
+                () -> orderRepository.findByCustomerIdOrderByCreatedAtDesc(1L));
+        hotQueries.put("OrderRepository.findFirstByCustomerIdOrderByCreatedAtDesc",
+                () -> orderRepository.findFirstByCustomerIdOrderByCreatedAtDesc(1L));
+        hotQueries.put("OrderRepository.findByRestaurantId",
+                () -> orderRepository.findByRestaurantId(1L));
+        hotQueries.put("OrderRepository.findByStatus",
+                () -> orderRepository.findByStatus(OrderStatus.PENDING));
+        hotQueries.put("PaymentRepository.findByOrderId",
+                () -> paymentRepository.findByOrderId(1L));
+        hotQueries.put("PaymentRepository.findByStatus",
+                () -> paymentRepository.findByStatus(PaymentStatus.PROCESSING));
+        hotQueries.put("DeliveryRepository.findByOrderId",
+                () -> deliveryRepository.findByOrderId(1L));
+        hotQueries.put("MenuItemRepository.findByRestaurantIdAndIsAvailable",
+                () -> menuItemRepository.findByRestaurantIdAndIsAvailable(1L, true));
+        hotQueries.put("RestaurantRepository.findByApprovalStatusAndCityIgnoreCase",
+                () -> restaurantRepository.findByApprovalStatusAndCityIgnoreCase(ApprovalStatus.APPROVED, "Pune", Sort.by("id")));
+        hotQueries.put("ReviewRepository.findRestaurantPage",
+                () -> reviewRepository.findRestaurantPage(1L, 100L, PageRequest.ofSize(20)));
+        hotQueries.put("DriverRepository.findPositionsByStatus",
+                () -> driverRepository.findPositionsByStatus(DriverStatus.AVAILABLE));
+    }
+
+    @Test
+    void hotQueriesUseAnIndex() {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        Map<String, String> fullScans = new LinkedHashMap<>();
+        hotQueries.forEach((query, call) -> {
+            List<String> statements = sqlCapture.during(call);
+            assertThat(statements).as("SQL issued by %s", query).isNotEmpty();
+            for (String sql : statements) {
+                String plan = explain(jdbc, sql);
+                // H2 marks a full scan as /* PUBLIC.<TABLE>.tableScan */
+                if (plan.toLowerCase(Locale.ROOT).contains(".tablescan")) {
+                    fullScans.put(query, plan);
+                }
+            }
+        });
+
+        assertThat(fullScans).as("queries planned as full table scans: %s", fullScans).isEmpty();
+    }
+
+    // H2 picks the plan when the statement is prepared, so the parameters only have to be bound
+    private static String explain(JdbcTemplate jdbc, String sql) {
+        Object[] parameters = new Object[(int) sql.chars().filter(c -> c == '?').count()];
+        return jdbc.queryForObject("EXPLAIN " + sql, String.class, parameters);
+    }
+
+    // Records every SQL statement Hibernate prepares
+    @TestConfiguration
+    static class SqlCapture implements StatementInspector {
+        private final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Bean
+        HibernatePropertiesCustomizer sqlCaptureInspector() {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+        }
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+
+        // The statements prepared while `call` runs
+        List<String> during(Runnable call) {
+            statements.clear();
+            call.run();
+            return new ArrayList<>(statements);
+        }
+    }
+}
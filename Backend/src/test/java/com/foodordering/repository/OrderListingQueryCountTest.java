@@ -0,0 +1,162 @@
+package com.foodordering.repository;
+
+import com.foodordering.dto.OrderDto;
+import com.foodordering.entity.Address;
+import com.foodordering.entity.Delivery;
+import com.foodordering.entity.MenuItem;
+import com.foodordering.entity.Order;
+import com.foodordering.entity.OrderItem;
+import com.foodordering.entity.Restaurant;
+import com.foodordering.entity.User;
+import com.foodordering.enums.ApprovalStatus;
+import com.foodordering.enums.Category;
+import com.foodordering.enums.Role;
+import com.foodordering.mapper.AddressMapperImpl;
+import com.foodordering.mapper.DeliveryMapperImpl;
+import com.foodordering.mapper.OrderItemMapperImpl;
+import com.foodordering.mapper.OrderMapper;
+import com.foodordering.mapper.OrderMapperImpl;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the SQL statements Hibernate prepares while an order listing is loaded and mapped to
+ * {@link OrderDto}s. A lazy association the listing graph misses shows up as statements growing with
+ * the number of orders, so 10 and 100 orders must cost the same, small number of statements.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({OrderMapperImpl.class, OrderItemMapperImpl.class, AddressMapperImpl.class, DeliveryMapperImpl.class})
+class OrderListingQueryCountTest {
+
+    private static final long MAX_STATEMENTS = 3;
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private OrderMapper orderMapper;
+
+    private Statistics statistics;
+    private User bigCustomer;
+    private User smallCustomer;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+
+        User owner = user("owner@example.com", Role.RESTAURANT_OWNER);
+        Restaurant restaurant = new Restaurant();
+        restaurant.setName("Listing Test Kitchen");
+        restaurant.setDescription("Query count fixture");
+        restaurant.setAddress("1 Test Street");
+        restaurant.setCity("Testville");
+        restaurant.setApprovalStatus(ApprovalStatus.APPROVED);
+        restaurant.setOwner(owner);
+        entityManager.persist(restaurant);
+        MenuItem dish = new MenuItem();
+        dish.setName("Dish");
+        dish.setDescription("A dish");
+        dish.setPrice(10.0);
+        dish.setCategory(Category.MAIN_COURSE);
+        dish.setRestaurant(restaurant);
+        entityManager.persist(dish);
+
+        bigCustomer = user("big@example.com", Role.CUSTOMER);
+        smallCustomer = user("small@example.com", Role.CUSTOMER);
+        placeOrders(bigCustomer, restaurant, dish, 100);
+        placeOrders(smallCustomer, restaurant, dish, 10);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void customerOrderListingUsesConstantStatements() {
+        long hundred = statements(() -> orderRepository.findWithDetailsByCustomerIdOrderByCreatedAtDesc(bigCustomer.getId()), 100);
+        long ten = statements(() -> orderRepository.findWithDetailsByCustomerIdOrderByCreatedAtDesc(smallCustomer.getId()), 10);
+
+        assertThat(hundred).isLessThanOrEqualTo(MAX_STATEMENTS).isEqualTo(ten);
+    }
+
+    @Test
+    void ownerOrderListingUsesConstantStatements() {
+        long statements = statements(() -> orderRepository.findWithDetailsByRestaurantOwnerEmailOrderByCreatedAtDesc("owner@example.com"), 110);
+
+        assertThat(statements).isLessThanOrEqualTo(MAX_STATEMENTS);
+    }
+
+    @Test
+    void adminOrderListingUsesConstantStatements() {
+        long statements = statements(orderRepository::findAllWithDetails, 110);
+
+        assertThat(statements).isLessThanOrEqualTo(MAX_STATEMENTS);
+    }
+
+    // Statements prepared while loading the orders and mapping every one of them, from a cold session
+    private long statements(Supplier<List<Order>> listing, int expectedOrders) {
+        entityManager.clear();
+        statistics.clear();
+        List<OrderDto> dtos = listing.get().stream().map(orderMapper::toDto).collect(Collectors.toList());
+        assertThat(dtos).hasSize(expectedOrders);
+        assertThat(dtos).allSatisfy(dto -> {
+            assertThat(dto.getCustomerName()).isNotNull();
+            assertThat(dto.getRestaurantName()).isEqualTo("Listing Test Kitchen");
+            assertThat(dto.getItems()).hasSize(2);
+            assertThat(dto.getDeliveryAddress()).isNotNull();
+            assertThat(dto.getDelivery()).isNotNull();
+        });
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void placeOrders(User customer, Restaurant restaurant, MenuItem dish, int count) {
+        Address address = new Address();
+        address.setStreet("2 Customer Road");
+        address.setCity("Testville");
+        address.setState("TS");
+        address.setZipCode("12345");
+        address.setUser(customer);
+        entityManager.persist(address);
+        for (int i = 0; i < count; i++) {
+            Order order = new Order();
+            order.setCustomer(customer);
+            order.setRestaurant(restaurant);
+            order.setDeliveryAddress(address);
+            order.setTotalAmount(30.0);
+            for (int quantity = 1; quantity <= 2; quantity++) {
+                OrderItem item = new OrderItem();
+                item.setOrder(order);
+                item.setMenuItem(dish);
+                item.setQuantity(quantity);
+                item.setPrice(10.0);
+                item.setSubtotal(10.0 * quantity);
+                order.getOrderItems().add(item);
+            }
+            Delivery delivery = new Delivery();
+            delivery.setOrder(order);
+            order.setDelivery(delivery);
+            entityManager.persist(order);
+        }
+    }
+
+    private User user(String email, Role role) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("not-a-real-hash");
+        user.setFullName(email.substring(0, email.indexOf('@')));
+        user.setRole(role);
+        return entityManager.persist(user);
+    }
+}
@@ -0,0 +1,120 @@
+package com.foodordering.security;
+
+import com.foodordering.enums.Role;
+import com.foodordering.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Times {@link JwtAuthenticationFilter} over many authenticated requests from a pool of signed-in
+ * users and counts the user lookups it makes. With {@link UserStatusCache} each user is looked up
+ * once per TTL instead of once per request; the same run with the cache disabled shows the lookup
+ * the filter used to make on every request.
+ */
+class JwtAuthenticationFilterBenchmarkTest {
+
+    private static final int USERS = 100;
+    private static final int WARMUP_REQUESTS = 20_000;
+    private static final int REQUESTS = 100_000;
+
+    private final List<String> tokens = new ArrayList<>();
+    private UserRepository userRepository;
+    private JwtTokenProvider tokenProvider;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        when(userRepository.findStatusByEmail(anyString())).thenReturn(Optional.of(new UserRepository.StatusView() {
+            @Override
+            public Role getRole() {
+                return Role.CUSTOMER;
+            }
+
+            @Override
+            public Boolean getActive() {
+                return true;
+            }
+        }));
+
+        tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret", "BenchmarkSecretLongEnoughForHmacSigning0123456789");
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpiration", 3_600_000L);
+        ReflectionTestUtils.setField(tokenProvider, "verifiedCacheMaxSize", 10_000);
+        tokenProvider.init();
+        for (int i = 0; i < USERS; i++) {
+            tokens.add(tokenProvider.generateToken(signedIn("user" + i + "@example.com")));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void cachedStatusRemovesThePerRequestUserLookup() throws Exception {
+        // Same defaults as security.user-status-cache.* in application.properties
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(tokenProvider, new UserStatusCache(userRepository, 60, 10_000));
+
+        run(filter, WARMUP_REQUESTS);
+        double micros = run(filter, REQUESTS);
+        System.out.printf("jwt filter: %d requests from %d users, mean %.1f us%n", REQUESTS, USERS, micros);
+
+        // Each user once, during the warm-up; nothing per request
+        verify(userRepository, times(USERS)).findStatusByEmail(anyString());
+        assertThat(micros).isLessThan(100.0);
+    }
+
+    @Test
+    void withoutTheCacheEveryRequestLooksUpItsUser() throws Exception {
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(tokenProvider, new UserStatusCache(userRepository, 0, 10_000));
+
+        run(filter, REQUESTS);
+
+        verify(userRepository, times(REQUESTS)).findStatusByEmail(anyString());
+    }
+
+    // Sends `requests` requests round-robin over the users' tokens; returns the mean time per request
+    private double run(JwtAuthenticationFilter filter, int requests) throws Exception {
+        long total = 0;
+        for (int i = 0; i < requests; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders/my-orders");
+            request.addHeader("Authorization", "Bearer " + tokens.get(i % USERS));
+            long started = System.nanoTime();
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            total += System.nanoTime() - started;
+
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            assertThat(authentication.getName()).isEqualTo("user" + (i % USERS) + "@example.com");
+            SecurityContextHolder.clearContext();
+        }
+        return total / 1e3 / requests;
+    }
+
+    private static Authentication signedIn(String email) {
+        List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_" + Role.CUSTOMER.name()));
+        return new UsernamePasswordAuthenticationToken(new User(email, "", authorities), null, authorities);
+    }
+}
@@ -0,0 +1,106 @@
+package com.foodordering.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Times one dispatch round the way {@link DriverDispatcher} runs it: the free drivers are loaded
+ * into a {@link GeoGridIndex} and every waiting delivery, oldest first, takes the nearest one. At
+ * 10k drivers and 1k deliveries over a city the round has to fit well inside the dispatch interval.
+ */
+class DispatchMatchingBenchmarkTest {
+
+    private static final int DRIVERS = 10_000;
+    private static final int DELIVERIES = 1_000;
+    // Same defaults as delivery.dispatch.* in application.properties
+    private static final double CELL_KM = 1.0;
+    private static final double MAX_RADIUS_KM = 15;
+    private static final long INTERVAL_MILLIS = 300;
+    // Roughly 30 x 30 km around the default dispatch origin
+    private static final double ORIGIN_LATITUDE = 19.0760;
+    private static final double ORIGIN_LONGITUDE = 72.8777;
+    private static final double SPREAD_DEGREES = 0.27;
+
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 15;
+
+    private final Random random = new Random(42);
+    private final List<GeoGridIndex.Entry<Long>> drivers = points(DRIVERS);
+    private final List<GeoGridIndex.Entry<Long>> deliveries = points(DELIVERIES);
+
+    @Test
+    void roundOfThousandDeliveriesOverTenThousandDriversFitsTheInterval() {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            round();
+        }
+        long[] nanos = new long[MEASURED_ROUNDS];
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long started = System.nanoTime();
+            Map<Long, Long> matches = round();
+            nanos[i] = System.nanoTime() - started;
+            assertThat(matches).hasSize(DELIVERIES);
+        }
+        Arrays.sort(nanos);
+        double medianMillis = nanos[MEASURED_ROUNDS / 2] / 1e6;
+        System.out.printf("dispatch round: %d drivers, %d deliveries, median %.2f ms, max %.2f ms%n",
+                DRIVERS, DELIVERIES, medianMillis, nanos[MEASURED_ROUNDS - 1] / 1e6);
+
+        assertThat(medianMillis).isLessThan((double) INTERVAL_MILLIS / 3);
+    }
+
+    @Test
+    void everyDeliveryTakesTheNearestDriverStillFree() {
+        Map<Long, Long> matches = round();
+
+        Set<Long> taken = new HashSet<>();
+        for (GeoGridIndex.Entry<Long> delivery : deliveries) {
+            Long driverId = matches.get(delivery.key());
+            double best = Double.MAX_VALUE;
+            for (GeoGridIndex.Entry<Long> driver : drivers) {
+                if (taken.contains(driver.key())) continue;
+                best = Math.min(best, distance(delivery, driver));
+            }
+            assertThat(distance(delivery, drivers.get(driverId.intValue()))).isCloseTo(best, within(1e-9));
+            assertThat(taken.add(driverId)).isTrue();
+        }
+    }
+
+    // Rebuilds the index of free drivers and matches every delivery greedily; delivery id -> driver id
+    private Map<Long, Long> round() {
+        GeoGridIndex<Long> available = new GeoGridIndex<>(CELL_KM);
+        available.replaceAll(drivers);
+        Map<Long, Long> matches = new HashMap<>();
+        for (GeoGridIndex.Entry<Long> delivery : deliveries) {
+            GeoGridIndex.Entry<Long> driver = available.takeNearest(delivery.latitude(), delivery.longitude(), MAX_RADIUS_KM);
+            if (driver != null) {
+                matches.put(delivery.key(), driver.key());
+            }
+        }
+        return matches;
+    }
+
+    private List<GeoGridIndex.Entry<Long>> points(int count) {
+        List<GeoGridIndex.Entry<Long>> points = new ArrayList<>(count);
+        for (long id = 0; id < count; id++) {
+            points.add(new GeoGridIndex.Entry<>(id,
+                    ORIGIN_LATITUDE + (random.nextDouble() - 0.5) * SPREAD_DEGREES,
+                    ORIGIN_LONGITUDE + (random.nextDouble() - 0.5) * SPREAD_DEGREES));
+        }
+        return points;
+    }
+
+    private static double distance(GeoGridIndex.Entry<Long> a, GeoGridIndex.Entry<Long> b) {
+        return GeoGridIndex.distanceKm(a.latitude(), a.longitude(), b.latitude(), b.longitude());
+    }
+}
@@ -0,0 +1,133 @@
+package com.foodordering.service;
+
+import com.foodordering.config.HotPathMetrics;
+import com.foodordering.entity.Order;
+import com.foodordering.entity.Restaurant;
+import com.foodordering.enums.OrderStatus;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Replays recorded order timelines ({@code kitchen/order-timelines.csv}: three restaurants over five
+ * hours, including busy stretches where orders queue for the kitchen) through a
+ * {@link KitchenLoadTracker} and checks the estimates made when each order was confirmed against
+ * when it was actually delivered.
+ */
+class KitchenLoadTrackerReplayTest {
+
+    private static final String TIMELINES = "/kitchen/order-timelines.csv";
+    // Same as the kitchen.eta.* defaults in application.properties
+    private static final double DEFAULT_PREP_SECONDS = 600;
+    private static final double DEFAULT_DELIVERY_SECONDS = 900;
+    // Average preparation time each recorded kitchen actually had
+    private static final Map<Long, Double> RECORDED_PREP_SECONDS = Map.of(101L, 480.0, 102L, 1080.0, 103L, 720.0);
+
+    private record Event(long orderId, long restaurantId, OrderStatus status, LocalDateTime at) {
+    }
+
+    private record Replay(KitchenLoadTracker tracker, double meanErrorSeconds, double fixedGuessErrorSeconds, int orders) {
+    }
+
+    @Test
+    void estimatesBeatAFixedGuessOnRecordedTimelines() throws IOException {
+        Replay replay = replay();
+
+        System.out.printf("kitchen replay: %d delivered orders, mean error %.0f s, fixed guess %.0f s%n",
+                replay.orders(), replay.meanErrorSeconds(), replay.fixedGuessErrorSeconds());
+        assertThat(replay.orders()).isGreaterThan(200);
+        assertThat(replay.meanErrorSeconds()).isLessThan(replay.fixedGuessErrorSeconds() * 0.6);
+        // About the spread of the recorded preparation and ride times, which no estimate can beat
+        assertThat(replay.meanErrorSeconds()).isLessThan(300.0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void learnsEachKitchensPreparationTime() throws IOException {
+        KitchenLoadTracker tracker = replay().tracker();
+
+        Map<Long, Object> kitchens = (Map<Long, Object>) tracker.stats().get("kitchens");
+        RECORDED_PREP_SECONDS.forEach((restaurantId, recorded) -> {
+            Map<String, Object> kitchen = (Map<String, Object>) kitchens.get(restaurantId);
+            double learnt = ((Number) kitchen.get("prepSeconds")).doubleValue();
+            assertThat(learnt).isBetween(recorded * 0.8, recorded * 1.2);
+            // Every order finished, so nothing is left queued or cooking
+            assertThat(kitchen.get("queued")).isEqualTo(0);
+            assertThat(kitchen.get("preparing")).isEqualTo(0);
+        });
+    }
+
+    // Feeds every status change in recorded order, estimating each order's delivery as it is confirmed
+    private Replay replay() throws IOException {
+        KitchenLoadTracker tracker = new KitchenLoadTracker(null, new HotPathMetrics(null, null, null),
+                DEFAULT_PREP_SECONDS, 0.2, 7200, 4, DEFAULT_DELIVERY_SECONDS, 25, 30);
+        Map<Long, OrderStatus> statuses = new HashMap<>();
+        Map<Long, LocalDateTime> confirmedAt = new HashMap<>();
+        Map<Long, LocalDateTime> estimates = new HashMap<>();
+        double error = 0;
+        double fixedGuessError = 0;
+        int orders = 0;
+
+        for (Event event : events()) {
+            if (event.status() == OrderStatus.CONFIRMED) {
+                // As OrderLifecycleEngine does: estimated before the move itself is counted
+                estimates.put(event.orderId(), tracker.estimateDeliveryAt(order(event.restaurantId()), event.status(), event.at()));
+                confirmedAt.put(event.orderId(), event.at());
+            }
+            tracker.apply(event.orderId(), event.restaurantId(), statuses.get(event.orderId()), event.status(),
+                    event.at().toInstant(ZoneOffset.UTC).toEpochMilli());
+            statuses.put(event.orderId(), event.status());
+
+            if (event.status() == OrderStatus.DELIVERED) {
+                error += secondsBetween(estimates.get(event.orderId()), event.at());
+                LocalDateTime fixedGuess = confirmedAt.get(event.orderId())
+                        .plusSeconds((long) (DEFAULT_PREP_SECONDS + DEFAULT_DELIVERY_SECONDS));
+                fixedGuessError += secondsBetween(fixedGuess, event.at());
+                orders++;
+            }
+        }
+        return new Replay(tracker, error / orders, fixedGuessError / orders, orders);
+    }
+
+    private List<Event> events() throws IOException {
+        List<Event> events = new ArrayList<>();
+        try (InputStream in = getClass().getResourceAsStream(TIMELINES)) {
+            assertThat(in).as(TIMELINES).isNotNull();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) continue;
+                String[] fields = line.split(",");
+                events.add(new Event(Long.parseLong(fields[0]), Long.parseLong(fields[1]),
+                        OrderStatus.valueOf(fields[2]), LocalDateTime.parse(fields[3])));
+            }
+        }
+        return events;
+    }
+
+    // The recorded restaurants have no coordinates, so the delivery leg is kitchen.eta.default-delivery-seconds
+    private static Order order(long restaurantId) {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setId(restaurantId);
+        Order order = new Order();
+        order.setRestaurant(restaurant);
+        return order;
+    }
+
+    private static double secondsBetween(LocalDateTime a, LocalDateTime b) {
+        return Math.abs(Duration.between(a, b).getSeconds());
+    }
+}
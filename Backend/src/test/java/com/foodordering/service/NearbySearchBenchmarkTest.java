@@ -0,0 +1,117 @@
+package com.foodordering.service;
+
+import com.foodordering.entity.Restaurant;
+import com.foodordering.enums.ApprovalStatus;
+import com.foodordering.mapper.RestaurantMapperImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Times {@link RestaurantLocationIndex#nearest} with 100k searchable restaurants over a metro area,
+ * using the {@code /api/restaurants/nearby} defaults (20 results within 10 km). A lookup is in-process
+ * only and has to stay below a millisecond.
+ */
+class NearbySearchBenchmarkTest {
+
+    private static final int RESTAURANTS = 100_000;
+    private static final int LOOKUPS = 20_000;
+    private static final int WARMUP_LOOKUPS = 20_000;
+    private static final int LIMIT = 20;
+    private static final double RADIUS_KM = 10;
+    // Same default as restaurant.nearby.cell-km in application.properties
+    private static final double CELL_KM = 2.0;
+    // Roughly 100 x 100 km around Mumbai: about 10 restaurants per square km
+    private static final double CENTER_LATITUDE = 19.0760;
+    private static final double CENTER_LONGITUDE = 72.8777;
+    private static final double SPREAD_DEGREES = 0.9;
+
+    private final Random random = new Random(7);
+    private final List<Restaurant> restaurants = new ArrayList<>(RESTAURANTS);
+    private RestaurantLocationIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new RestaurantLocationIndex(null, new RestaurantMapperImpl(), CELL_KM);
+        for (long id = 1; id <= RESTAURANTS; id++) {
+            Restaurant restaurant = new Restaurant();
+            restaurant.setId(id);
+            restaurant.setName("Restaurant " + id);
+            restaurant.setApprovalStatus(ApprovalStatus.APPROVED);
+            restaurant.setIsOpen(true);
+            restaurant.setLatitude(CENTER_LATITUDE + (random.nextDouble() - 0.5) * SPREAD_DEGREES);
+            restaurant.setLongitude(CENTER_LONGITUDE + (random.nextDouble() - 0.5) * SPREAD_DEGREES);
+            restaurants.add(restaurant);
+            // No transaction here, so the index is updated right away
+            index.restaurantChanged(restaurant);
+        }
+    }
+
+    @Test
+    void lookupAtHundredThousandRestaurantsIsSubMillisecond() {
+        for (int i = 0; i < WARMUP_LOOKUPS; i++) {
+            lookup();
+        }
+        long[] nanos = new long[LOOKUPS];
+        long total = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            long started = System.nanoTime();
+            List<RestaurantLocationIndex.Nearby> found = lookup();
+            nanos[i] = System.nanoTime() - started;
+            total += nanos[i];
+            assertThat(found).hasSize(LIMIT);
+        }
+        Arrays.sort(nanos);
+        double meanMicros = total / 1e3 / LOOKUPS;
+        System.out.printf("nearby lookup: %d restaurants, mean %.1f us, p50 %.1f us, p99 %.1f us%n", RESTAURANTS,
+                meanMicros, nanos[LOOKUPS / 2] / 1e3, nanos[LOOKUPS * 99 / 100] / 1e3);
+
+        assertThat(meanMicros).isLessThan(1000.0);
+        assertThat(nanos[LOOKUPS / 2] / 1e3).isLessThan(1000.0);
+    }
+
+    @Test
+    void lookupReturnsTheClosestRestaurantsInOrder() {
+        for (int i = 0; i < 20; i++) {
+            double latitude = randomLatitude();
+            double longitude = randomLongitude();
+
+            List<Long> expected = restaurants.stream()
+                    .filter(r -> distance(r, latitude, longitude) <= RADIUS_KM)
+                    .sorted(Comparator.comparingDouble(r -> distance(r, latitude, longitude)))
+                    .limit(LIMIT)
+                    .map(Restaurant::getId)
+                    .collect(Collectors.toList());
+            List<Long> found = index.nearest(latitude, longitude, LIMIT, RADIUS_KM).stream()
+                    .map(nearby -> nearby.restaurant().getId())
+                    .collect(Collectors.toList());
+
+            assertThat(found).containsExactlyElementsOf(expected);
+        }
+    }
+
+    private List<RestaurantLocationIndex.Nearby> lookup() {
+        return index.nearest(randomLatitude(), randomLongitude(), LIMIT, RADIUS_KM);
+    }
+
+    // Search positions stay 10 km inside the area, so every lookup has a full page of results
+    private double randomLatitude() {
+        return CENTER_LATITUDE + (random.nextDouble() - 0.5) * (SPREAD_DEGREES - 0.2);
+    }
+
+    private double randomLongitude() {
+        return CENTER_LONGITUDE + (random.nextDouble() - 0.5) * (SPREAD_DEGREES - 0.2);
+    }
+
+    private static double distance(Restaurant restaurant, double latitude, double longitude) {
+        return GeoGridIndex.distanceKm(latitude, longitude, restaurant.getLatitude(), restaurant.getLongitude());
+    }
+}
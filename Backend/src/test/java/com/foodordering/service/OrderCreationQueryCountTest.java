@@ -0,0 +1,159 @@
+package com.foodordering.service;
+
+import com.foodordering.config.ReadYourWritesTracker;
+import com.foodordering.dto.CreateOrderDto;
+import com.foodordering.dto.OrderDto;
+import com.foodordering.dto.OrderItemRequestDto;
+import com.foodordering.entity.Address;
+import com.foodordering.entity.MenuItem;
+import com.foodordering.entity.Restaurant;
+import com.foodordering.entity.User;
+import com.foodordering.enums.ApprovalStatus;
+import com.foodordering.enums.Category;
+import com.foodordering.enums.Role;
+import com.foodordering.mapper.AddressMapperImpl;
+import com.foodordering.mapper.DeliveryMapperImpl;
+import com.foodordering.mapper.OrderItemMapperImpl;
+import com.foodordering.mapper.OrderMapperImpl;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the SQL statements Hibernate prepares while {@link OrderService#createOrder} places an order
+ * and the order is flushed. Order items take their ids from a pooled sequence and are inserted in one
+ * JDBC batch, so a 40-item cart must cost about the same as a 4-item one instead of one identity
+ * round-trip per row.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({OrderService.class, ReadYourWritesTracker.class,
+        OrderMapperImpl.class, OrderItemMapperImpl.class, AddressMapperImpl.class, DeliveryMapperImpl.class})
+class OrderCreationQueryCountTest {
+
+    private static final int SMALL_CART = 4;
+    private static final int LARGE_CART = 40;
+    // Lookups, the order, item and payment inserts (one batch each) and the odd sequence call
+    private static final long MAX_STATEMENTS = 12;
+    // A sequence call when an id block runs out; an identity id per row would add LARGE_CART - SMALL_CART
+    private static final long MAX_EXTRA_STATEMENTS = 2;
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private OrderService orderService;
+    @MockitoBean
+    private OrderNotificationDispatcher notificationDispatcher;
+    @MockitoBean
+    private OrderLifecycleScheduler lifecycleScheduler;
+    @MockitoBean
+    private OrderLifecycleEngine lifecycleEngine;
+    @MockitoBean
+    private KitchenLoadTracker kitchenLoad;
+
+    private Statistics statistics;
+    private Restaurant restaurant;
+    private Address address;
+    private final List<MenuItem> menu = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+
+        User owner = user("owner@example.com", Role.RESTAURANT_OWNER);
+        restaurant = new Restaurant();
+        restaurant.setName("Checkout Test Kitchen");
+        restaurant.setDescription("Query count fixture");
+        restaurant.setAddress("1 Test Street");
+        restaurant.setCity("Testville");
+        restaurant.setApprovalStatus(ApprovalStatus.APPROVED);
+        restaurant.setOwner(owner);
+        entityManager.persist(restaurant);
+        for (int i = 0; i < LARGE_CART; i++) {
+            MenuItem dish = new MenuItem();
+            dish.setName("Dish " + i);
+            dish.setDescription("A dish");
+            dish.setPrice(10.0 + i);
+            dish.setCategory(Category.MAIN_COURSE);
+            dish.setRestaurant(restaurant);
+            menu.add(entityManager.persist(dish));
+        }
+
+        User customer = user("customer@example.com", Role.CUSTOMER);
+        address = new Address();
+        address.setStreet("2 Customer Road");
+        address.setCity("Testville");
+        address.setState("TS");
+        address.setZipCode("12345");
+        address.setUser(customer);
+        entityManager.persist(address);
+        entityManager.flush();
+        entityManager.clear();
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(customer.getEmail(), null, List.of()));
+        // Warm-up order: the first use of each sequence fetches its initial id block
+        statements(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void orderItemsAreBatchedInsteadOfOneRoundTripEach() {
+        long small = statements(SMALL_CART);
+        long large = statements(LARGE_CART);
+
+        System.out.printf("order creation: %d items -> %d statements, %d items -> %d statements%n",
+                SMALL_CART, small, LARGE_CART, large);
+        assertThat(large).isLessThanOrEqualTo(MAX_STATEMENTS);
+        assertThat(large - small).isLessThanOrEqualTo(MAX_EXTRA_STATEMENTS);
+    }
+
+    // Statements prepared while placing an order with `items` lines and flushing it, from a cold session
+    private long statements(int items) {
+        CreateOrderDto dto = CreateOrderDto.builder()
+                .restaurantId(restaurant.getId())
+                .deliveryAddressId(address.getId())
+                .paymentMethod("CARD")
+                .items(menu.subList(0, items).stream()
+                        .map(dish -> new OrderItemRequestDto(dish.getId(), 2))
+                        .collect(Collectors.toList()))
+                .build();
+        entityManager.clear();
+        statistics.clear();
+        OrderDto order = orderService.createOrder(dto);
+        entityManager.flush();
+        long statements = statistics.getPrepareStatementCount();
+
+        assertThat(order.getItems()).hasSize(items);
+        entityManager.clear();
+        return statements;
+    }
+
+    private User user(String email, Role role) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("not-a-real-hash");
+        user.setFullName(email.substring(0, email.indexOf('@')));
+        user.setRole(role);
+        return entityManager.persist(user);
+    }
+}
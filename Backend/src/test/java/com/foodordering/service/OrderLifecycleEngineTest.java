@@ -0,0 +1,152 @@
+package com.foodordering.service;
+
+import com.foodordering.entity.Address;
+import com.foodordering.entity.Delivery;
+import com.foodordering.entity.Order;
+import com.foodordering.entity.Restaurant;
+import com.foodordering.entity.User;
+import com.foodordering.enums.ApprovalStatus;
+import com.foodordering.enums.DeliveryStatus;
+import com.foodordering.enums.LifecycleStep;
+import com.foodordering.enums.OrderStatus;
+import com.foodordering.enums.Role;
+import com.foodordering.service.OrderLifecycleScheduler.ScheduledTransition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Fires automatic progression steps through {@link OrderLifecycleEngine#applyLifecycleTransitions}
+ * against orders in the database, including steps that were queued before the order was cancelled.
+ */
+@DataJpaTest
+@Import(OrderLifecycleEngine.class)
+class OrderLifecycleEngineTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+    @Autowired
+    private OrderLifecycleEngine engine;
+    @MockitoBean
+    private OrderNotificationDispatcher notificationDispatcher;
+    @MockitoBean
+    private KitchenLoadTracker kitchenLoad;
+
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        order = preparingOrder();
+    }
+
+    @Test
+    void dispatchMovesAPreparingOrderAndPicksUpItsDelivery() {
+        Map<Long, LifecycleStep> next = fire(LifecycleStep.DISPATCH);
+
+        assertThat(next).containsEntry(order.getId(), LifecycleStep.TRANSIT);
+        Order reloaded = reload();
+        assertThat(reloaded.getStatus()).isEqualTo(OrderStatus.OUT_FOR_DELIVERY);
+        assertThat(reloaded.getDelivery().getStatus()).isEqualTo(DeliveryStatus.PICKED_UP);
+        verify(notificationDispatcher).deliveryUpdated(any());
+    }
+
+    @Test
+    void dispatchQueuedBeforeACancelLeavesTheDeliveryAlone() {
+        cancel();
+
+        Map<Long, LifecycleStep> next = fire(LifecycleStep.DISPATCH);
+
+        assertThat(next).isEmpty();
+        Order reloaded = reload();
+        assertThat(reloaded.getStatus()).isEqualTo(OrderStatus.CANCELLED);
+        assertThat(reloaded.getDelivery().getStatus()).isEqualTo(DeliveryStatus.SCHEDULED);
+        verifyNoInteractions(notificationDispatcher);
+    }
+
+    @Test
+    void transitQueuedBeforeACancelLeavesTheDeliveryAlone() {
+        cancel();
+
+        Map<Long, LifecycleStep> next = fire(LifecycleStep.TRANSIT);
+
+        assertThat(next).isEmpty();
+        assertThat(reload().getDelivery().getStatus()).isEqualTo(DeliveryStatus.SCHEDULED);
+        verify(notificationDispatcher, never()).deliveryUpdated(any());
+    }
+
+    private void cancel() {
+        assertThat(engine.transitionOrder(order, OrderStatus.CANCELLED)).isTrue();
+        entityManager.flush();
+        entityManager.clear();
+        reset(notificationDispatcher);
+    }
+
+    private Map<Long, LifecycleStep> fire(LifecycleStep step) {
+        Map<Long, LifecycleStep> next = engine.applyLifecycleTransitions(
+                List.of(new ScheduledTransition(order.getId(), step, System.currentTimeMillis())));
+        entityManager.flush();
+        entityManager.clear();
+        return next;
+    }
+
+    private Order reload() {
+        return entityManager.find(Order.class, order.getId());
+    }
+
+    private Order preparingOrder() {
+        User owner = user("owner@example.com", Role.RESTAURANT_OWNER);
+        Restaurant restaurant = new Restaurant();
+        restaurant.setName("Lifecycle Test Kitchen");
+        restaurant.setDescription("Lifecycle fixture");
+        restaurant.setAddress("1 Test Street");
+        restaurant.setCity("Testville");
+        restaurant.setApprovalStatus(ApprovalStatus.APPROVED);
+        restaurant.setOwner(owner);
+        entityManager.persist(restaurant);
+
+        User customer = user("customer@example.com", Role.CUSTOMER);
+        Address address = new Address();
+        address.setStreet("2 Customer Road");
+        address.setCity("Testville");
+        address.setState("TS");
+        address.setZipCode("12345");
+        address.setUser(customer);
+        entityManager.persist(address);
+
+        Order preparing = new Order();
+        preparing.setCustomer(customer);
+        preparing.setRestaurant(restaurant);
+        preparing.setDeliveryAddress(address);
+        preparing.setTotalAmount(30.0);
+        preparing.setStatus(OrderStatus.PREPARING);
+        Delivery delivery = new Delivery();
+        delivery.setOrder(preparing);
+        preparing.setDelivery(delivery);
+        entityManager.persist(preparing);
+        entityManager.flush();
+        return preparing;
+    }
+
+    private User user(String email, Role role) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("not-a-real-hash");
+        user.setFullName(email.substring(0, email.indexOf('@')));
+        user.setRole(role);
+        return entityManager.persist(user);
+    }
+}
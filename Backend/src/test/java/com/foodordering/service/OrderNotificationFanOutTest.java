@@ -0,0 +1,298 @@
+package com.foodordering.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodordering.config.HotPathMetrics;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompDecoder;
+import org.springframework.messaging.simp.stomp.StompEncoder;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.tcp.ReconnectStrategy;
+import org.springframework.messaging.tcp.TcpConnection;
+import org.springframework.messaging.tcp.TcpConnectionHandler;
+import org.springframework.messaging.tcp.TcpOperations;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs two app nodes against one in-memory STOMP broker, each with the broker relay that
+ * {@code websocket.broker.mode=relay} configures (/topic and /queue relayed). A client subscribed
+ * on node B must receive an order update that node A's {@link OrderNotificationDispatcher}
+ * published, just like a client on node A does.
+ */
+class OrderNotificationFanOutTest {
+
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    private StubStompBroker broker;
+    private Node nodeA;
+    private Node nodeB;
+
+    @BeforeEach
+    void setUp() {
+        broker = new StubStompBroker();
+        nodeA = new Node("a", broker);
+        nodeB = new Node("b", broker);
+        await(() -> nodeA.relay.isBrokerAvailable() && nodeB.relay.isBrokerAvailable(), "relays connected");
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeA.stop();
+        nodeB.stop();
+        broker.stop();
+    }
+
+    @Test
+    void updatePublishedOnOneNodeReachesSubscribersOnBoth() {
+        nodeA.connectClient("customer-on-a");
+        nodeB.connectClient("customer-on-b");
+        nodeB.connectClient("someone-else-on-b");
+        nodeA.subscribe("customer-on-a", "/topic/orders/42");
+        nodeB.subscribe("customer-on-b", "/topic/orders/42");
+        nodeB.subscribe("someone-else-on-b", "/topic/orders/43");
+        await(() -> broker.subscriptions() == 3, "subscriptions reached the broker");
+
+        nodeA.dispatcher.onNotification(new OrderNotificationDispatcher.Notification("order:42",
+                Map.of("id", 42, "status", "CONFIRMED"), List.of("/topic/orders/42"), null, null));
+
+        await(() -> nodeB.messages("customer-on-b").size() == 1 && nodeA.messages("customer-on-a").size() == 1,
+                "update delivered on both nodes");
+        for (Message<byte[]> message : List.of(nodeB.messages("customer-on-b").get(0), nodeA.messages("customer-on-a").get(0))) {
+            assertThat(StompHeaderAccessor.wrap(message).getDestination()).isEqualTo("/topic/orders/42");
+            assertThat(new String(message.getPayload(), StandardCharsets.UTF_8)).contains("\"status\":\"CONFIRMED\"");
+        }
+        // Delivered in order by the broker, so anything for the other subscriber would be here by now
+        assertThat(nodeB.messages("someone-else-on-b")).isEmpty();
+    }
+
+    private static void await(BooleanSupplier condition, String what) {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis() < deadline).as("timed out waiting for: %s", what).isTrue();
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    // One app instance: its client/broker channels, the relay, and a dispatcher publishing through it
+    private static final class Node {
+        private final String name;
+        private final ExecutorSubscribableChannel clientInbound = new ExecutorSubscribableChannel();
+        private final ExecutorSubscribableChannel clientOutbound = new ExecutorSubscribableChannel();
+        private final ExecutorSubscribableChannel brokerChannel = new ExecutorSubscribableChannel();
+        private final StompBrokerRelayMessageHandler relay;
+        private final OrderNotificationDispatcher dispatcher;
+        private final List<Message<byte[]>> toClients = new CopyOnWriteArrayList<>();
+
+        @SuppressWarnings("unchecked")
+        Node(String name, StubStompBroker broker) {
+            this.name = name;
+            clientOutbound.subscribe(message -> toClients.add((Message<byte[]>) message));
+            relay = new StompBrokerRelayMessageHandler(clientInbound, clientOutbound, brokerChannel, List.of("/topic", "/queue"));
+            relay.setTcpClient(broker);
+            relay.setSystemHeartbeatSendInterval(0);
+            relay.setSystemHeartbeatReceiveInterval(0);
+            relay.start();
+
+            // No Actuator here: the metrics fall back to their own observation registry
+            ObjectProvider<ObservationRegistry> noRegistry = new StaticListableBeanFactory().getBeanProvider(ObservationRegistry.class);
+            AtomicReference<OrderNotificationDispatcher> self = new AtomicReference<>();
+            dispatcher = new OrderNotificationDispatcher(null, null, new SimpMessagingTemplate(brokerChannel),
+                    new ObjectMapper(), event -> self.get().onNotification((OrderNotificationDispatcher.Notification) event),
+                    new HotPathMetrics(noRegistry, null, null), 1, 100);
+            self.set(dispatcher);
+        }
+
+        void connectClient(String session) {
+            StompHeaderAccessor connect = StompHeaderAccessor.create(StompCommand.CONNECT);
+            connect.setAcceptVersion("1.2");
+            connect.setHeartbeat(0, 0);
+            fromClient(session, connect);
+            await(() -> received(session).stream().anyMatch(m -> StompHeaderAccessor.wrap(m).getCommand() == StompCommand.CONNECTED),
+                    session + " connected through node " + name);
+        }
+
+        void subscribe(String session, String destination) {
+            StompHeaderAccessor subscribe = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+            subscribe.setDestination(destination);
+            subscribe.setSubscriptionId("sub-0");
+            fromClient(session, subscribe);
+        }
+
+        List<Message<byte[]>> messages(String session) {
+            return received(session).stream()
+                    .filter(m -> StompHeaderAccessor.wrap(m).getCommand() == StompCommand.MESSAGE)
+                    .collect(Collectors.toList());
+        }
+
+        void stop() {
+            relay.stop();
+            dispatcher.stop();
+        }
+
+        private List<Message<byte[]>> received(String session) {
+            return toClients.stream()
+                    .filter(m -> session.equals(StompHeaderAccessor.wrap(m).getSessionId()))
+                    .collect(Collectors.toList());
+        }
+
+        private void fromClient(String session, StompHeaderAccessor accessor) {
+            accessor.setSessionId(session);
+            clientInbound.send(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()));
+        }
+    }
+
+    /**
+     * Minimal STOMP 1.2 broker in memory, standing in for RabbitMQ/Artemis: connections are
+     * in-process and frames are encoded and decoded as on the wire. Every frame is handled on one
+     * thread, so deliveries keep the order they were sent in.
+     */
+    private static final class StubStompBroker implements TcpOperations<byte[]> {
+
+        private record Subscription(Link link, String id, String destination) {
+        }
+
+        private final ExecutorService wire = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "stub-stomp-broker");
+            t.setDaemon(true);
+            return t;
+        });
+        private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+        private final AtomicLong messageIds = new AtomicLong();
+        private final StompEncoder encoder = new StompEncoder();
+        private final StompDecoder decoder = new StompDecoder();
+
+        @Override
+        public CompletableFuture<Void> connectAsync(TcpConnectionHandler<byte[]> handler) {
+            Link link = new Link(handler);
+            wire.execute(() -> handler.afterConnected(link));
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletableFuture<Void> connectAsync(TcpConnectionHandler<byte[]> handler, ReconnectStrategy reconnectStrategy) {
+            return connectAsync(handler);
+        }
+
+        @Override
+        public CompletableFuture<Void> shutdownAsync() {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        int subscriptions() {
+            return subscriptions.size();
+        }
+
+        void stop() {
+            wire.shutdownNow();
+        }
+
+        private void receive(Link from, byte[] frame) {
+            for (Message<byte[]> message : decoder.decode(ByteBuffer.wrap(frame))) {
+                StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+                StompCommand command = accessor.getCommand();
+                if (command == null) continue; // heartbeat
+                switch (command) {
+                    case CONNECT, STOMP -> {
+                        StompHeaderAccessor connected = StompHeaderAccessor.create(StompCommand.CONNECTED);
+                        connected.setVersion("1.2");
+                        connected.setHeartbeat(0, 0);
+                        from.deliver(connected, new byte[0]);
+                    }
+                    case SUBSCRIBE -> subscriptions.add(new Subscription(from, accessor.getSubscriptionId(), accessor.getDestination()));
+                    case UNSUBSCRIBE -> subscriptions.removeIf(s -> s.link() == from && s.id().equals(accessor.getSubscriptionId()));
+                    case SEND -> {
+                        for (Subscription subscription : subscriptions) {
+                            if (!subscription.destination().equals(accessor.getDestination())) continue;
+                            StompHeaderAccessor delivery = StompHeaderAccessor.create(StompCommand.MESSAGE);
+                            delivery.setDestination(accessor.getDestination());
+                            delivery.setSubscriptionId(subscription.id());
+                            delivery.setMessageId(String.valueOf(messageIds.incrementAndGet()));
+                            if (accessor.getContentType() != null) {
+                                delivery.setContentType(accessor.getContentType());
+                            }
+                            subscription.link().deliver(delivery, message.getPayload());
+                        }
+                    }
+                    case DISCONNECT -> from.closed();
+                    default -> {
+                    }
+                }
+            }
+        }
+
+        // One client connection to the broker
+        private final class Link implements TcpConnection<byte[]> {
+            private final TcpConnectionHandler<byte[]> handler;
+            private volatile boolean open = true;
+
+            Link(TcpConnectionHandler<byte[]> handler) {
+                this.handler = handler;
+            }
+
+            @Override
+            public CompletableFuture<Void> sendAsync(Message<byte[]> message) {
+                byte[] frame = encoder.encode(message);
+                wire.execute(() -> {
+                    if (open) receive(this, frame);
+                });
+                return CompletableFuture.completedFuture(null);
+            }
+
+            @Override
+            public void onReadInactivity(Runnable runnable, long duration) {
+            }
+
+            @Override
+            public void onWriteInactivity(Runnable runnable, long duration) {
+            }
+
+            @Override
+            public void close() {
+                wire.execute(this::closed);
+            }
+
+            void deliver(StompHeaderAccessor accessor, byte[] payload) {
+                if (!open) return;
+                byte[] frame = encoder.encode(accessor.getMessageHeaders(), payload);
+                decoder.decode(ByteBuffer.wrap(frame)).forEach(handler::handleMessage);
+            }
+
+            void closed() {
+                if (!open) return;
+                open = false;
+                subscriptions.removeIf(s -> Objects.equals(s.link(), this));
+                handler.afterConnectionClosed();
+            }
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package com.foodordering.service;
+
+import com.foodordering.config.ReadYourWritesTracker;
+import com.foodordering.dto.OrderDto;
+import com.foodordering.entity.Address;
+import com.foodordering.entity.Delivery;
+import com.foodordering.entity.Order;
+import com.foodordering.entity.Restaurant;
+import com.foodordering.entity.User;
+import com.foodordering.enums.ApprovalStatus;
+import com.foodordering.enums.DeliveryStatus;
+import com.foodordering.enums.LifecycleStep;
+import com.foodordering.enums.OrderStatus;
+import com.foodordering.enums.Role;
+import com.foodordering.mapper.AddressMapperImpl;
+import com.foodordering.mapper.DeliveryMapperImpl;
+import com.foodordering.mapper.OrderItemMapperImpl;
+import com.foodordering.mapper.OrderMapperImpl;
+import com.foodordering.repository.AddressRepository;
+import com.foodordering.repository.DeliveryRepository;
+import com.foodordering.repository.DriverRepository;
+import com.foodordering.repository.OrderRepository;
+import com.foodordering.repository.RestaurantRepository;
+import com.foodordering.repository.UserRepository;
+import com.foodordering.service.OrderLifecycleScheduler.ScheduledTransition;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Races automatic lifecycle steps against {@link OrderService#updateOrderStatus} and
+ * {@link OrderService#cancelOrder} on the same orders from many threads. The steps run on two
+ * {@link OrderLifecycleEngine}s sharing one database, like two instances of the app, so stale copies
+ * really do fail their {@code @Version} check. Every committed status is watched while the race runs:
+ * none may move backwards, a cancelled order may never be delivered, and no conflict may surface as a
+ * failure instead of being retried.
+ */
+@DataJpaTest(properties = "order.lifecycle.max-attempts=50")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({OrderService.class, OrderLifecycleEngine.class, ReadYourWritesTracker.class,
+        OrderMapperImpl.class, OrderItemMapperImpl.class, AddressMapperImpl.class, DeliveryMapperImpl.class})
+class OrderStatusConcurrencyStressTest {
+
+    private static final int ORDERS = 200;
+    private static final int THREADS = 16;
+    private static final List<OrderStatus> PROGRESS = List.of(OrderStatus.PENDING, OrderStatus.CONFIRMED,
+            OrderStatus.PREPARING, OrderStatus.OUT_FOR_DELIVERY, OrderStatus.DELIVERED);
+    private static final Set<OrderStatus> CANCELLABLE = EnumSet.of(OrderStatus.PENDING, OrderStatus.CONFIRMED,
+            OrderStatus.PREPARING);
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private OrderLifecycleEngine engine;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private DeliveryRepository deliveryRepository;
+    @Autowired
+    private DriverRepository driverRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+    @Autowired
+    private AddressRepository addressRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private DataSource dataSource;
+    @MockitoBean
+    private OrderNotificationDispatcher notificationDispatcher;
+    @MockitoBean
+    private OrderLifecycleScheduler lifecycleScheduler;
+    @MockitoBean
+    private KitchenLoadTracker kitchenLoad;
+
+    private final Random random = new Random(17);
+    private final ConcurrentLinkedQueue<String> failures = new ConcurrentLinkedQueue<>();
+    // order id -> statuses OrderService reported back to its callers
+    private final Map<Long, Set<String>> reported = new ConcurrentHashMap<>();
+
+    @Test
+    void racingTransitionsNeverRegressOrResurrectACancelledOrder() throws Exception {
+        List<Long> ids = placeOrders();
+        // A second instance of the app: its own shards, same database
+        OrderLifecycleEngine otherNode = new OrderLifecycleEngine(orderRepository, deliveryRepository, driverRepository,
+                notificationDispatcher, kitchenLoad, transactionManager, 4, 50);
+
+        List<Runnable> work = new ArrayList<>();
+        for (Long id : ids) {
+            for (LifecycleStep step : LifecycleStep.values()) {
+                work.add(() -> fire(engine, id, step));
+                work.add(() -> fire(otherNode, id, step));
+            }
+            for (OrderStatus target : PROGRESS.subList(1, PROGRESS.size())) {
+                work.add(() -> report(id, () -> orderService.updateOrderStatus(id, target.name())));
+            }
+            work.add(() -> report(id, () -> orderService.cancelOrder(id)));
+            work.add(() -> report(id, () -> orderService.cancelOrder(id)));
+        }
+        Collections.shuffle(work, random);
+
+        Watcher watcher = new Watcher();
+        Thread watching = new Thread(watcher, "status-watcher");
+        watching.start();
+        ExecutorService callers = Executors.newFixedThreadPool(THREADS);
+        try {
+            work.forEach(callers::execute);
+            callers.shutdown();
+            assertThat(callers.awaitTermination(2, TimeUnit.MINUTES)).isTrue();
+        } finally {
+            callers.shutdownNow();
+            watcher.stop();
+            watching.join();
+            otherNode.stop();
+        }
+        watcher.check();
+
+        System.out.printf("status race: %d orders, %d calls, %d conflict retries%n", ORDERS, work.size(),
+                engine.conflictRetries() + otherNode.conflictRetries());
+        assertThat(new ArrayList<>(failures)).as("calls that failed other than by being refused").isEmpty();
+        assertThat(watcher.regressions()).isEmpty();
+        // The two instances did collide, and every collision was retried rather than surfacing above
+        assertThat(engine.conflictRetries() + otherNode.conflictRetries()).isGreaterThan(0L);
+
+        Map<Long, OrderStatus> statuses = watcher.read();
+        Map<Long, DeliveryStatus> deliveries = deliveryStatuses();
+        for (Long id : ids) {
+            Set<String> seen = reported.getOrDefault(id, Set.of());
+            assertThat(seen.contains(OrderStatus.CANCELLED.name()) && seen.contains(OrderStatus.DELIVERED.name()))
+                    .as("order %d reported both cancelled and delivered", id).isFalse();
+            if (seen.contains(OrderStatus.CANCELLED.name())) {
+                assertThat(statuses.get(id)).isEqualTo(OrderStatus.CANCELLED);
+            }
+            // The delivery follows the order: untouched when cancelled, finished when delivered
+            if (statuses.get(id) == OrderStatus.CANCELLED) {
+                assertThat(deliveries.get(id)).isEqualTo(DeliveryStatus.SCHEDULED);
+            }
+            if (statuses.get(id) == OrderStatus.DELIVERED) {
+                assertThat(deliveries.get(id)).isEqualTo(DeliveryStatus.DELIVERED);
+            }
+        }
+    }
+
+    // Fires one automatic step the way OrderLifecycleScheduler does: as a batch on the order's shard
+    private void fire(OrderLifecycleEngine node, Long id, LifecycleStep step) {
+        try {
+            node.submit(node.shardOf(id), () -> node.applyLifecycleTransitions(
+                    List.of(new ScheduledTransition(id, step, System.currentTimeMillis())))).join();
+        } catch (CompletionException ex) {
+            failures.add(step + " on order " + id + ": " + ex.getCause());
+        }
+    }
+
+    private void report(Long id, Supplier<OrderDto> call) {
+        try {
+            reported.computeIfAbsent(id, key -> ConcurrentHashMap.newKeySet()).add(call.get().getStatus());
+        } catch (IllegalArgumentException refused) {
+            // The order had already moved past what the caller asked for
+        } catch (RuntimeException ex) {
+            failures.add("order " + id + ": " + ex);
+        }
+    }
+
+    private List<Long> placeOrders() {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            User owner = user("owner@example.com", Role.RESTAURANT_OWNER);
+            Restaurant restaurant = new Restaurant();
+            restaurant.setName("Stress Test Kitchen");
+            restaurant.setDescription("Concurrency fixture");
+            restaurant.setAddress("1 Test Street");
+            restaurant.setCity("Testville");
+            restaurant.setApprovalStatus(ApprovalStatus.APPROVED);
+            restaurant.setOwner(owner);
+            restaurantRepository.save(restaurant);
+
+            User customer = user("customer@example.com", Role.CUSTOMER);
+            Address address = new Address();
+            address.setStreet("2 Customer Road");
+            address.setCity("Testville");
+            address.setState("TS");
+            address.setZipCode("12345");
+            address.setUser(customer);
+            addressRepository.save(address);
+
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < ORDERS; i++) {
+                Order order = new Order();
+                order.setCustomer(customer);
+                order.setRestaurant(restaurant);
+                order.setDeliveryAddress(address);
+                order.setTotalAmount(30.0);
+                Delivery delivery = new Delivery();
+                delivery.setOrder(order);
+                order.setDelivery(delivery);
+                ids.add(orderRepository.save(order).getId());
+            }
+            return ids;
+        });
+    }
+
+    private User user(String email, Role role) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("not-a-real-hash");
+        user.setFullName(email.substring(0, email.indexOf('@')));
+        user.setRole(role);
+        return userRepository.save(user);
+    }
+
+    private Map<Long, DeliveryStatus> deliveryStatuses() {
+        Map<Long, DeliveryStatus> statuses = new ConcurrentHashMap<>();
+        new JdbcTemplate(dataSource).query("SELECT order_id, status FROM deliveries", row -> {
+            statuses.put(row.getLong(1), DeliveryStatus.valueOf(row.getString(2)));
+        });
+        return statuses;
+    }
+
+    // Polls every order's committed status and records any move that no caller could legally make
+    private final class Watcher implements Runnable {
+        private final JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        private final AtomicBoolean running = new AtomicBoolean(true);
+        private final Map<Long, OrderStatus> last = new ConcurrentHashMap<>();
+        private final List<String> regressions = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void run() {
+            while (running.get()) {
+                check();
+            }
+        }
+
+        void stop() {
+            running.set(false);
+        }
+
+        void check() {
+            read().forEach((id, status) -> {
+                OrderStatus before = last.put(id, status);
+                if (before != null && !allowed(before, status)) {
+                    regressions.add("order " + id + ": " + before + " -> " + status);
+                }
+            });
+        }
+
+        Map<Long, OrderStatus> read() {
+            Map<Long, OrderStatus> statuses = new ConcurrentHashMap<>();
+            jdbc.query("SELECT id, status FROM orders", row -> {
+                statuses.put(row.getLong(1), OrderStatus.valueOf(row.getString(2)));
+            });
+            return statuses;
+        }
+
+        List<String> regressions() {
+            return new ArrayList<>(regressions);
+        }
+
+        private boolean allowed(OrderStatus from, OrderStatus to) {
+            if (from == to) return true;
+            if (to == OrderStatus.CANCELLED) return CANCELLABLE.contains(from);
+            return from != OrderStatus.CANCELLED && PROGRESS.indexOf(to) > PROGRESS.indexOf(from);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.foodordering.service;
+
+import com.foodordering.config.ReadYourWritesTracker;
+import com.foodordering.dto.CreateOrderDto;
+import com.foodordering.dto.OrderItemRequestDto;
+import com.foodordering.entity.Address;
+import com.foodordering.entity.MenuItem;
+import com.foodordering.entity.Restaurant;
+import com.foodordering.entity.User;
+import com.foodordering.enums.ApprovalStatus;
+import com.foodordering.enums.Category;
+import com.foodordering.enums.Role;
+import com.foodordering.mapper.AddressMapperImpl;
+import com.foodordering.mapper.DeliveryMapperImpl;
+import com.foodordering.mapper.OrderItemMapperImpl;
+import com.foodordering.mapper.OrderMapperImpl;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Times orders placed through {@link OrderService#createOrder} under the default settings and under
+ * the {@code prod} profile (application-prod.properties), one application context each, and compares
+ * orders per second. Both run on the embedded H2 database {@code @DataJpaTest} provides, so this covers
+ * what the profile changes in Hibernate: no SQL echo, ordered and batched updates. The Hikari pool and
+ * Connector/J statement caching only take effect against MySQL and are not measured here.
+ */
+class OrderThroughputProfileTest {
+
+    private static final int ITEMS_PER_ORDER = 10;
+    private static final int WARMUP_ORDERS = 100;
+    private static final int ORDERS = 500;
+    private static final double MIN_PROD_ORDERS_PER_SECOND = 100;
+    // Timing noise allowed between the two runs before the prod profile counts as slower
+    private static final double NOISE = 0.9;
+
+    private static final Map<String, Double> ordersPerSecond = new ConcurrentHashMap<>();
+
+    @AfterAll
+    static void prodProfileIsNotSlower() {
+        System.out.printf("order throughput: %s orders/s%n", ordersPerSecond);
+        // Only when both profiles ran, not when one nested class is run on its own
+        if (ordersPerSecond.size() < 2) return;
+        assertThat(ordersPerSecond.get("prod")).isGreaterThanOrEqualTo(ordersPerSecond.get("default") * NOISE);
+    }
+
+    @Nested
+    class DefaultProfile extends OrderLoad {
+        @Override
+        String profile() {
+            return "default";
+        }
+    }
+
+    // Embedded H2 still replaces the profile's MySQL datasource, so only the dialect has to follow it
+    @Nested
+    @DataJpaTest(showSql = false, properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+    @ActiveProfiles("prod")
+    class ProdProfile extends OrderLoad {
+        @Override
+        String profile() {
+            return "prod";
+        }
+
+        @Override
+        void check(double rate) {
+            assertThat(rate).isGreaterThanOrEqualTo(MIN_PROD_ORDERS_PER_SECOND);
+        }
+    }
+
+    // One customer ordering the same cart over and over, each order flushed as its request would commit it
+    @DataJpaTest
+    @Import({OrderService.class, ReadYourWritesTracker.class,
+            OrderMapperImpl.class, OrderItemMapperImpl.class, AddressMapperImpl.class, DeliveryMapperImpl.class})
+    abstract class OrderLoad {
+
+        @Autowired
+        private TestEntityManager entityManager;
+        @Autowired
+        private OrderService orderService;
+        @MockitoBean
+        private OrderNotificationDispatcher notificationDispatcher;
+        @MockitoBean
+        private OrderLifecycleScheduler lifecycleScheduler;
+        @MockitoBean
+        private OrderLifecycleEngine lifecycleEngine;
+        @MockitoBean
+        private KitchenLoadTracker kitchenLoad;
+
+        private CreateOrderDto cart;
+
+        abstract String profile();
+
+        void check(double rate) {
+        }
+
+        @BeforeEach
+        void setUp() {
+            User owner = user("owner@example.com", Role.RESTAURANT_OWNER);
+            Restaurant restaurant = new Restaurant();
+            restaurant.setName("Throughput Test Kitchen");
+            restaurant.setDescription("Load test fixture");
+            restaurant.setAddress("1 Test Street");
+            restaurant.setCity("Testville");
+            restaurant.setApprovalStatus(ApprovalStatus.APPROVED);
+            restaurant.setOwner(owner);
+            entityManager.persist(restaurant);
+            List<MenuItem> menu = new ArrayList<>();
+            for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+                MenuItem dish = new MenuItem();
+                dish.setName("Dish " + i);
+                dish.setDescription("A dish");
+                dish.setPrice(10.0 + i);
+                dish.setCategory(Category.MAIN_COURSE);
+                dish.setRestaurant(restaurant);
+                menu.add(entityManager.persist(dish));
+            }
+
+            User customer = user("customer@example.com", Role.CUSTOMER);
+            Address address = new Address();
+            address.setStreet("2 Customer Road");
+            address.setCity("Testville");
+            address.setState("TS");
+            address.setZipCode("12345");
+            address.setUser(customer);
+            entityManager.persist(address);
+            entityManager.flush();
+            entityManager.clear();
+
+            cart = CreateOrderDto.builder()
+                    .restaurantId(restaurant.getId())
+                    .deliveryAddressId(address.getId())
+                    .paymentMethod("CARD")
+                    .items(menu.stream().map(dish -> new OrderItemRequestDto(dish.getId(), 1)).collect(Collectors.toList()))
+                    .build();
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(customer.getEmail(), null, List.of()));
+        }
+
+        @AfterEach
+        void tearDown() {
+            SecurityContextHolder.clearContext();
+        }
+
+        @Test
+        void placeOrders() {
+            place(WARMUP_ORDERS);
+            long started = System.nanoTime();
+            place(ORDERS);
+            double rate = ORDERS / ((System.nanoTime() - started) / 1e9);
+
+            System.out.printf("order throughput (%s): %d orders of %d items, %.0f orders/s%n",
+                    profile(), ORDERS, ITEMS_PER_ORDER, rate);
+            ordersPerSecond.put(profile(), rate);
+            check(rate);
+        }
+
+        private void place(int orders) {
+            for (int i = 0; i < orders; i++) {
+                assertThat(orderService.createOrder(cart).getItems()).hasSize(ITEMS_PER_ORDER);
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+
+        private User user(String email, Role role) {
+            User user = new User();
+            user.setEmail(email);
+            user.setPassword("not-a-real-hash");
+            user.setFullName(email.substring(0, email.indexOf('@')));
+            user.setRole(role);
+            return entityManager.persist(user);
+        }
+    }
+}
@@ -1,7 +1,8 @@
 import { Component, OnInit } from '@angular/core';
 import { CommonModule } from '@angular/common';
 import { FormsModule } from '@angular/forms';
-import { HttpClient } from '@angular/common/http';
+import { HttpClient, HttpParams } from '@angular/common/http';
+import { Observable, map } from 'rxjs';
 import { environment } from '../../../environments/environment';
 import { AuthService } from '../../services/auth.service';
 import { Router } from '@angular/router';
@@ -26,6 +27,14 @@ interface User {
   phone: string;
 }
 
+// One keyset page of an admin list; pass nextCursor back as `cursor` for the next one (null on the last page)
+interface CursorPage<T> {
+  items: T[];
+  nextCursor: number | null;
+}
+
+const PAGE_SIZE = 50;
+
 interface Order {
   id: number;
   userId: number;
@@ -51,6 +60,11 @@ export class AdminDashboardComponent implements OnInit {
   
   users: User[] = [];
   orders: Order[] = [];
+
+  pendingCursor: number | null = null;
+  approvedCursor: number | null = null;
+  usersCursor: number | null = null;
+  ordersCursor: number | null = null;
   
   stats = {
     totalUsers: 0,
@@ -82,47 +96,60 @@ export class AdminDashboardComponent implements OnInit {
     this.loadStats();
   }
 
-  loadPendingRestaurants() {
-    this.http.get<any>(`${environment.apiUrl}/admin/restaurants/pending`)
+  // Each list loads its first page; passing more = true appends the page after the last one loaded
+  loadPendingRestaurants(more = false) {
+    this.fetchPage<Restaurant>('restaurants/pending', {}, more ? this.pendingCursor : null)
       .subscribe({
-        next: (response) => {
-          this.pendingRestaurants = response.data || response || [];
+        next: (page) => {
+          this.pendingRestaurants = more ? [...this.pendingRestaurants, ...page.items] : page.items;
+          this.pendingCursor = page.nextCursor;
         },
         error: (err) => console.error('Error loading pending restaurants:', err)
       });
   }
 
-  loadApprovedRestaurants() {
-    this.http.get<any>(`${environment.apiUrl}/admin/restaurants`)
+  loadApprovedRestaurants(more = false) {
+    this.fetchPage<Restaurant>('restaurants', { status: 'APPROVED' }, more ? this.approvedCursor : null)
       .subscribe({
-        next: (response) => {
-          const allRestaurants = response.data || response || [];
-          this.approvedRestaurants = allRestaurants.filter((r: any) => r.approvalStatus === 'APPROVED');
+        next: (page) => {
+          this.approvedRestaurants = more ? [...this.approvedRestaurants, ...page.items] : page.items;
+          this.approvedCursor = page.nextCursor;
         },
         error: (err) => console.error('Error loading approved restaurants:', err)
       });
   }
 
-  loadUsers() {
-    this.http.get<any>(`${environment.apiUrl}/admin/users`)
+  loadUsers(more = false) {
+    this.fetchPage<User>('users', {}, more ? this.usersCursor : null)
       .subscribe({
-        next: (response) => {
-          this.users = response.data || response || [];
+        next: (page) => {
+          this.users = more ? [...this.users, ...page.items] : page.items;
+          this.usersCursor = page.nextCursor;
         },
         error: (err) => console.error('Error loading users:', err)
       });
   }
 
-  loadOrders() {
-    this.http.get<any>(`${environment.apiUrl}/admin/orders`)
+  loadOrders(more = false) {
+    this.fetchPage<Order>('orders', {}, more ? this.ordersCursor : null)
       .subscribe({
-        next: (response) => {
-          this.orders = response.data || response || [];
+        next: (page) => {
+          this.orders = more ? [...this.orders, ...page.items] : page.items;
+          this.ordersCursor = page.nextCursor;
         },
         error: (err) => console.error('Error loading orders:', err)
       });
   }
 
+  private fetchPage<T>(path: string, filters: Record<string, string>, cursor: number | null): Observable<CursorPage<T>> {
+    let params = new HttpParams({ fromObject: filters }).set('limit', PAGE_SIZE);
+    if (cursor !== null) {
+      params = params.set('cursor', cursor);
+    }
+    return this.http.get<any>(`${environment.apiUrl}/admin/${path}`, { params })
+      .pipe(map((response) => (response.data || { items: [], nextCursor: null }) as CursorPage<T>));
+  }
+
   loadStats() {
     // Calculate stats from loaded data
     this.stats = {